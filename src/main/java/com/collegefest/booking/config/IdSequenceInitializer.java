@@ -0,0 +1,58 @@
+package com.collegefest.booking.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Moves the id sequences of bookings, seat_reservations and transactions past the ids already in use.
+ * Those tables used AUTO_INCREMENT ids before switching to pooled sequences, and MySQL emulates the
+ * sequences with one-row tables that Hibernate creates starting at 1. Runs while the context starts, once
+ * Hibernate has created the sequence tables and before the web server accepts its first booking.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    // Must match the allocationSize of the @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "bookings", "bookings_seq",
+            "seat_reservations", "seat_reservations_seq",
+            "transactions", "transactions_seq");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void moveSequencesPastExistingIds() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")) {
+                return; // Other databases here are created from scratch with native sequences
+            }
+        }
+
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject("SELECT MAX(next_val) FROM " + sequence, Long.class);
+            // A pooled block ends at the stored value, so it has to clear the highest id by a whole block
+            long required = maxId + ALLOCATION_SIZE + 1;
+            if (nextValue == null || nextValue < required) {
+                jdbcTemplate.update("DELETE FROM " + sequence);
+                jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) VALUES (?)", required);
+                log.info("Moved id sequence {} from {} to {} (max id in {} is {})", sequence, nextValue, required, table, maxId);
+            }
+        });
+    }
+}
@@ -3,6 +3,7 @@ package com.collegefest.booking.config;
 import com.collegefest.booking.security.CustomUserDetailsService;
 import com.collegefest.booking.security.JwtAuthenticationEntryPoint;
 import com.collegefest.booking.security.JwtAuthenticationFilter;
+import com.collegefest.booking.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -109,6 +110,7 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(PageCursor.HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
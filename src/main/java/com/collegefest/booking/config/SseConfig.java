@@ -0,0 +1,32 @@
+package com.collegefest.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writer threads shared by all Server-Sent Events streams. A stream write blocks while the client socket is
+ * full, so these are kept apart from request and scheduler threads.
+ */
+@Configuration
+public class SseConfig {
+
+    @Value("${booking.sse.writer-threads:4}")
+    private int writerThreads;
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService sseWriterExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "sse-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(writerThreads, threadFactory);
+    }
+}
@@ -0,0 +1,50 @@
+package com.collegefest.booking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Extra wiring for the virtual-thread mode (spring.threads.virtual.enabled=true on Java 21), in which Spring
+ * Boot runs Tomcat requests, @Async and @Scheduled work on virtual threads.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Value("${booking.virtual-threads.requests-per-connection:2}")
+    private int requestsPerConnection;
+
+    @Value("${booking.virtual-threads.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    @Bean
+    public ConnectionPoolLimitFilter connectionPoolLimitFilter(DataSource dataSource, ObjectMapper objectMapper)
+            throws SQLException {
+        int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        int maxConcurrentRequests = poolSize * requestsPerConnection;
+        log.info("Virtual threads enabled: at most {} API requests in flight for {} pooled connections",
+                maxConcurrentRequests, poolSize);
+        return new ConnectionPoolLimitFilter(maxConcurrentRequests, maxWaitMillis, objectMapper);
+    }
+
+    // Ahead of the security filter chain
+    @Bean
+    public FilterRegistrationBean<ConnectionPoolLimitFilter> connectionPoolLimitFilterRegistration(
+            ConnectionPoolLimitFilter filter) {
+        FilterRegistrationBean<ConnectionPoolLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
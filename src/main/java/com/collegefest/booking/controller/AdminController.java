@@ -1,17 +1,30 @@
 package com.collegefest.booking.controller;
 
 import com.collegefest.booking.dto.response.ApiResponse;
+import com.collegefest.booking.dto.response.BookingSummaryDTO;
 import com.collegefest.booking.dto.response.DashboardStatsResponse;
 import com.collegefest.booking.entity.*;
+import com.collegefest.booking.exception.BookingException;
 import com.collegefest.booking.repository.BookingRepository;
 import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.repository.RevenueDailyRepository;
 import com.collegefest.booking.repository.UserRepository;
 import com.collegefest.booking.repository.VenueRepository;
+import com.collegefest.booking.service.BookingExpirySweeper;
+import com.collegefest.booking.service.BookingFactStore;
+import com.collegefest.booking.service.BookingMetricsService;
+import com.collegefest.booking.service.BookingSchedulerService;
+import com.collegefest.booking.service.BookingService;
+import com.collegefest.booking.service.DashboardMetricsService;
 import com.collegefest.booking.service.DashboardService;
+import com.collegefest.booking.service.LedgerOutboxDispatcher;
+import com.collegefest.booking.service.SeatMapStreamService;
+import com.collegefest.booking.service.TierAvailabilityService;
+import com.collegefest.booking.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -34,7 +47,17 @@ public class AdminController {
     private final EventRepository eventRepository;
     private final BookingRepository bookingRepository;
     private final VenueRepository venueRepository;
+    private final RevenueDailyRepository revenueDailyRepository;
     private final DashboardService dashboardService;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final BookingFactStore bookingFactStore;
+    private final BookingService bookingService;
+    private final BookingMetricsService bookingMetricsService;
+    private final LedgerOutboxDispatcher ledgerOutboxDispatcher;
+    private final BookingSchedulerService bookingSchedulerService;
+    private final BookingExpirySweeper bookingExpirySweeper;
+    private final TierAvailabilityService tierAvailabilityService;
+    private final SeatMapStreamService seatMapStreamService;
 
     // ========== DASHBOARD ==========
 
@@ -44,22 +67,20 @@ public class AdminController {
             log.info("GET /api/admin/dashboard - Fetching dashboard stats");
             Map<String, Object> stats = new HashMap<>();
 
+            // Booking and event figures come from the incrementally maintained counters
+            DashboardMetricsService.Snapshot metrics = dashboardMetricsService.snapshot();
             long totalUsers    = userRepository.count();
-            long totalEvents   = eventRepository.count();
-            long totalBookings = bookingRepository.count();
+            long totalEvents   = metrics.totalEvents();
+            long totalBookings = metrics.totalBookings();
             long totalVenues   = venueRepository.count();
 
-            // Calculate revenue from confirmed bookings
-            BigDecimal totalRevenue = bookingRepository.findAll().stream()
-                    .filter(b -> b.getBookingStatus() == BookingStatus.CONFIRMED && b.getTotalAmount() != null)
-                    .map(Booking::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal totalRevenue = metrics.confirmedRevenue();
 
             // Count events by status
-            long activeEvents    = eventRepository.findAll().stream().filter(e -> e.getStatus() == EventStatus.ACTIVE || e.getStatus() == EventStatus.BOOKING_OPEN || e.getStatus() == EventStatus.PUBLISHED).count();
-            long upcomingEvents  = eventRepository.findAll().stream().filter(e -> e.getStatus() == EventStatus.DRAFT).count();
-            long completedEvents = eventRepository.findAll().stream().filter(e -> e.getStatus() == EventStatus.COMPLETED).count();
-            long cancelledEvents = eventRepository.findAll().stream().filter(e -> e.getStatus() == EventStatus.CANCELLED).count();
+            long activeEvents    = metrics.events(EventStatus.ACTIVE, EventStatus.BOOKING_OPEN, EventStatus.PUBLISHED);
+            long upcomingEvents  = metrics.events(EventStatus.DRAFT);
+            long completedEvents = metrics.events(EventStatus.COMPLETED);
+            long cancelledEvents = metrics.events(EventStatus.CANCELLED);
 
             stats.put("totalUsers", totalUsers);
             stats.put("totalEvents", totalEvents);
@@ -108,13 +129,25 @@ public class AdminController {
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
         try {
-            log.info("GET /api/admin/users - Fetching users (page={}, size={})", page, size);
-            List<User> users = userRepository.findAll(
-                    PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "fullName"))).getContent();
+            log.info("GET /api/admin/users - Fetching users (page={}, size={}, cursor={})", page, size, cursor);
+            PageCursor.checkSize(size);
+            PageCursor.Page<User> users;
+            if (cursor != null) {
+                PageCursor after = PageCursor.decode(cursor);
+                users = PageCursor.page(userRepository.findPageAfter(after.key(), after.id(), PageRequest.of(0, size + 1)),
+                        size, User::getFullName, User::getId);
+            } else if (page > 0) {
+                // Offset paging for older clients; it gets slower with every page, the cursor does not
+                users = new PageCursor.Page<>(userRepository.findPage(PageRequest.of(page, size)), null);
+            } else {
+                users = PageCursor.page(userRepository.findPage(PageRequest.of(0, size + 1)),
+                        size, User::getFullName, User::getId);
+            }
 
-            List<Map<String, Object>> result = users.stream().map(u -> {
+            List<Map<String, Object>> result = users.items().stream().map(u -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", u.getId());
                 map.put("email", u.getEmail());
@@ -129,7 +162,9 @@ public class AdminController {
             }).collect(Collectors.toList());
 
             log.info("Retrieved {} users", result.size());
-            return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", result));
+            return withNextCursor(users.nextCursor()).body(ApiResponse.success("Users retrieved successfully", result));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching users", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -200,19 +235,32 @@ public class AdminController {
     @GetMapping("/bookings")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAllBookings(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
         try {
-            log.info("GET /api/admin/bookings - Fetching bookings (page={}, size={})", page, size);
-            List<Booking> bookings = bookingRepository.findAll(
-                    PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "bookedAt"))).getContent();
+            log.info("GET /api/admin/bookings - Fetching bookings (page={}, size={}, cursor={})", page, size, cursor);
+            PageCursor.checkSize(size);
+            PageCursor.Page<BookingSummaryDTO> bookings;
+            if (cursor != null) {
+                PageCursor after = PageCursor.decode(cursor);
+                bookings = PageCursor.page(bookingRepository.findRecentSummariesAfter(
+                                after.dateTimeKey(), after.id(), PageRequest.of(0, size + 1)),
+                        size, BookingSummaryDTO::getBookedAt, BookingSummaryDTO::getId);
+            } else if (page > 0) {
+                // Offset paging for older clients; it gets slower with every page, the cursor does not
+                bookings = new PageCursor.Page<>(bookingRepository.findRecentSummaries(PageRequest.of(page, size)), null);
+            } else {
+                bookings = PageCursor.page(bookingRepository.findRecentSummaries(PageRequest.of(0, size + 1)),
+                        size, BookingSummaryDTO::getBookedAt, BookingSummaryDTO::getId);
+            }
 
-            List<Map<String, Object>> result = bookings.stream().map(b -> {
+            List<Map<String, Object>> result = bookings.items().stream().map(b -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", b.getId());
                 map.put("bookingReference", b.getBookingReference());
-                map.put("eventName",  b.getEvent() != null ? b.getEvent().getEventName()  : "—");
-                map.put("userName",   b.getUser()  != null ? b.getUser().getFullName()     : "—");
-                map.put("userEmail",  b.getUser()  != null ? b.getUser().getEmail()        : "—");
+                map.put("eventName",  b.getEventName());
+                map.put("userName",   b.getUserName());
+                map.put("userEmail",  b.getUserEmail());
                 map.put("numTickets",    b.getNumTickets());
                 map.put("totalAmount",   b.getTotalAmount());
                 map.put("bookingStatus", b.getBookingStatus() != null ? b.getBookingStatus().name() : "PENDING_PAYMENT");
@@ -223,7 +271,9 @@ public class AdminController {
             }).collect(Collectors.toList());
 
             log.info("Retrieved {} bookings", result.size());
-            return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", result));
+            return withNextCursor(bookings.nextCursor()).body(ApiResponse.success("Bookings retrieved successfully", result));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching bookings", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -241,13 +291,8 @@ public class AdminController {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Status is required"));
             }
             BookingStatus newStatus = BookingStatus.valueOf(status.toUpperCase());
-            Booking booking = bookingRepository.findById(bookingId)
-                    .orElseThrow(() -> new RuntimeException("Booking not found with id: " + bookingId));
-            booking.setBookingStatus(newStatus);
-            if (newStatus == BookingStatus.CONFIRMED && booking.getConfirmedAt() == null) {
-                booking.setConfirmedAt(LocalDateTime.now());
-            }
-            bookingRepository.save(booking);
+            // Also queues the PAYMENT or REFUND ledger row when the booking moves into or out of CONFIRMED
+            bookingService.updateStatus(bookingId, newStatus);
             log.info("Updated booking {} status to {}", bookingId, newStatus);
             Map<String, Object> response = Map.of("bookingId", bookingId, "bookingStatus", newStatus.name());
             return ResponseEntity.ok(ApiResponse.success("Booking status updated", response));
@@ -265,16 +310,15 @@ public class AdminController {
             @RequestParam(defaultValue = "10") int limit) {
         try {
             log.info("GET /api/admin/bookings/recent - Fetching recent bookings (limit: {})", limit);
-            List<Booking> bookings = bookingRepository.findAll(
-                    PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "bookedAt"))).getContent();
+            List<BookingSummaryDTO> bookings = bookingRepository.findRecentSummaries(PageRequest.of(0, limit));
 
             List<Map<String, Object>> result = bookings.stream().map(b -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", b.getId());
                 map.put("bookingReference", b.getBookingReference());
-                map.put("eventName",    b.getEvent() != null ? b.getEvent().getEventName()  : "—");
-                map.put("userName",     b.getUser()  != null ? b.getUser().getFullName()     : "—");
-                map.put("userEmail",    b.getUser()  != null ? b.getUser().getEmail()        : "—");
+                map.put("eventName",    b.getEventName());
+                map.put("userName",     b.getUserName());
+                map.put("userEmail",    b.getUserEmail());
                 map.put("totalAmount",  b.getTotalAmount());
                 map.put("bookingStatus",b.getBookingStatus() != null ? b.getBookingStatus().name() : "PENDING_PAYMENT");
                 map.put("bookedAt",     b.getBookedAt());
@@ -294,28 +338,23 @@ public class AdminController {
             @RequestParam(defaultValue = "30days") String period) {
         try {
             log.info("GET /api/admin/analytics/revenue - period: {}", period);
-            List<Booking> allBookings = bookingRepository.findAll();
             LocalDate now = LocalDate.now();
             int days = period.equals("7days") ? 7 : period.equals("90days") ? 90 : 30;
+            LocalDate from = now.minusDays(days - 1);
 
-            Map<LocalDate, BigDecimal> revenueByDate = new LinkedHashMap<>();
-            for (int i = days - 1; i >= 0; i--) {
-                revenueByDate.put(now.minusDays(i), BigDecimal.ZERO);
+            // Range scan of the daily rollup, kept in paise by the ledger outbox dispatcher
+            Map<LocalDate, Long> revenueByDate = new LinkedHashMap<>();
+            for (LocalDate d = from; !d.isAfter(now); d = d.plusDays(1)) {
+                revenueByDate.put(d, 0L);
             }
-            for (Booking b : allBookings) {
-                if (b.getBookedAt() != null && b.getTotalAmount() != null
-                        && b.getBookingStatus() == BookingStatus.CONFIRMED) {
-                    LocalDate d = b.getBookedAt().toLocalDate();
-                    if (revenueByDate.containsKey(d)) {
-                        revenueByDate.merge(d, b.getTotalAmount(), BigDecimal::add);
-                    }
-                }
+            for (Object[] row : revenueDailyRepository.sumByDate(from, now)) {
+                revenueByDate.put((LocalDate) row[0], (Long) row[1]);
             }
 
             List<Map<String, Object>> result = revenueByDate.entrySet().stream().map(e -> {
                 Map<String, Object> map = new HashMap<>();
                 map.put("date", e.getKey().toString());
-                map.put("revenue", e.getValue());
+                map.put("revenue", BigDecimal.valueOf(e.getValue(), 2));
                 return map;
             }).collect(Collectors.toList());
 
@@ -327,16 +366,82 @@ public class AdminController {
         }
     }
 
+    // Recomputes the revenue rollup of a date range from the transactions ledger, e.g. after manual status fixes
+    @PostMapping("/analytics/revenue/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildRevenueData(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(89);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("from must not be after to"));
+        }
+        log.info("POST /api/admin/analytics/revenue/rebuild - from {} to {}", start, end);
+        int rows = ledgerOutboxDispatcher.rebuildRevenue(start, end);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("rows", rows);
+        return ResponseEntity.ok(ApiResponse.success("Revenue rollup rebuilt", result));
+    }
+
+    // Ad-hoc slices such as revenue by tier by hour (groupBy=tier,hour), scanned from the in-memory fact store
+    @GetMapping("/analytics/bookings")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> queryBookingFacts(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            BookingFactStore.FactQuery query = BookingFactStore.FactQuery.parse(groupBy, status, eventType, eventId, from, to);
+            return ResponseEntity.ok(ApiResponse.success("Booking analytics retrieved", bookingFactStore.query(query)));
+        } catch (BookingException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Latency, lock wait and retry counters per booking mode since startup
+    @GetMapping("/analytics/booking-modes")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getBookingModeMetrics() {
+        return ResponseEntity.ok(ApiResponse.success("Booking mode metrics retrieved", bookingMetricsService.snapshot()));
+    }
+
+    // Ledger entries written by bookings and cancellations that have not reached the transactions table yet
+    @GetMapping("/analytics/ledger-outbox")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getLedgerOutboxBacklog() {
+        return ResponseEntity.ok(ApiResponse.success("Ledger outbox backlog retrieved",
+                Map.of("pending", ledgerOutboxDispatcher.pendingCount())));
+    }
+
+    // Expiry sweep totals, the last sweep's figures and how many unpaid bookings are waiting to expire
+    @GetMapping("/analytics/booking-expiry")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getBookingExpiryMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(bookingExpirySweeper.snapshot());
+        metrics.put("scheduledExpiries", bookingSchedulerService.pendingExpiries());
+        return ResponseEntity.ok(ApiResponse.success("Booking expiry metrics retrieved", metrics));
+    }
+
+    // Open availability and seat-map streams, and how many slow viewers were disconnected
+    @GetMapping("/analytics/availability-streams")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailabilityStreamMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("tierAvailability", tierAvailabilityService.snapshot());
+        metrics.put("seatMaps", seatMapStreamService.snapshot());
+        return ResponseEntity.ok(ApiResponse.success("Availability stream metrics retrieved", metrics));
+    }
+
     @GetMapping("/bookings/event/{eventId}")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getBookingsByEvent(@PathVariable Long eventId) {
         try {
-            List<Booking> bookings = bookingRepository.findByEventId(eventId);
+            List<BookingSummaryDTO> bookings = bookingRepository.findSummariesByEventId(eventId);
             List<Map<String, Object>> result = bookings.stream().map(b -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", b.getId());
                 map.put("bookingReference", b.getBookingReference());
-                map.put("userName",      b.getUser() != null ? b.getUser().getFullName() : "—");
-                map.put("userEmail",     b.getUser() != null ? b.getUser().getEmail()    : "—");
+                map.put("userName",      b.getUserName());
+                map.put("userEmail",     b.getUserEmail());
                 map.put("numTickets",    b.getNumTickets());
                 map.put("totalAmount",   b.getTotalAmount());
                 map.put("bookingStatus", b.getBookingStatus() != null ? b.getBookingStatus().name() : "PENDING_PAYMENT");
@@ -350,4 +455,12 @@ public class AdminController {
                     .body(ApiResponse.error("Failed to fetch event bookings: " + e.getMessage()));
         }
     }
+
+    private static ResponseEntity.BodyBuilder withNextCursor(String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(PageCursor.HEADER, nextCursor);
+        }
+        return response;
+    }
 }
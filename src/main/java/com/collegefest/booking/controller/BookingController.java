@@ -4,7 +4,15 @@ import com.collegefest.booking.dto.request.BookingRequestDTO;
 import com.collegefest.booking.dto.request.PaymentConfirmationDTO;
 import com.collegefest.booking.dto.response.ApiResponse;
 import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.BookingMode;
+import com.collegefest.booking.security.UserPrincipal;
+import com.collegefest.booking.service.BookingMetricsService;
+import com.collegefest.booking.service.BookingModeService;
+import com.collegefest.booking.service.BookingSequencer;
 import com.collegefest.booking.service.BookingService;
+import com.collegefest.booking.service.IdempotencyService;
+import com.collegefest.booking.service.WaitingRoomService;
+import com.collegefest.booking.util.PageCursor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,15 +29,26 @@ import java.util.List;
 @Slf4j
 public class BookingController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookingService bookingService;
+    private final BookingSequencer bookingSequencer;
+    private final BookingModeService bookingModeService;
+    private final BookingMetricsService bookingMetricsService;
+    private final WaitingRoomService waitingRoomService;
+    private final IdempotencyService idempotencyService;
 
-    // Create a new booking
+    // Create a new booking; retries with the same Idempotency-Key get the original booking back
     @PostMapping
     public ResponseEntity<ApiResponse<BookingResponseDTO>> createBooking(
             @Valid @RequestBody BookingRequestDTO request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
 
-        BookingResponseDTO booking = bookingService.createBooking(request, authentication);
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        BookingResponseDTO booking = idempotencyService.execute(userPrincipal.getId(), idempotencyKey,
+                "create-booking", request, () -> placeBooking(request, admissionToken, authentication));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Booking created successfully", booking));
     }
@@ -38,17 +57,35 @@ public class BookingController {
     @PostMapping("/{bookingId}/confirm-payment")
     public ResponseEntity<ApiResponse<BookingResponseDTO>> confirmPayment(
             @PathVariable Long bookingId,
-            @Valid @RequestBody PaymentConfirmationDTO confirmationDTO) {
+            @Valid @RequestBody PaymentConfirmationDTO confirmationDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
 
-        BookingResponseDTO booking = bookingService.confirmPayment(bookingId, confirmationDTO);
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        BookingResponseDTO booking = idempotencyService.execute(userPrincipal.getId(), idempotencyKey,
+                "confirm-payment/" + bookingId, confirmationDTO,
+                () -> bookingService.confirmPayment(bookingId, confirmationDTO));
         return ResponseEntity.ok(ApiResponse.success("Payment confirmed successfully", booking));
     }
 
-    // Get all bookings for current user
+    // Get all bookings for current user, or one page of them when a limit or cursor is given
     @GetMapping("/my-bookings")
-    public ResponseEntity<ApiResponse<List<BookingResponseDTO>>> getMyBookings(Authentication authentication) {
-        List<BookingResponseDTO> bookings = bookingService.getUserBookings(authentication);
-        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<List<BookingResponseDTO>>> getMyBookings(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            Authentication authentication) {
+        if (limit == null && cursor == null) {
+            List<BookingResponseDTO> bookings = bookingService.getUserBookings(authentication);
+            return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+        }
+
+        PageCursor.Page<BookingResponseDTO> page = bookingService.getUserBookings(
+                authentication, cursor, PageCursor.checkSize(limit != null ? limit : DEFAULT_PAGE_SIZE));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(PageCursor.HEADER, page.nextCursor());
+        }
+        return response.body(ApiResponse.success("Bookings retrieved successfully", page.items()));
     }
 
     // Get booking by ID
@@ -79,4 +116,28 @@ public class BookingController {
         bookingService.cancelBooking(id, authentication);
         return ResponseEntity.ok(ApiResponse.success("Booking cancelled successfully", null));
     }
+
+    private BookingResponseDTO placeBooking(BookingRequestDTO request, String admissionToken,
+                                            Authentication authentication) {
+        // Events with a waiting room only accept bookings from admitted queue tickets
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        waitingRoomService.checkAdmission(request.getEventId(), userPrincipal.getId(), admissionToken);
+
+        BookingMode mode = bookingModeService.modeOf(request.getEventId());
+        long start = System.nanoTime();
+        boolean created = false;
+        try {
+            BookingResponseDTO booking = switch (mode) {
+                // Sequenced events funnel every booking through the event's single writer
+                case SEQUENCED -> bookingSequencer.submit(request, userPrincipal.getId());
+                case OPTIMISTIC -> bookingService.createBookingOptimistically(request, authentication);
+                default -> bookingService.createBooking(request, authentication);
+            };
+            created = true;
+            return booking;
+        } finally {
+            bookingMetricsService.recordOutcome(mode, created, System.nanoTime() - start);
+            waitingRoomService.complete(admissionToken, created);
+        }
+    }
 }
@@ -3,24 +3,34 @@ package com.collegefest.booking.controller;
 import com.collegefest.booking.dto.request.EventRequestDTO;
 import com.collegefest.booking.dto.response.ApiResponse;
 import com.collegefest.booking.dto.response.EventResponseDTO;
-import com.collegefest.booking.dto.response.PriceTierResponseDTO;
-import com.collegefest.booking.dto.response.VenueResponseDTO;
 import com.collegefest.booking.entity.*;
 import com.collegefest.booking.exception.ResourceNotFoundException;
 import com.collegefest.booking.repository.EventRepository;
 import com.collegefest.booking.repository.PriceTierRepository;
 import com.collegefest.booking.repository.VenueRepository;
+import com.collegefest.booking.service.BookingModeService;
+import com.collegefest.booking.service.BookingSequencer;
+import com.collegefest.booking.service.BookingFactStore;
+import com.collegefest.booking.service.DashboardMetricsService;
+import com.collegefest.booking.service.EventCatalogService;
+import com.collegefest.booking.service.SeatInventoryService;
+import com.collegefest.booking.service.SeatOccupancyService;
+import com.collegefest.booking.service.TierAvailabilityService;
+import com.collegefest.booking.service.WaitingRoomService;
+import com.collegefest.booking.util.PageCursor;
+import com.collegefest.booking.util.TransactionCallbacks;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/events")
@@ -28,42 +38,50 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EventController {
 
+        private static final int DEFAULT_PAGE_SIZE = 20;
+
         private final EventRepository eventRepository;
         private final VenueRepository venueRepository;
         private final PriceTierRepository priceTierRepository;
-
-        // GET all events (Public)
+        private final SeatInventoryService seatInventoryService;
+        private final BookingSequencer bookingSequencer;
+        private final BookingModeService bookingModeService;
+        private final SeatOccupancyService seatOccupancyService;
+        private final WaitingRoomService waitingRoomService;
+        private final TierAvailabilityService tierAvailabilityService;
+        private final EventCatalogService eventCatalogService;
+        private final DashboardMetricsService dashboardMetricsService;
+        private final BookingFactStore bookingFactStore;
+
+        // GET all events (Public), served from the in-memory event catalog
         @GetMapping
         public ResponseEntity<ApiResponse<List<EventResponseDTO>>> getAllEvents(
                         @RequestParam(required = false) EventType eventType,
-                        @RequestParam(required = false) EventStatus status) {
-
-                List<Event> events;
-
-                if (eventType != null && status != null) {
-                        events = eventRepository.findByEventTypeAndStatus(eventType, status);
-                } else if (status != null) {
-                        events = eventRepository.findByStatusAndEventDateAfter(status, LocalDateTime.now());
-                } else {
-                        events = eventRepository.findAll();
+                        @RequestParam(required = false) EventStatus status,
+                        @RequestParam(required = false) Integer limit,
+                        @RequestParam(required = false) String cursor) {
+
+                // A status alone lists only upcoming events, as before
+                boolean upcomingOnly = status != null && eventType == null;
+                if (limit == null && cursor == null) {
+                        List<EventResponseDTO> eventDTOs = eventCatalogService.getEvents(eventType, status, upcomingOnly);
+                        return ResponseEntity.ok(ApiResponse.success("Events retrieved successfully", eventDTOs));
                 }
 
-                List<EventResponseDTO> eventDTOs = events.stream()
-                                .map(this::convertToDTO)
-                                .collect(Collectors.toList());
-
-                return ResponseEntity.ok(ApiResponse.success("Events retrieved successfully", eventDTOs));
+                // Paged by event date when a limit or cursor is given
+                PageCursor.Page<EventResponseDTO> page = eventCatalogService.getEvents(eventType, status, upcomingOnly,
+                                cursor, PageCursor.checkSize(limit != null ? limit : DEFAULT_PAGE_SIZE));
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.nextCursor() != null) {
+                        response.header(PageCursor.HEADER, page.nextCursor());
+                }
+                return response.body(ApiResponse.success("Events retrieved successfully", page.items()));
         }
 
         // GET upcoming events (Public)
         @GetMapping("/upcoming")
         public ResponseEntity<ApiResponse<List<EventResponseDTO>>> getUpcomingEvents() {
-                List<Event> events = eventRepository.findByStatusAndEventDateAfter(
-                                EventStatus.BOOKING_OPEN, LocalDateTime.now());
-
-                List<EventResponseDTO> eventDTOs = events.stream()
-                                .map(this::convertToDTO)
-                                .collect(Collectors.toList());
+                List<EventResponseDTO> eventDTOs = eventCatalogService.getEvents(null, EventStatus.BOOKING_OPEN, true);
 
                 return ResponseEntity.ok(ApiResponse.success("Upcoming events retrieved successfully", eventDTOs));
         }
@@ -71,10 +89,19 @@ public class EventController {
         // GET single event by ID (Public)
         @GetMapping("/{id}")
         public ResponseEntity<ApiResponse<EventResponseDTO>> getEventById(@PathVariable Long id) {
-                Event event = eventRepository.findByIdWithPriceTiers(id)
-                                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+                // Falls back to the DB for an event created since the catalog was last rebuilt
+                EventResponseDTO eventDTO = eventCatalogService.getEvent(id)
+                                .orElseGet(() -> convertToDTO(eventRepository.findByIdWithPriceTiers(id)
+                                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                                "Event not found with id: " + id))));
+
+                return ResponseEntity.ok(ApiResponse.success("Event retrieved successfully", eventDTO));
+        }
 
-                return ResponseEntity.ok(ApiResponse.success("Event retrieved successfully", convertToDTO(event)));
+        // GET live tier availability as Server-Sent Events: a snapshot, then changed tiers as seats are booked (Public)
+        @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter streamAvailability(@PathVariable Long id) {
+                return tierAvailabilityService.subscribe(id);
         }
 
         // CREATE event (Admin only)
@@ -98,9 +125,14 @@ public class EventController {
                                 .bookingOpensAt(request.getBookingOpensAt())
                                 .bookingClosesAt(request.getBookingClosesAt())
                                 .status(EventStatus.DRAFT)
+                                .bookingMode(request.getBookingMode() != null
+                                                ? request.getBookingMode()
+                                                : BookingMode.PESSIMISTIC)
+                                .admissionRatePerSecond(request.getAdmissionRatePerSecond())
                                 .build();
 
                 Event savedEvent = eventRepository.save(event);
+                dashboardMetricsService.eventChanged(null, savedEvent.getStatus());
 
                 // Create price tiers if provided
                 if (request.getPriceTiers() != null && !request.getPriceTiers().isEmpty()) {
@@ -111,6 +143,8 @@ public class EventController {
                                                 .price(tierDTO.getPrice())
                                                 .totalSeats(tierDTO.getTotalSeats())
                                                 .availableSeats(tierDTO.getTotalSeats())
+                                                .seatRangeStart(tierDTO.getSeatRangeStart())
+                                                .seatRangeEnd(tierDTO.getSeatRangeEnd())
                                                 .colorCode(tierDTO.getColorCode())
                                                 .build();
                                 priceTierRepository.save(priceTier);
@@ -119,6 +153,7 @@ public class EventController {
 
                 Event eventWithTiers = eventRepository.findByIdWithPriceTiers(savedEvent.getId())
                                 .orElse(savedEvent);
+                eventCatalogService.refreshAfterCommit();
 
                 return ResponseEntity.status(HttpStatus.CREATED)
                                 .body(ApiResponse.success("Event created successfully", convertToDTO(eventWithTiers)));
@@ -141,6 +176,9 @@ public class EventController {
                 event.setEventName(request.getEventName());
                 event.setDescription(request.getDescription());
                 event.setEventType(request.getEventType());
+                if (!venue.getId().equals(event.getVenue().getId())) {
+                        seatOccupancyService.evict(event.getId());
+                }
                 event.setVenue(venue);
                 event.setEventDate(request.getEventDate());
                 event.setDurationMinutes(request.getDurationMinutes());
@@ -149,8 +187,31 @@ public class EventController {
                 event.setMaxCapacity(request.getMaxCapacity());
                 event.setBookingOpensAt(request.getBookingOpensAt());
                 event.setBookingClosesAt(request.getBookingClosesAt());
+                BookingMode previousMode = event.getBookingMode();
+                if (request.getBookingMode() != null) {
+                        event.setBookingMode(request.getBookingMode());
+                }
+                boolean admissionRateChanged =
+                                !Objects.equals(request.getAdmissionRatePerSecond(), event.getAdmissionRatePerSecond());
+                event.setAdmissionRatePerSecond(request.getAdmissionRatePerSecond());
 
                 Event updatedEvent = eventRepository.save(event);
+                if (admissionRateChanged) {
+                        // After the commit, so a request in between cannot rebuild the room from the old rate
+                        Long eventId = updatedEvent.getId();
+                        TransactionCallbacks.afterCommit(() -> waitingRoomService.evict(eventId));
+                }
+                if (previousMode != updatedEvent.getBookingMode()) {
+                        // Once the switch is committed, drain the sequencer and hand in-memory tier counts back to the DB
+                        Long eventId = updatedEvent.getId();
+                        TransactionCallbacks.afterCommit(() -> {
+                                bookingModeService.evict(eventId);
+                                bookingSequencer.evict(eventId);
+                                seatInventoryService.evictEvent(eventId);
+                        });
+                }
+
+                eventCatalogService.refreshAfterCommit();
 
                 return ResponseEntity.ok(ApiResponse.success("Event updated successfully", convertToDTO(updatedEvent)));
         }
@@ -165,8 +226,11 @@ public class EventController {
                 Event event = eventRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
 
+                EventStatus previousStatus = event.getStatus();
                 event.setStatus(status);
                 Event updatedEvent = eventRepository.save(event);
+                dashboardMetricsService.eventChanged(previousStatus, status);
+                eventCatalogService.refreshAfterCommit();
 
                 return ResponseEntity.ok(
                                 ApiResponse.success("Event status updated successfully", convertToDTO(updatedEvent)));
@@ -179,49 +243,15 @@ public class EventController {
                 Event event = eventRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
 
+                dashboardMetricsService.eventDeleted(event);
+                bookingFactStore.eventDeleted(event.getId());
                 eventRepository.delete(event);
+                eventCatalogService.refreshAfterCommit();
 
                 return ResponseEntity.ok(ApiResponse.success("Event deleted successfully", null));
         }
 
-        // Helper method to convert Event entity to DTO
         private EventResponseDTO convertToDTO(Event event) {
-                VenueResponseDTO venueDTO = VenueResponseDTO.builder()
-                                .id(event.getVenue().getId())
-                                .venueName(event.getVenue().getVenueName())
-                                .address(event.getVenue().getAddress())
-                                .totalCapacity(event.getVenue().getTotalCapacity())
-                                .hasNumberedSeats(event.getVenue().getHasNumberedSeats())
-                                .facilities(event.getVenue().getFacilities())
-                                .build();
-
-                List<PriceTierResponseDTO> priceTierDTOs = event.getPriceTiers().stream()
-                                .map(tier -> PriceTierResponseDTO.builder()
-                                                .id(tier.getId())
-                                                .tierName(tier.getTierName())
-                                                .price(tier.getPrice())
-                                                .totalSeats(tier.getTotalSeats())
-                                                .availableSeats(tier.getAvailableSeats())
-                                                .colorCode(tier.getColorCode())
-                                                .build())
-                                .collect(Collectors.toList());
-
-                return EventResponseDTO.builder()
-                                .id(event.getId())
-                                .eventName(event.getEventName())
-                                .description(event.getDescription())
-                                .eventType(event.getEventType())
-                                .venue(venueDTO)
-                                .eventDate(event.getEventDate())
-                                .durationMinutes(event.getDurationMinutes())
-                                .bannerImageUrl(event.getBannerImageUrl())
-                                .organizerName(event.getOrganizerName())
-                                .maxCapacity(event.getMaxCapacity())
-                                .bookingOpensAt(event.getBookingOpensAt())
-                                .bookingClosesAt(event.getBookingClosesAt())
-                                .status(event.getStatus())
-                                .priceTiers(priceTierDTOs)
-                                .createdAt(event.getCreatedAt())
-                                .build();
+                return eventCatalogService.toResponse(event);
         }
 }
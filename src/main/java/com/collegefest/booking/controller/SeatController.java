@@ -2,13 +2,16 @@ package com.collegefest.booking.controller;
 
 import com.collegefest.booking.dto.response.ApiResponse;
 import com.collegefest.booking.dto.response.SeatMapResponse;
+import com.collegefest.booking.dto.response.TierSeatAvailabilityResponse;
+import com.collegefest.booking.service.SeatMapStreamService;
 import com.collegefest.booking.service.SeatService;
+import com.collegefest.booking.util.SeatMapEncoding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/seats")
@@ -17,18 +20,35 @@ import java.util.List;
 public class SeatController {
 
     private final SeatService seatService;
+    private final SeatMapStreamService seatMapStreamService;
 
+    // Full seat map, or with ?since={version} only the seats changed after that version when still known.
+    // ?encoding=BITMAP or RANGES sends the reserved seats of a full map compactly, and ?layoutHash leaves out
+    // a venue layout the client already has.
     @GetMapping("/event/{eventId}")
-    public ResponseEntity<ApiResponse<SeatMapResponse>> getSeatMap(@PathVariable Long eventId) {
-        SeatMapResponse seatMap = seatService.getSeatMap(eventId);
+    public ResponseEntity<ApiResponse<SeatMapResponse>> getSeatMap(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "LIST") SeatMapEncoding encoding,
+            @RequestParam(required = false) String layoutHash) {
+        SeatMapResponse seatMap = seatService.getSeatMap(eventId, since, encoding, layoutHash);
         return ResponseEntity.ok(ApiResponse.success("Seat map retrieved successfully", seatMap));
     }
 
+    // Live seat map as Server-Sent Events: the reserved seats, then seats as they are claimed and released
+    @GetMapping(value = "/event/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatMap(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "LIST") SeatMapEncoding encoding) {
+        return seatMapStreamService.subscribe(eventId, encoding);
+    }
+
+    // Free seats in the tier's seat range, as runs of seat positions per row
     @GetMapping("/event/{eventId}/tier/{priceTierId}")
-    public ResponseEntity<ApiResponse<List<String>>> getAvailableSeats(
+    public ResponseEntity<ApiResponse<TierSeatAvailabilityResponse>> getAvailableSeats(
             @PathVariable Long eventId,
             @PathVariable Long priceTierId) {
-        List<String> availableSeats = seatService.getAvailableSeats(eventId, priceTierId);
+        TierSeatAvailabilityResponse availableSeats = seatService.getAvailableSeats(eventId, priceTierId);
         return ResponseEntity.ok(ApiResponse.success("Available seats retrieved", availableSeats));
     }
 
@@ -0,0 +1,40 @@
+package com.collegefest.booking.controller;
+
+import com.collegefest.booking.dto.response.ApiResponse;
+import com.collegefest.booking.dto.response.QueueStatusResponse;
+import com.collegefest.booking.security.UserPrincipal;
+import com.collegefest.booking.service.WaitingRoomService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    // Take a place in the event's queue (idempotent per user)
+    @PostMapping("/events/{eventId}/join")
+    public ResponseEntity<ApiResponse<QueueStatusResponse>> join(
+            @PathVariable Long eventId,
+            Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        QueueStatusResponse status = waitingRoomService.join(eventId, userPrincipal.getId());
+        return ResponseEntity.ok(ApiResponse.success("Joined the waiting room", status));
+    }
+
+    // Poll queue position and ETA; once admitted, send the token as X-Admission-Token when booking
+    @GetMapping("/events/{eventId}/status")
+    public ResponseEntity<ApiResponse<QueueStatusResponse>> status(
+            @PathVariable Long eventId,
+            @RequestParam String token) {
+        QueueStatusResponse status = waitingRoomService.status(eventId, token);
+        return ResponseEntity.ok(ApiResponse.success(
+                status.getAdmitted() ? "You can book now" : "Waiting for admission", status));
+    }
+}
@@ -1,5 +1,6 @@
 package com.collegefest.booking.dto.request;
 
+import com.collegefest.booking.entity.BookingMode;
 import com.collegefest.booking.entity.EventType;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -44,4 +45,11 @@ public class EventRequestDTO {
     private LocalDateTime bookingClosesAt;
 
     private List<PriceTierRequestDTO> priceTiers;
+
+    // Optional; defaults to PESSIMISTIC on create and is left unchanged on update when absent
+    private BookingMode bookingMode;
+
+    // Optional waiting room for the sale opening; null disables it
+    @Min(value = 1, message = "Admission rate must be at least 1 per second")
+    private Integer admissionRatePerSecond;
 }
@@ -0,0 +1,25 @@
+package com.collegefest.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One message on an event's availability stream. A snapshot lists every tier; later updates list only the
+ * tiers whose seat count changed, with absolute values.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityUpdateResponse {
+    private Long eventId;
+    private Long sequence;
+    private Boolean snapshot;
+    private List<TierAvailabilityDTO> tiers;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,37 @@
+package com.collegefest.booking.dto.response;
+
+import com.collegefest.booking.entity.BookingStatus;
+import com.collegefest.booking.entity.PaymentMethod;
+import com.collegefest.booking.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a booking list, read with its user, event and tier in the same statement.
+ * The field order is the constructor order used by the projection queries in BookingRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSummaryDTO {
+    private Long id;
+    private String bookingReference;
+    private Long userId;
+    private String userName;
+    private String userEmail;
+    private Long eventId;
+    private String eventName;
+    private String tierName;
+    private Integer numTickets;
+    private BigDecimal totalAmount;
+    private BookingStatus bookingStatus;
+    private PaymentMethod paymentMethod;
+    private PaymentStatus paymentStatus;
+    private LocalDateTime bookedAt;
+    private LocalDateTime confirmedAt;
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.collegefest.booking.dto.response;
 
+import com.collegefest.booking.entity.BookingMode;
 import com.collegefest.booking.entity.EventStatus;
 import com.collegefest.booking.entity.EventType;
 import lombok.AllArgsConstructor;
@@ -28,6 +29,8 @@ public class EventResponseDTO {
     private LocalDateTime bookingOpensAt;
     private LocalDateTime bookingClosesAt;
     private EventStatus status;
+    private BookingMode bookingMode;
+    private Integer admissionRatePerSecond;
     private List<PriceTierResponseDTO> priceTiers;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,19 @@
+package com.collegefest.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatusResponse {
+    private Long eventId;
+    private String admissionToken;
+    private Long position;
+    private Long etaSeconds;
+    private Boolean admitted;
+    private Long admissionExpiresInSeconds;
+}
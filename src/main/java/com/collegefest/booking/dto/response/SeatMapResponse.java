@@ -1,12 +1,19 @@
 package com.collegefest.booking.dto.response;
 
+import com.collegefest.booking.util.SeatMapEncoding;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Seat map of an event at a version. A delta (requested with ?since) lists only the seats claimed and
+ * released after the given version instead of the reserved seats. With the BITMAP or RANGES encoding the
+ * reserved seats are in reservedBitmap or reservedRanges, and reservedSeats holds only seats outside the layout.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,7 +22,17 @@ public class SeatMapResponse {
     private Long eventId;
     private String eventName;
     private String venueLayout;
+    // Hash of the compiled layout; pass it back as ?layoutHash to leave venueLayout out
+    private String layoutHash;
     private Integer totalCapacity;
     private List<String> reservedSeats;
     private List<String> availableSeats;
+    private Long version;
+    private Boolean delta;
+    private List<String> claimedSeats;
+    private List<String> releasedSeats;
+    private SeatMapEncoding encoding;
+    // Serialized as base64
+    private byte[] reservedBitmap;
+    private Map<String, List<int[]>> reservedRanges;
 }
@@ -0,0 +1,37 @@
+package com.collegefest.booking.dto.response;
+
+import com.collegefest.booking.util.SeatMapEncoding;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One message on an event's seat-map stream: a snapshot of the reserved seats in the requested encoding
+ * (see {@link SeatMapResponse}), or the seats claimed and released since the previous message.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatMapUpdateResponse {
+    private Long eventId;
+    private Long sequence;
+    private Boolean snapshot;
+    // Seat map version, usable as ?since on the seat map endpoint
+    private Long version;
+    private Integer totalCapacity;
+    private List<String> reservedSeats;
+    private SeatMapEncoding encoding;
+    private byte[] reservedBitmap;
+    private Map<String, List<int[]>> reservedRanges;
+    private List<String> claimed;
+    private List<String> released;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,17 @@
+package com.collegefest.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TierAvailabilityDTO {
+    private Long tierId;
+    private String tierName;
+    private Integer totalSeats;
+    private Integer availableSeats;
+}
@@ -0,0 +1,27 @@
+package com.collegefest.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TierSeatAvailabilityResponse {
+    private Long eventId;
+    private Long priceTierId;
+    private String tierName;
+    private String seatRangeStart;
+    private String seatRangeEnd;
+    private Integer totalSeats;
+    private Integer availableSeats;
+    // Free seats per row label as 1-based [first, last] seat positions, e.g. {"A": [[3, 9], [12, 20]]}
+    private Map<String, List<int[]>> availableRanges;
+    // Seat map version the ranges reflect, usable with the seat map's ?since
+    private Long version;
+}
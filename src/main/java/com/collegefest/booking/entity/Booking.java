@@ -13,7 +13,9 @@ import java.util.List;
 @Table(name = "bookings", indexes = {
         @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_event_id", columnList = "event_id"),
-        @Index(name = "idx_booking_reference", columnList = "booking_reference")
+        @Index(name = "idx_booking_reference", columnList = "booking_reference"),
+        @Index(name = "idx_booked_at_id", columnList = "booked_at, id"),
+        @Index(name = "idx_user_booked_at_id", columnList = "user_id, booked_at, id")
 })
 @Getter
 @Setter
@@ -23,10 +25,11 @@ import java.util.List;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_id_seq")
+    @SequenceGenerator(name = "booking_id_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "booking_reference", nullable = false, unique = true, length = 20)
+    @Column(name = "booking_reference", nullable = false, unique = true, length = 24)
     private String bookingReference;
 
     @ManyToOne(fetch = FetchType.LAZY)
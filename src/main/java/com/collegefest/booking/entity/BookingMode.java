@@ -0,0 +1,8 @@
+package com.collegefest.booking.entity;
+
+public enum BookingMode {
+    PESSIMISTIC, // Row lock on the price tier for every booking (default)
+    IN_MEMORY, // Atomic in-memory seat counters, written back to the DB in batches
+    SEQUENCED, // One writer thread per event validates in memory and commits bookings in micro-batches
+    OPTIMISTIC // No read lock; a conditional decrement at the end of the transaction, retried on conflicts
+}
@@ -14,7 +14,8 @@ import java.util.List;
 @Table(name = "events", indexes = {
         @Index(name = "idx_event_date", columnList = "event_date"),
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_venue_id", columnList = "venue_id")
+        @Index(name = "idx_venue_id", columnList = "venue_id"),
+        @Index(name = "idx_event_date_id", columnList = "event_date, id")
 })
 @Getter
 @Setter
@@ -67,6 +68,16 @@ public class Event {
     @Builder.Default
     private EventStatus status = EventStatus.DRAFT;
 
+    // DB default so rows created before the column existed book pessimistically, as they always did
+    @Enumerated(EnumType.STRING)
+    @Column(name = "booking_mode", nullable = false, length = 20, columnDefinition = "varchar(20) default 'PESSIMISTIC'")
+    @Builder.Default
+    private BookingMode bookingMode = BookingMode.PESSIMISTIC;
+
+    // Bookings admitted per second through the waiting room; null means no waiting room
+    @Column(name = "admission_rate_per_second")
+    private Integer admissionRatePerSecond;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
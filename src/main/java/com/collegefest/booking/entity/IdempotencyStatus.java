@@ -0,0 +1,6 @@
+package com.collegefest.booking.entity;
+
+public enum IdempotencyStatus {
+    PENDING, // Claimed by the request that runs the action; no response yet
+    COMPLETED // Response stored together with the booking, replayed to retries
+}
@@ -0,0 +1,54 @@
+package com.collegefest.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger write recorded in the booking transaction and turned into a {@link Transaction} row later by the
+ * outbox dispatcher. Plain ids instead of associations keep the insert free of foreign key checks.
+ */
+@Entity
+@Table(name = "ledger_outbox", indexes = @Index(name = "idx_ledger_outbox_pending", columnList = "dispatched_at, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_outbox_id_seq")
+    @SequenceGenerator(name = "ledger_outbox_id_seq", sequenceName = "ledger_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "booking_reference", length = 24)
+    private String bookingReference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 50)
+    private TransactionType transactionType;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 50)
+    private PaymentMethod paymentMethod;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+}
@@ -40,6 +40,11 @@ public class PriceTier {
     @Column(name = "available_seats", nullable = false)
     private Integer availableSeats;
 
+    // DB default so rows created before the column existed start at version 0
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "integer default 0")
+    private Integer version;
+
     @Column(name = "seat_range_start", length = 10)
     private String seatRangeStart;
 
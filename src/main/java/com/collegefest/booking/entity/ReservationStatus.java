@@ -3,5 +3,5 @@ package com.collegefest.booking.entity;
 public enum ReservationStatus {
     RESERVED,
     CONFIRMED,
-    RELEASED
+    RELEASED // No longer written: freed seats are deleted so their unique key can be taken again
 }
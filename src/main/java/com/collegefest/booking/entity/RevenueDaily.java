@@ -0,0 +1,43 @@
+package com.collegefest.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Net revenue of the bookings made on one day for one event and price tier, in minor units (paise).
+ * Maintained by the ledger outbox dispatcher from the payment and refund entries it dispatches, so a
+ * revenue chart is a range scan over the (revenue_date, event_id, price_tier_id) key.
+ */
+@Entity
+@Table(name = "revenue_daily", uniqueConstraints = @UniqueConstraint(name = "uk_revenue_daily_key",
+        columnNames = {"revenue_date", "event_id", "price_tier_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revenue_daily_id_seq")
+    @SequenceGenerator(name = "revenue_daily_id_seq", sequenceName = "revenue_daily_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "price_tier_id", nullable = false)
+    private Long priceTierId;
+
+    @Column(name = "amount_minor", nullable = false)
+    private Long amountMinor;
+
+    // Paid bookings less refunded ones
+    @Column(name = "booking_count", nullable = false)
+    private Integer bookingCount;
+}
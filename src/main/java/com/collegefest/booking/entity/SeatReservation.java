@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "seat_reservations",
         uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "seat_number"}),
-        indexes = @Index(name = "idx_event_seat", columnList = "event_id, seat_number")
+        indexes = {
+                @Index(name = "idx_event_seat", columnList = "event_id, seat_number"),
+                @Index(name = "idx_seat_booking_id", columnList = "booking_id")
+        }
 )
 @Getter
 @Setter
@@ -19,7 +22,8 @@ import java.time.LocalDateTime;
 public class SeatReservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_reservation_id_seq")
+    @SequenceGenerator(name = "seat_reservation_id_seq", sequenceName = "seat_reservations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -8,7 +8,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = @UniqueConstraint(name = "uk_transactions_outbox_id",
+        columnNames = "outbox_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,7 +30,7 @@ public class Transaction {
     @JoinColumn(name = "booking_id")
     private Booking booking;
 
-    @Column(name = "booking_reference", length = 20)
+    @Column(name = "booking_reference", length = 24)
     private String bookingReference;
 
     @Enumerated(EnumType.STRING)
@@ -49,6 +51,10 @@ public class Transaction {
     @Column(name = "payment_gateway_response", columnDefinition = "TEXT")
     private String paymentGatewayResponse;
 
+    // Ledger outbox entry this row was written from; unique, so an entry can never be applied twice
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -13,7 +13,8 @@ import java.util.List;
 @Entity
 @Table(name = "users", indexes = {
         @Index(name = "idx_email", columnList = "email"),
-        @Index(name = "idx_phone", columnList = "phone_number")
+        @Index(name = "idx_phone", columnList = "phone_number"),
+        @Index(name = "idx_full_name_id", columnList = "full_name, id")
 })
 @Getter
 @Setter
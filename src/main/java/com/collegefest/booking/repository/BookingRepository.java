@@ -1,19 +1,33 @@
 package com.collegefest.booking.repository;
 
+import com.collegefest.booking.dto.response.BookingSummaryDTO;
 import com.collegefest.booking.entity.Booking;
+import com.collegefest.booking.entity.BookingMode;
 import com.collegefest.booking.entity.BookingStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    // Booking list rows with their user, event and tier joined in, so a list is one statement whatever its size
+    String SUMMARY_SELECT = "SELECT new com.collegefest.booking.dto.response.BookingSummaryDTO(" +
+            "b.id, b.bookingReference, u.id, u.fullName, u.email, e.id, e.eventName, t.tierName, " +
+            "b.numTickets, b.totalAmount, b.bookingStatus, b.paymentMethod, b.paymentStatus, " +
+            "b.bookedAt, b.confirmedAt, b.expiresAt) " +
+            "FROM Booking b JOIN b.user u JOIN b.event e JOIN b.priceTier t ";
+
     Optional<Booking> findByBookingReference(String bookingReference);
 
     // Find all bookings by user ID, ordered by booking date (most recent first)
@@ -22,10 +36,92 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findByEventId(Long eventId);
 
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId ORDER BY b.bookedAt DESC, b.id DESC")
+    List<BookingSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId ORDER BY b.bookedAt DESC, b.id DESC")
+    List<BookingSummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset page of a user's bookings after the (bookedAt, id) of the previous page's last row
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND b.bookedAt <= :bookedAt " +
+            "AND (b.bookedAt < :bookedAt OR b.id < :id) ORDER BY b.bookedAt DESC, b.id DESC")
+    List<BookingSummaryDTO> findSummariesByUserIdAfter(
+            @Param("userId") Long userId,
+            @Param("bookedAt") LocalDateTime bookedAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE e.id = :eventId ORDER BY b.id")
+    List<BookingSummaryDTO> findSummariesByEventId(@Param("eventId") Long eventId);
+
+    // Most recent first; the pageable only supplies the offset and limit
+    @Query(SUMMARY_SELECT + "ORDER BY b.bookedAt DESC, b.id DESC")
+    List<BookingSummaryDTO> findRecentSummaries(Pageable pageable);
+
+    // Keyset page after the (bookedAt, id) of the previous page's last row
+    @Query(SUMMARY_SELECT + "WHERE b.bookedAt <= :bookedAt AND (b.bookedAt < :bookedAt OR b.id < :id) " +
+            "ORDER BY b.bookedAt DESC, b.id DESC")
+    List<BookingSummaryDTO> findRecentSummariesAfter(
+            @Param("bookedAt") LocalDateTime bookedAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
     List<Booking> findByBookingStatusAndExpiresAtBefore(BookingStatus status, LocalDateTime dateTime);
 
+    // Expiry times as [bookingId, expiresAt] rows, for rebuilding the expiry timers
+    @Query("SELECT b.id, b.expiresAt FROM Booking b WHERE b.bookingStatus = :status AND b.expiresAt IS NOT NULL")
+    List<Object[]> findExpiryTimesByStatus(@Param("status") BookingStatus status);
+
+    @Query("SELECT b.id, b.expiresAt FROM Booking b WHERE b.id IN :ids AND b.bookingStatus = :status AND b.expiresAt > :now")
+    List<Object[]> findLaterExpiryTimes(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") BookingStatus status,
+            @Param("now") LocalDateTime now
+    );
+
+    // Locks the listed bookings that are still unpaid past their expiry, as [bookingId, tierId, tickets, bookingMode] rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id, b.priceTier.id, b.numTickets, b.event.bookingMode FROM Booking b " +
+            "WHERE b.id IN :ids AND b.bookingStatus = :status AND b.expiresAt <= :now")
+    List<Object[]> lockExpiredForSweep(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") BookingStatus status,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.bookingStatus = :status, b.version = b.version + 1 WHERE b.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
     @Query("SELECT b FROM Booking b JOIN FETCH b.event JOIN FETCH b.priceTier WHERE b.user.id = :userId")
     List<Booking> findByUserIdWithDetails(@Param("userId") Long userId);
 
     Long countByEventIdAndBookingStatus(Long eventId, BookingStatus status);
+
+    // Bookings per status as [status, count, totalAmount] rows
+    @Query("SELECT b.bookingStatus, COUNT(b), SUM(b.totalAmount) FROM Booking b GROUP BY b.bookingStatus")
+    List<Object[]> summarizeByStatus();
+
+    @Query("SELECT b.bookingStatus, COUNT(b), SUM(b.totalAmount) FROM Booking b " +
+            "WHERE b.event.id = :eventId GROUP BY b.bookingStatus")
+    List<Object[]> summarizeByStatusForEvent(@Param("eventId") Long eventId);
+
+    // Revenue rollup keys as [bookingId, bookedAt, eventId, priceTierId] rows
+    @Query("SELECT b.id, b.bookedAt, b.event.id, b.priceTier.id FROM Booking b WHERE b.id IN :ids")
+    List<Object[]> findRevenueKeys(@Param("ids") Collection<Long> ids);
+
+    // Analytics facts in id order as [id, eventId, priceTierId, status, bookedAt, totalAmount, eventType] rows
+    @Query("SELECT b.id, e.id, b.priceTier.id, b.bookingStatus, b.bookedAt, b.totalAmount, e.eventType " +
+            "FROM Booking b JOIN b.event e WHERE b.id > :afterId ORDER BY b.id")
+    List<Object[]> findFactsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Tickets held per price tier, as [tierId, ticketCount] rows
+    @Query("SELECT b.priceTier.id, SUM(b.numTickets) FROM Booking b " +
+            "WHERE b.event.bookingMode = :mode AND b.bookingStatus IN :statuses GROUP BY b.priceTier.id")
+    List<Object[]> sumTicketsByTierForBookingMode(
+            @Param("mode") BookingMode mode,
+            @Param("statuses") Collection<BookingStatus> statuses
+    );
 }
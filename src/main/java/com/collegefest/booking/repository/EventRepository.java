@@ -1,9 +1,11 @@
 package com.collegefest.booking.repository;
 
+import com.collegefest.booking.entity.BookingMode;
 import com.collegefest.booking.entity.Event;
 import com.collegefest.booking.entity.EventStatus;
 import com.collegefest.booking.entity.EventType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,11 +19,30 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     List<Event> findByStatusAndEventDateAfter(EventStatus status, LocalDateTime date);
 
+    long countByStatusAndEventDateAfter(EventStatus status, LocalDateTime date);
+
+    // Events per status as [status, count] rows
+    @Query("SELECT e.status, COUNT(e) FROM Event e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
     List<Event> findByEventTypeAndStatus(EventType eventType, EventStatus status);
 
-    @Query("SELECT e FROM Event e JOIN FETCH e.priceTiers WHERE e.id = :id")
+    // The event with its venue and tiers in one statement; events without tiers are found too
+    @Query("SELECT e FROM Event e JOIN FETCH e.venue LEFT JOIN FETCH e.priceTiers t WHERE e.id = :id ORDER BY t.id")
     Optional<Event> findByIdWithPriceTiers(@Param("id") Long id);
 
+    // Events from before the booking_mode column got a null mode where the column was added without a default
+    @Modifying
+    @Query("UPDATE Event e SET e.bookingMode = :mode WHERE e.bookingMode IS NULL")
+    int fillMissingBookingMode(@Param("mode") BookingMode mode);
+
+    @Query("SELECT e FROM Event e JOIN FETCH e.venue WHERE e.id = :id")
+    Optional<Event> findByIdWithVenue(@Param("id") Long id);
+
+    // Every event with its venue and tiers in one query, for the event catalog
+    @Query("SELECT e FROM Event e JOIN FETCH e.venue LEFT JOIN FETCH e.priceTiers t ORDER BY e.id, t.id")
+    List<Event> findAllWithVenueAndPriceTiers();
+
     @Query("SELECT e FROM Event e WHERE e.status = :status AND e.eventDate BETWEEN :startDate AND :endDate")
     List<Event> findByStatusAndEventDateBetween(
             @Param("status") EventStatus status,
@@ -30,4 +51,7 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     );
 
     List<Event> findByVenueIdAndStatus(Long venueId, EventStatus status);
+
+    @Query("SELECT e.id FROM Event e WHERE e.venue.id = :venueId")
+    List<Long> findIdsByVenueId(@Param("venueId") Long venueId);
 }
@@ -0,0 +1,33 @@
+package com.collegefest.booking.repository;
+
+import com.collegefest.booking.entity.LedgerOutboxEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerOutboxEntry, Long> {
+
+    // Locked so that a second dispatcher waits and then skips the rows this one marks as dispatched
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM LedgerOutboxEntry e WHERE e.dispatchedAt IS NULL ORDER BY e.id")
+    List<LedgerOutboxEntry> findPendingForDispatch(Pageable pageable);
+
+    long countByDispatchedAtIsNull();
+
+    @Modifying
+    @Query("UPDATE LedgerOutboxEntry e SET e.dispatchedAt = :dispatchedAt WHERE e.id IN :ids AND e.dispatchedAt IS NULL")
+    int markDispatched(@Param("ids") List<Long> ids, @Param("dispatchedAt") LocalDateTime dispatchedAt);
+
+    @Modifying
+    @Query("DELETE FROM LedgerOutboxEntry e WHERE e.dispatchedAt < :cutoff")
+    int deleteDispatchedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
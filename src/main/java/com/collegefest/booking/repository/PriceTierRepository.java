@@ -1,13 +1,16 @@
 package com.collegefest.booking.repository;
 
+import com.collegefest.booking.entity.BookingMode;
 import com.collegefest.booking.entity.PriceTier;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +24,27 @@ public interface PriceTierRepository extends JpaRepository<PriceTier, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT pt FROM PriceTier pt WHERE pt.id = :id")
     Optional<PriceTier> findByIdWithLock(@Param("id") Long id);
+
+    // Current seat counts of the listed tiers, as [tierId, availableSeats] rows
+    @Query("SELECT pt.id, pt.availableSeats FROM PriceTier pt WHERE pt.id IN :ids")
+    List<Object[]> findAvailableSeatsByIds(@Param("ids") Collection<Long> ids);
+
+    // Read from the DB even when the tier is already loaded in the persistence context
+    @Query("SELECT pt.availableSeats FROM PriceTier pt WHERE pt.id = :id")
+    int findAvailableSeatsById(@Param("id") Long id);
+
+    @Query("SELECT pt FROM PriceTier pt WHERE pt.event.bookingMode = :mode")
+    List<PriceTier> findByEventBookingMode(@Param("mode") BookingMode mode);
+
+    // Relative update so concurrent write-behind flushes never overwrite each other
+    @Modifying
+    @Query("UPDATE PriceTier pt SET pt.availableSeats = pt.availableSeats + :delta, pt.version = pt.version + 1 WHERE pt.id = :id")
+    int adjustAvailableSeats(@Param("id") Long id, @Param("delta") int delta);
+
+    // Takes seats only if the tier is still at the version it was read at and enough are left; returns 0 when
+    // it has changed since or cannot cover the request
+    @Modifying
+    @Query("UPDATE PriceTier pt SET pt.availableSeats = pt.availableSeats - :seats, pt.version = pt.version + 1 " +
+            "WHERE pt.id = :id AND pt.version = :version AND pt.availableSeats >= :seats")
+    int takeSeatsIfUnchanged(@Param("id") Long id, @Param("version") Integer version, @Param("seats") int seats);
 }
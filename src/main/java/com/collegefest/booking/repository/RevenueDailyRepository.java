@@ -0,0 +1,32 @@
+package com.collegefest.booking.repository;
+
+import com.collegefest.booking.entity.RevenueDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, Long> {
+
+    // Returns 0 when the day has no row for the event and tier yet
+    @Modifying
+    @Query("UPDATE RevenueDaily r SET r.amountMinor = r.amountMinor + :amountMinor, " +
+           "r.bookingCount = r.bookingCount + :bookings " +
+           "WHERE r.revenueDate = :date AND r.eventId = :eventId AND r.priceTierId = :priceTierId")
+    int addToDay(@Param("date") LocalDate date, @Param("eventId") Long eventId, @Param("priceTierId") Long priceTierId,
+                 @Param("amountMinor") long amountMinor, @Param("bookings") int bookings);
+
+    // Revenue per day as [date, amountMinor] rows
+    @Query("SELECT r.revenueDate, SUM(r.amountMinor) FROM RevenueDaily r " +
+           "WHERE r.revenueDate BETWEEN :from AND :to GROUP BY r.revenueDate")
+    List<Object[]> sumByDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM RevenueDaily r WHERE r.revenueDate BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -3,10 +3,12 @@ package com.collegefest.booking.repository;
 import com.collegefest.booking.entity.ReservationStatus;
 import com.collegefest.booking.entity.SeatReservation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +32,27 @@ public interface SeatReservationRepository extends JpaRepository<SeatReservation
     );
 
     List<SeatReservation> findByBookingId(Long bookingId);
+
+    @Query("SELECT sr.seatNumber FROM SeatReservation sr WHERE sr.event.id = :eventId AND sr.reservationStatus IN :statuses")
+    List<String> findSeatNumbersByEventIdAndStatuses(
+            @Param("eventId") Long eventId,
+            @Param("statuses") Collection<ReservationStatus> statuses
+    );
+
+    // Seats of the listed bookings, as [eventId, seatNumber] rows
+    @Query("SELECT sr.event.id, sr.seatNumber FROM SeatReservation sr WHERE sr.booking.id IN :bookingIds")
+    List<Object[]> findSeatNumbersByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // Seats of the listed bookings, as [bookingId, seatNumber] rows in reservation order
+    @Query("SELECT sr.booking.id, sr.seatNumber FROM SeatReservation sr WHERE sr.booking.id IN :bookingIds ORDER BY sr.id")
+    List<Object[]> findBookingSeatNumbers(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // Freed seats are deleted, so the unique (event_id, seat_number) key only ever holds seats that are taken
+    @Modifying
+    @Query("DELETE FROM SeatReservation sr WHERE sr.booking.id IN :bookingIds")
+    int deleteByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Modifying
+    @Query("DELETE FROM SeatReservation sr WHERE sr.reservationStatus = :status")
+    int deleteByReservationStatus(@Param("status") ReservationStatus status);
 }
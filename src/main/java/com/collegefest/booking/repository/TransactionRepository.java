@@ -1,13 +1,29 @@
 package com.collegefest.booking.repository;
 
 import com.collegefest.booking.entity.Transaction;
+import com.collegefest.booking.entity.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Transaction> findByBookingId(Long bookingId);
+
+    // Payments less refunds of the bookings made in [from, to), as [date, eventId, priceTierId, amount, bookings] rows
+    @Query("SELECT cast(b.bookedAt as LocalDate), b.event.id, b.priceTier.id, " +
+           "SUM(CASE WHEN t.transactionType = :refund THEN -t.amount ELSE t.amount END), " +
+           "SUM(CASE WHEN t.transactionType = :refund THEN -1 ELSE 1 END) " +
+           "FROM Transaction t JOIN t.booking b " +
+           "WHERE t.transactionType IN (:payment, :refund) AND b.bookedAt >= :from AND b.bookedAt < :to " +
+           "GROUP BY cast(b.bookedAt as LocalDate), b.event.id, b.priceTier.id")
+    List<Object[]> summarizeRevenueByDay(@Param("payment") TransactionType payment,
+                                         @Param("refund") TransactionType refund,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
 }
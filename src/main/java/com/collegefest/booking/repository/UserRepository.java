@@ -1,9 +1,13 @@
 package com.collegefest.booking.repository;
 
 import com.collegefest.booking.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     Boolean existsByPhoneNumber(String phoneNumber);
+
+    // Pages of users by name; the wallet is fetched along since the inverse one-to-one would load it per row
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.wallet ORDER BY u.fullName, u.id")
+    List<User> findPage(Pageable pageable);
+
+    // Keyset page after the (fullName, id) of the previous page's last row
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.wallet " +
+            "WHERE u.fullName >= :fullName AND (u.fullName > :fullName OR u.id > :id) ORDER BY u.fullName, u.id")
+    List<User> findPageAfter(@Param("fullName") String fullName, @Param("id") Long id, Pageable pageable);
 }
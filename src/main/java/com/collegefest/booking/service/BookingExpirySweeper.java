@@ -0,0 +1,185 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.BookingMode;
+import com.collegefest.booking.entity.BookingStatus;
+import com.collegefest.booking.entity.PriceTier;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.repository.SeatReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Expires unpaid bookings in bounded chunks with set-based updates. Each chunk is one transaction that
+ * locks the bookings still due, marks them EXPIRED and deletes their seat reservations with one bulk
+ * statement each, and gives the seats back with one relative update per price tier.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExpirySweeper {
+
+    private final BookingRepository bookingRepository;
+    private final SeatReservationRepository seatReservationRepository;
+    private final PriceTierRepository priceTierRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final TierAvailabilityService tierAvailabilityService;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final BookingFactStore bookingFactStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    private final LongAdder totalRuns = new LongAdder();
+    private final LongAdder totalExpired = new LongAdder();
+    private final LongAdder totalSeatsReleased = new LongAdder();
+    private final LongAdder totalFailedChunks = new LongAdder();
+    private volatile SweepResult lastRun;
+
+    /**
+     * Expires those of the given bookings that are still unpaid past their expiry. Bookings whose expiry
+     * has moved later are returned in {@link SweepResult#deferred()} with their new expiry time; ids of a
+     * chunk that failed are returned in {@link SweepResult#failed()}.
+     */
+    public SweepResult sweep(Collection<Long> bookingIds) {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(bookingIds);
+        int chunks = 0;
+        int expired = 0;
+        int seatsReleased = 0;
+        int tierUpdates = 0;
+        Map<Long, LocalDateTime> deferred = new HashMap<>();
+        List<Long> failed = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            chunks++;
+            try {
+                ChunkResult result = transactionTemplate.execute(status -> expireChunk(chunk));
+                expired += result.expired;
+                seatsReleased += result.seatsReleased;
+                tierUpdates += result.tierUpdates;
+                deferred.putAll(result.deferred);
+            } catch (RuntimeException e) {
+                log.error("Expiry chunk of {} bookings failed, will retry: {}", chunk.size(), e.getMessage());
+                failed.addAll(chunk);
+                totalFailedChunks.increment();
+            }
+        }
+
+        SweepResult result = new SweepResult(ids.size(), chunks, expired, seatsReleased, tierUpdates,
+                (System.nanoTime() - start) / 1_000_000, LocalDateTime.now(), deferred, failed);
+        if (!ids.isEmpty()) {
+            lastRun = result;
+            totalRuns.increment();
+            totalExpired.add(expired);
+            totalSeatsReleased.add(seatsReleased);
+            log.info("Expiry sweep: {} of {} bookings expired in {} chunks, {} seats back over {} tier updates, {} ms",
+                    expired, ids.size(), chunks, seatsReleased, tierUpdates, result.durationMillis());
+        }
+        return result;
+    }
+
+    // Totals since startup and the figures of the last sweep that had work
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("runs", totalRuns.sum());
+        snapshot.put("expired", totalExpired.sum());
+        snapshot.put("seatsReleased", totalSeatsReleased.sum());
+        snapshot.put("failedChunks", totalFailedChunks.sum());
+        SweepResult last = lastRun;
+        if (last != null) {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("finishedAt", last.finishedAt());
+            run.put("candidates", last.candidates());
+            run.put("chunks", last.chunks());
+            run.put("expired", last.expired());
+            run.put("seatsReleased", last.seatsReleased());
+            run.put("tierUpdates", last.tierUpdates());
+            run.put("durationMillis", last.durationMillis());
+            snapshot.put("lastRun", run);
+        }
+        return snapshot;
+    }
+
+    private ChunkResult expireChunk(List<Long> chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> due = bookingRepository.lockExpiredForSweep(chunk, BookingStatus.PENDING_PAYMENT, now);
+        Map<Long, LocalDateTime> deferred = due.size() < chunk.size()
+                ? bookingRepository.findLaterExpiryTimes(chunk, BookingStatus.PENDING_PAYMENT, now).stream()
+                        .collect(Collectors.toMap(row -> (Long) row[0], row -> (LocalDateTime) row[1]))
+                : Map.of();
+        if (due.isEmpty()) {
+            return new ChunkResult(0, 0, 0, deferred);
+        }
+
+        List<Long> bookingIds = new ArrayList<>(due.size());
+        Map<Long, Integer> seatsByTier = new HashMap<>();
+        Set<Long> inMemoryTiers = new HashSet<>();
+        for (Object[] row : due) {
+            bookingIds.add((Long) row[0]);
+            Long tierId = (Long) row[1];
+            seatsByTier.merge(tierId, (Integer) row[2], Integer::sum);
+            if (row[3] == BookingMode.IN_MEMORY) {
+                inMemoryTiers.add(tierId);
+            }
+        }
+
+        bookingRepository.updateStatusByIds(bookingIds, BookingStatus.EXPIRED);
+        dashboardMetricsService.bookingsChanged(BookingStatus.PENDING_PAYMENT, BookingStatus.EXPIRED, bookingIds.size());
+        bookingFactStore.statusChanged(bookingIds, BookingStatus.EXPIRED);
+        Map<Long, List<String>> seatsByEvent = seatReservationRepository.findSeatNumbersByBookingIds(bookingIds).stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[0],
+                        Collectors.mapping(row -> (String) row[1], Collectors.toList())));
+        seatReservationRepository.deleteByBookingIds(bookingIds);
+
+        // One relative update per tier; in-memory tiers are written back by the inventory flush instead
+        Map<Long, PriceTier> priceTiers = priceTierRepository.findAllById(seatsByTier.keySet()).stream()
+                .collect(Collectors.toMap(PriceTier::getId, Function.identity()));
+        int tierUpdates = 0;
+        for (Map.Entry<Long, Integer> entry : seatsByTier.entrySet()) {
+            PriceTier priceTier = priceTiers.get(entry.getKey());
+            if (inMemoryTiers.contains(entry.getKey())) {
+                seatInventoryService.releaseOnCommit(priceTier, entry.getValue());
+            } else {
+                priceTierRepository.adjustAvailableSeats(entry.getKey(), entry.getValue());
+                seatInventoryService.restoreOnCommit(priceTier, entry.getValue());
+                tierUpdates++;
+            }
+            tierAvailabilityService.seatsChanged(priceTier.getEvent().getId(), priceTier.getId());
+        }
+        Map<Long, PriceTier> tierByEvent = priceTiers.values().stream()
+                .collect(Collectors.toMap(tier -> tier.getEvent().getId(), Function.identity(), (a, b) -> a));
+        seatsByEvent.forEach((eventId, seatNumbers) ->
+                seatOccupancyService.releaseOnCommit(tierByEvent.get(eventId).getEvent(), seatNumbers));
+
+        int seatsReleased = seatsByTier.values().stream().mapToInt(Integer::intValue).sum();
+        return new ChunkResult(bookingIds.size(), seatsReleased, tierUpdates, deferred);
+    }
+
+    private record ChunkResult(int expired, int seatsReleased, int tierUpdates, Map<Long, LocalDateTime> deferred) {
+    }
+
+    public record SweepResult(int candidates, int chunks, int expired, int seatsReleased, int tierUpdates,
+                              long durationMillis, LocalDateTime finishedAt, Map<Long, LocalDateTime> deferred,
+                              List<Long> failed) {
+    }
+}
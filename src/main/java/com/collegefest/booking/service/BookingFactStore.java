@@ -0,0 +1,392 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.Booking;
+import com.collegefest.booking.entity.BookingStatus;
+import com.collegefest.booking.entity.EventType;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Columnar in-memory copy of the bookings for ad-hoc admin analytics: one row per booking spread over
+ * primitive arrays of event id, tier id, status ordinal, event type ordinal, booked-at minute and amount in
+ * paise. Fed from the booking transitions once they commit and rebuilt from the DB periodically; queries are
+ * filter, group-by and sum scans split over the fork-join pool, so no slice ever reads the OLTP tables.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingFactStore {
+
+    public static final int MAX_GROUP_BY = 2;
+
+    private static final byte DELETED = -1;
+    private static final int SCAN_CHUNK = 16_384;
+    private static final int LOAD_BATCH = 5_000;
+
+    private final BookingRepository bookingRepository;
+
+    // Written under the lock; scans read the last published frame
+    private Columns columns = new Columns(1024);
+    private volatile Frame frame = columns.frame();
+    // Changes committed while a rebuild reads the DB, replayed onto the rebuilt columns
+    private List<Consumer<Columns>> replay;
+
+    public enum Dimension {
+        EVENT, TIER, STATUS, EVENT_TYPE, DAY, HOUR
+    }
+
+    // Call with the saved booking; its event is read for the event type
+    public void bookingCreated(Booking booking) {
+        long id = booking.getId();
+        long eventId = booking.getEvent().getId();
+        long tierId = booking.getPriceTier().getId();
+        BookingStatus status = booking.getBookingStatus();
+        EventType eventType = booking.getEvent().getEventType();
+        int minute = minuteOf(booking.getBookedAt() != null ? booking.getBookedAt() : LocalDateTime.now());
+        long amount = toPaise(booking.getTotalAmount());
+        TransactionCallbacks.afterCommit(() -> apply(c -> c.upsert(id, eventId, tierId, status, eventType, minute, amount)));
+    }
+
+    public void statusChanged(Long bookingId, BookingStatus status) {
+        TransactionCallbacks.afterCommit(() -> apply(c -> c.setStatus(bookingId, status)));
+    }
+
+    public void statusChanged(Collection<Long> bookingIds, BookingStatus status) {
+        List<Long> ids = List.copyOf(bookingIds);
+        TransactionCallbacks.afterCommit(() -> apply(c -> ids.forEach(id -> c.setStatus(id, status))));
+    }
+
+    // The event's bookings are deleted with it
+    public void eventDeleted(Long eventId) {
+        TransactionCallbacks.afterCommit(() -> apply(c -> c.deleteEvent(eventId)));
+    }
+
+    private synchronized void apply(Consumer<Columns> change) {
+        change.accept(columns);
+        if (replay != null) {
+            replay.add(change);
+        }
+        frame = columns.frame();
+    }
+
+    /**
+     * Reloads every booking in id-ordered batches and swaps the result in. Every change applied meanwhile is
+     * replayed onto the new columns; the changes are idempotent, so ones the batches already saw are harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.facts.rebuild-ms:3600000}", initialDelayString = "${booking.facts.rebuild-ms:3600000}")
+    public void rebuild() {
+        synchronized (this) {
+            if (replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        }
+        try {
+            Columns rebuilt = new Columns(Math.max(1024, frame.size()));
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = bookingRepository.findFactsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    LocalDateTime bookedAt = (LocalDateTime) row[4];
+                    rebuilt.upsert(afterId, (Long) row[1], (Long) row[2], (BookingStatus) row[3], (EventType) row[6],
+                            bookedAt != null ? minuteOf(bookedAt) : 0, toPaise((BigDecimal) row[5]));
+                }
+            } while (rows.size() == LOAD_BATCH);
+            synchronized (this) {
+                replay.forEach(change -> change.accept(rebuilt));
+                columns = rebuilt;
+                frame = rebuilt.frame();
+            }
+            log.info("Booking fact store rebuilt with {} rows", rebuilt.size);
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    public int size() {
+        return frame.size();
+    }
+
+    /**
+     * Bookings and revenue per group, in key order. Event, tier, status and event type groups carry the id
+     * or name; days and hours are those of the booking time.
+     */
+    public List<Map<String, Object>> query(FactQuery query) {
+        Frame scanned = frame;
+        Map<GroupKey, long[]> groups = ForkJoinPool.commonPool().invoke(new ScanTask(scanned, query, 0, scanned.size()));
+        List<Map<String, Object>> result = new ArrayList<>();
+        groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingLong(GroupKey::first).thenComparingLong(GroupKey::second)))
+                .forEach(group -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    List<Dimension> groupBy = query.groupBy();
+                    for (int i = 0; i < groupBy.size(); i++) {
+                        long key = i == 0 ? group.getKey().first() : group.getKey().second();
+                        row.put(label(groupBy.get(i)), render(groupBy.get(i), key));
+                    }
+                    row.put("bookings", group.getValue()[0]);
+                    row.put("revenue", BigDecimal.valueOf(group.getValue()[1], 2));
+                    result.add(row);
+                });
+        return result;
+    }
+
+    private static String label(Dimension dimension) {
+        return switch (dimension) {
+            case EVENT -> "eventId";
+            case TIER -> "tierId";
+            case STATUS -> "status";
+            case EVENT_TYPE -> "eventType";
+            case DAY -> "day";
+            case HOUR -> "hour";
+        };
+    }
+
+    private static Object render(Dimension dimension, long key) {
+        return switch (dimension) {
+            case EVENT, TIER -> key;
+            case STATUS -> BookingStatus.values()[(int) key].name();
+            case EVENT_TYPE -> key >= 0 ? EventType.values()[(int) key].name() : null;
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case HOUR -> LocalDateTime.ofEpochSecond(key * 3600, 0, ZoneOffset.UTC).toString();
+        };
+    }
+
+    private static int minuteOf(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    /**
+     * Filters and grouping of a fact query; null filters match everything and the times are booking times,
+     * from inclusive and to exclusive.
+     */
+    public record FactQuery(List<Dimension> groupBy, Set<BookingStatus> statuses, Set<EventType> eventTypes,
+                            Long eventId, LocalDateTime from, LocalDateTime to) {
+
+        public FactQuery {
+            if (groupBy.size() > MAX_GROUP_BY) {
+                throw new BookingException("At most " + MAX_GROUP_BY + " group-by dimensions are supported");
+            }
+        }
+
+        // Parses comma separated, case-insensitive names as sent by the admin UI
+        public static FactQuery parse(String groupBy, String statuses, String eventTypes, Long eventId,
+                                      LocalDateTime from, LocalDateTime to) {
+            Set<Dimension> dimensions = names(Dimension.class, groupBy, "group-by dimension");
+            return new FactQuery(dimensions != null ? List.copyOf(dimensions) : List.of(),
+                    names(BookingStatus.class, statuses, "booking status"),
+                    names(EventType.class, eventTypes, "event type"), eventId, from, to);
+        }
+
+        private static <E extends Enum<E>> Set<E> names(Class<E> type, String names, String what) {
+            if (names == null || names.isBlank()) {
+                return null;
+            }
+            Set<E> values = new LinkedHashSet<>();
+            for (String name : names.split(",")) {
+                try {
+                    values.add(Enum.valueOf(type, name.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    throw new BookingException("Unknown " + what + ": " + name.trim());
+                }
+            }
+            return values;
+        }
+    }
+
+    private record GroupKey(long first, long second) {
+    }
+
+    // Arrays and row count as of one change; rows below size are never removed, only marked deleted
+    private record Frame(long[] eventIds, long[] tierIds, byte[] statuses, byte[] eventTypes, int[] minutes,
+                         long[] amounts, int size) {
+    }
+
+    private static final class Columns {
+        private final Map<Long, Integer> rowsByBookingId = new HashMap<>();
+        private long[] eventIds;
+        private long[] tierIds;
+        private byte[] statuses;
+        private byte[] eventTypes;
+        private int[] minutes;
+        private long[] amounts;
+        private int size;
+
+        Columns(int capacity) {
+            eventIds = new long[capacity];
+            tierIds = new long[capacity];
+            statuses = new byte[capacity];
+            eventTypes = new byte[capacity];
+            minutes = new int[capacity];
+            amounts = new long[capacity];
+        }
+
+        void upsert(long bookingId, long eventId, long tierId, BookingStatus status, EventType eventType,
+                    int minute, long amount) {
+            Integer row = rowsByBookingId.get(bookingId);
+            if (row == null) {
+                if (size == eventIds.length) {
+                    grow();
+                }
+                row = size++;
+                rowsByBookingId.put(bookingId, row);
+            }
+            eventIds[row] = eventId;
+            tierIds[row] = tierId;
+            eventTypes[row] = eventType != null ? (byte) eventType.ordinal() : DELETED;
+            minutes[row] = minute;
+            amounts[row] = amount;
+            statuses[row] = (byte) status.ordinal();
+        }
+
+        void setStatus(long bookingId, BookingStatus status) {
+            Integer row = rowsByBookingId.get(bookingId);
+            if (row != null) {
+                statuses[row] = (byte) status.ordinal();
+            }
+        }
+
+        void deleteEvent(long eventId) {
+            for (Iterator<Integer> rows = rowsByBookingId.values().iterator(); rows.hasNext(); ) {
+                int row = rows.next();
+                if (eventIds[row] == eventId) {
+                    statuses[row] = DELETED;
+                    rows.remove();
+                }
+            }
+        }
+
+        // New arrays, so frames already handed out keep their own
+        private void grow() {
+            int capacity = eventIds.length * 2;
+            eventIds = Arrays.copyOf(eventIds, capacity);
+            tierIds = Arrays.copyOf(tierIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            eventTypes = Arrays.copyOf(eventTypes, capacity);
+            minutes = Arrays.copyOf(minutes, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+
+        Frame frame() {
+            return new Frame(eventIds, tierIds, statuses, eventTypes, minutes, amounts, size);
+        }
+    }
+
+    // Splits the rows in halves down to SCAN_CHUNK, sums each chunk into its own map and merges on the way up
+    private static final class ScanTask extends RecursiveTask<Map<GroupKey, long[]>> {
+        private final Frame frame;
+        private final FactQuery query;
+        private final int from;
+        private final int to;
+
+        ScanTask(Frame frame, FactQuery query, int from, int to) {
+            this.frame = frame;
+            this.query = query;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<GroupKey, long[]> compute() {
+            if (to - from > SCAN_CHUNK) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(frame, query, from, middle);
+                left.fork();
+                Map<GroupKey, long[]> right = new ScanTask(frame, query, middle, to).compute();
+                Map<GroupKey, long[]> merged = left.join();
+                right.forEach((key, sums) -> merged.merge(key, sums, (a, b) -> {
+                    a[0] += b[0];
+                    a[1] += b[1];
+                    return a;
+                }));
+                return merged;
+            }
+            return scan();
+        }
+
+        private Map<GroupKey, long[]> scan() {
+            boolean[] statusMask = mask(query.statuses(), BookingStatus.values().length);
+            boolean[] typeMask = mask(query.eventTypes(), EventType.values().length);
+            boolean anyEvent = query.eventId() == null;
+            long eventId = anyEvent ? 0 : query.eventId();
+            int fromMinute = query.from() != null ? minuteOf(query.from()) : Integer.MIN_VALUE;
+            int toMinute = query.to() != null ? minuteOf(query.to()) : Integer.MAX_VALUE;
+            List<Dimension> groupBy = query.groupBy();
+            Dimension first = groupBy.isEmpty() ? null : groupBy.get(0);
+            Dimension second = groupBy.size() < 2 ? null : groupBy.get(1);
+
+            Map<GroupKey, long[]> groups = new HashMap<>();
+            for (int row = from; row < to; row++) {
+                byte status = frame.statuses()[row];
+                if (status == DELETED || !statusMask[status]) {
+                    continue;
+                }
+                byte eventType = frame.eventTypes()[row];
+                if (query.eventTypes() != null && (eventType == DELETED || !typeMask[eventType])) {
+                    continue;
+                }
+                if (!anyEvent && frame.eventIds()[row] != eventId) {
+                    continue;
+                }
+                int minute = frame.minutes()[row];
+                if (minute < fromMinute || minute >= toMinute) {
+                    continue;
+                }
+                long[] sums = groups.computeIfAbsent(new GroupKey(key(first, row), key(second, row)), k -> new long[2]);
+                sums[0]++;
+                sums[1] += frame.amounts()[row];
+            }
+            return groups;
+        }
+
+        private long key(Dimension dimension, int row) {
+            if (dimension == null) {
+                return 0;
+            }
+            return switch (dimension) {
+                case EVENT -> frame.eventIds()[row];
+                case TIER -> frame.tierIds()[row];
+                case STATUS -> frame.statuses()[row];
+                case EVENT_TYPE -> frame.eventTypes()[row];
+                case DAY -> Math.floorDiv(frame.minutes()[row], 1440);
+                case HOUR -> Math.floorDiv(frame.minutes()[row], 60);
+            };
+        }
+
+        private static boolean[] mask(Set<? extends Enum<?>> values, int length) {
+            boolean[] mask = new boolean[length];
+            if (values == null) {
+                Arrays.fill(mask, true);
+            } else {
+                values.forEach(value -> mask[value.ordinal()] = true);
+            }
+            return mask;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.BookingMode;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per booking mode counters for booking latency, time spent waiting on the price tier row and
+ * concurrency retries, so the modes can be compared on live traffic.
+ */
+@Service
+public class BookingMetricsService {
+
+    private final Map<BookingMode, ModeCounters> counters = new EnumMap<>(BookingMode.class);
+
+    public BookingMetricsService() {
+        for (BookingMode mode : BookingMode.values()) {
+            counters.put(mode, new ModeCounters());
+        }
+    }
+
+    public void recordOutcome(BookingMode mode, boolean booked, long elapsedNanos) {
+        ModeCounters modeCounters = counters.get(mode);
+        (booked ? modeCounters.booked : modeCounters.failed).increment();
+        modeCounters.elapsedNanos.add(elapsedNanos);
+    }
+
+    public void recordLockWait(BookingMode mode, long nanos) {
+        counters.get(mode).lockWaitNanos.add(nanos);
+        counters.get(mode).lockWaits.increment();
+    }
+
+    // A repeated attempt: after a tier row lock timeout or deadlock for OPTIMISTIC, after a failed batch for SEQUENCED
+    public void recordRetry(BookingMode mode) {
+        counters.get(mode).retries.increment();
+    }
+
+    public void recordRetriesExhausted(BookingMode mode) {
+        counters.get(mode).retriesExhausted.increment();
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        counters.forEach((mode, modeCounters) -> {
+            long booked = modeCounters.booked.sum();
+            long requests = booked + modeCounters.failed.sum();
+            long lockWaits = modeCounters.lockWaits.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("booked", booked);
+            stats.put("failed", requests - booked);
+            stats.put("retries", modeCounters.retries.sum());
+            stats.put("retriesExhausted", modeCounters.retriesExhausted.sum());
+            stats.put("retriesPerRequest", requests == 0 ? 0.0 : modeCounters.retries.sum() / (double) requests);
+            stats.put("avgLatencyMs", averageMillis(modeCounters.elapsedNanos.sum(), requests));
+            stats.put("avgLockWaitMs", averageMillis(modeCounters.lockWaitNanos.sum(), lockWaits));
+            result.put(mode.name(), stats);
+        });
+        return result;
+    }
+
+    private static double averageMillis(long totalNanos, long count) {
+        return count == 0 ? 0.0 : totalNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class ModeCounters {
+        private final LongAdder booked = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder elapsedNanos = new LongAdder();
+        private final LongAdder lockWaits = new LongAdder();
+        private final LongAdder lockWaitNanos = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder retriesExhausted = new LongAdder();
+    }
+}
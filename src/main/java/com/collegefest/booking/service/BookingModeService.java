@@ -0,0 +1,47 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.BookingMode;
+import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.util.LoadingCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+/**
+ * Caches each event's {@link BookingMode} so booking requests can be routed without reading the event first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingModeService {
+
+    private final EventRepository eventRepository;
+
+    private final LoadingCache<Long, BookingMode> modes = new LoadingCache<>();
+
+    public BookingMode modeOf(Long eventId) {
+        // Events that still have no mode have always been booked pessimistically
+        return modes.get(eventId, id -> Objects.requireNonNullElse(eventRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id))
+                .getBookingMode(), BookingMode.PESSIMISTIC));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void fillMissingModes() {
+        int filled = eventRepository.fillMissingBookingMode(BookingMode.PESSIMISTIC);
+        if (filled > 0) {
+            log.info("Set booking mode PESSIMISTIC on {} events that had none", filled);
+        }
+    }
+
+    public void evict(Long eventId) {
+        modes.remove(eventId);
+    }
+}
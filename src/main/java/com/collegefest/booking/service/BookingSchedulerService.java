@@ -2,70 +2,91 @@ package com.collegefest.booking.service;
 
 import com.collegefest.booking.entity.Booking;
 import com.collegefest.booking.entity.BookingStatus;
-import com.collegefest.booking.entity.PriceTier;
-import com.collegefest.booking.entity.ReservationStatus;
 import com.collegefest.booking.repository.BookingRepository;
-import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.util.TimingWheel;
+import com.collegefest.booking.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
+/**
+ * Expires unpaid bookings. Every PENDING_PAYMENT booking gets a timer in a hierarchical timing wheel when
+ * it is committed; each tick hands the due bookings to the {@link BookingExpirySweeper}, so seats come back
+ * within one tick of expires_at. The wheel lives in memory and is rebuilt from the bookings table on startup.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingSchedulerService {
 
     private final BookingRepository bookingRepository;
-    private final PriceTierRepository priceTierRepository;
+    private final BookingExpirySweeper bookingExpirySweeper;
 
-    /**
-     * Runs every minute to cancel expired bookings
-     */
-    @Scheduled(fixedRate = 60000) // Run every 60 seconds
-    @Transactional
-    public void cancelExpiredBookings() {
-        log.info("Running scheduled task to cancel expired bookings...");
+    @Value("${booking.expiry.tick-ms:250}")
+    private long tickMillis;
 
-        List<Booking> expiredBookings = bookingRepository.findByBookingStatusAndExpiresAtBefore(
-                BookingStatus.PENDING_PAYMENT,
-                LocalDateTime.now()
-        );
+    @Value("${booking.expiry.wheel-size:64}")
+    private int wheelSize;
 
-        if (expiredBookings.isEmpty()) {
-            log.info("No expired bookings found");
-            return;
-        }
+    @Value("${booking.expiry.wheel-levels:4}")
+    private int wheelLevels;
 
-        log.info("Found {} expired bookings", expiredBookings.size());
+    private TimingWheel<Long> expiryWheel;
 
-        for (Booking booking : expiredBookings) {
-            try {
-                // Change status to EXPIRED
-                booking.setBookingStatus(BookingStatus.EXPIRED);
+    @PostConstruct
+    void createWheel() {
+        expiryWheel = new TimingWheel<>(tickMillis, wheelSize, wheelLevels, System.currentTimeMillis());
+    }
 
-                // Release seats back to price tier
-                PriceTier priceTier = booking.getPriceTier();
-                priceTier.setAvailableSeats(priceTier.getAvailableSeats() + booking.getNumTickets());
-                priceTierRepository.save(priceTier);
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> pending = bookingRepository.findExpiryTimesByStatus(BookingStatus.PENDING_PAYMENT);
+        pending.forEach(row -> expiryWheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1])));
+        log.info("Scheduled expiry of {} unpaid bookings", pending.size());
+    }
 
-                // Release seat reservations
-                booking.getSeatReservations().forEach(reservation ->
-                        reservation.setReservationStatus(ReservationStatus.RELEASED)
-                );
+    // Starts the booking's expiry timer once the surrounding transaction commits
+    public void scheduleExpiry(Booking booking) {
+        if (booking.getBookingStatus() == BookingStatus.PENDING_PAYMENT && booking.getExpiresAt() != null) {
+            Long bookingId = booking.getId();
+            long deadline = toMillis(booking.getExpiresAt());
+            TransactionCallbacks.afterCommit(() -> expiryWheel.schedule(bookingId, deadline));
+        }
+    }
 
-                bookingRepository.save(booking);
+    // Stops the timer of a booking that was paid or cancelled, once the surrounding transaction commits
+    public void cancelExpiry(Long bookingId) {
+        TransactionCallbacks.afterCommit(() -> expiryWheel.cancel(bookingId));
+    }
+
+    public int pendingExpiries() {
+        return expiryWheel.size();
+    }
 
-                log.info("Cancelled expired booking: {}", booking.getBookingReference());
-            } catch (Exception e) {
-                log.error("Error cancelling booking {}: {}", booking.getBookingReference(), e.getMessage());
-            }
+    @Scheduled(fixedDelayString = "${booking.expiry.tick-ms:250}")
+    public void expireDueBookings() {
+        List<Long> due = expiryWheel.advanceTo(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
         }
+        BookingExpirySweeper.SweepResult result = bookingExpirySweeper.sweep(due);
+        // Expiry pushed back since the timer was set
+        result.deferred().forEach((bookingId, expiresAt) -> expiryWheel.schedule(bookingId, toMillis(expiresAt)));
+        // Failed chunks are retried on the next tick
+        long now = System.currentTimeMillis();
+        result.failed().forEach(bookingId -> expiryWheel.schedule(bookingId, now));
+    }
 
-        log.info("Completed cancelling {} expired bookings", expiredBookings.size());
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 }
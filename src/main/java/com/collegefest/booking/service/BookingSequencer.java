@@ -0,0 +1,315 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.BookingRequestDTO;
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.Booking;
+import com.collegefest.booking.entity.BookingMode;
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.entity.PriceTier;
+import com.collegefest.booking.entity.User;
+import com.collegefest.booking.exception.AdmissionRequiredException;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.exception.InsufficientSeatsException;
+import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Single writer per event for {@link BookingMode#SEQUENCED} events. Booking commands are queued in a
+ * bounded buffer and handled by one thread per event, which checks tier counts and seat conflicts in
+ * memory without any locking and commits the accepted bookings in micro-batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSequencer {
+
+    private final EventRepository eventRepository;
+    private final PriceTierRepository priceTierRepository;
+    private final UserRepository userRepository;
+    private final BookingService bookingService;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final BookingMetricsService bookingMetricsService;
+    private final IdempotencyService idempotencyService;
+
+    @Value("${booking.sequencer.queue-capacity:4096}")
+    private int queueCapacity;
+
+    @Value("${booking.sequencer.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${booking.sequencer.submit-timeout-ms:10000}")
+    private long submitTimeoutMs;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a booking on the event's sequencer and waits for it to be committed or rejected. A booking still
+     * queued after the submit timeout is withdrawn, so the caller can safely retry; one the sequencer has
+     * already taken up is waited for, as it may still commit.
+     */
+    public BookingResponseDTO submit(BookingRequestDTO request, Long userId) {
+        Command command = new Command(request, userId, idempotencyService.currentClaim());
+        Lane lane = enqueue(request.getEventId(), command);
+        try {
+            return command.result.get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (command.taken.compareAndSet(false, true)) {
+                lane.queue.remove(command);
+                throw new AdmissionRequiredException("Too many bookings queued for this event, nothing was booked. Please retry shortly");
+            }
+            return await(command);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Booking was interrupted");
+        }
+    }
+
+    // Every command the lane takes up is completed, by the batch or by the lane's failure handling
+    private BookingResponseDTO await(Command command) {
+        try {
+            return command.result.get();
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Booking was interrupted");
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new BookingException("Booking failed: " + e.getCause().getMessage());
+    }
+
+    /**
+     * Drains and stops the event's sequencer, e.g. after the event switched to another booking mode.
+     */
+    public void evict(Long eventId) {
+        Lane lane = lanes.remove(eventId);
+        if (lane != null) {
+            lane.stop();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.keySet().forEach(this::evict);
+    }
+
+    private Lane enqueue(Long eventId, Command command) {
+        Lane lane = lanes.computeIfAbsent(eventId, Lane::new);
+        if (!lane.queue.offer(command)) {
+            throw new AdmissionRequiredException("Too many bookings in flight for this event, please retry shortly");
+        }
+        // A lane that was stopped meanwhile may have exited before seeing the command
+        if (!lane.running && lane.queue.remove(command)) {
+            lanes.remove(eventId, lane);
+            return enqueue(eventId, command);
+        }
+        return lane;
+    }
+
+    private void process(Long eventId, List<Command> batch) {
+        Event event;
+        Map<Long, PriceTier> priceTiers;
+        Map<Long, User> users;
+        try {
+            // One read of the event with its venue (for the seat layout), its tiers and the users per batch
+            event = eventRepository.findByIdWithVenue(eventId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
+            priceTiers = priceTierRepository.findByEventId(eventId).stream()
+                    .collect(Collectors.toMap(PriceTier::getId, Function.identity()));
+            users = userRepository.findAllById(batch.stream().map(command -> command.userId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+        } catch (RuntimeException e) {
+            batch.forEach(command -> command.result.completeExceptionally(e));
+            return;
+        }
+
+        List<Command> accepted = new ArrayList<>(batch.size());
+        for (Command command : batch) {
+            if (!command.taken.compareAndSet(false, true)) {
+                continue; // Withdrawn by its submitter after the timeout
+            }
+            try {
+                command.booking = accept(event, priceTiers, users, command);
+                accepted.add(command);
+            } catch (RuntimeException e) {
+                command.result.completeExceptionally(e);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            commit(accepted);
+        } catch (RuntimeException batchFailure) {
+            // Retry one by one so a single bad booking does not fail the rest of the batch
+            log.warn("Sequenced batch of {} bookings for event {} failed, retrying individually: {}",
+                    accepted.size(), eventId, batchFailure.getMessage());
+            for (Command command : accepted) {
+                bookingMetricsService.recordRetry(BookingMode.SEQUENCED);
+                try {
+                    // The failed flush may have assigned ids, so persist a fresh copy
+                    Booking failed = command.booking;
+                    command.booking = bookingService.buildConfirmedBooking(failed.getUser(), failed.getEvent(),
+                            failed.getPriceTier(), command.request, command.seatNumbers);
+                    commit(List.of(command));
+                } catch (RuntimeException e) {
+                    release(event, command);
+                    command.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    // Validates a command against the in-memory state and claims its seats; only this lane's thread writes them
+    private Booking accept(Event event, Map<Long, PriceTier> priceTiers, Map<Long, User> users, Command command) {
+        BookingRequestDTO request = command.request;
+        User user = users.get(command.userId);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        bookingService.checkBookingOpen(event);
+        PriceTier priceTier = priceTiers.get(request.getPriceTierId());
+        if (priceTier == null) {
+            throw new ResourceNotFoundException("Price tier not found with id: " + request.getPriceTierId());
+        }
+        boolean withSeats = bookingService.hasSeatNumbers(request);
+        if (withSeats) {
+            String outsideSeat = seatOccupancyService.seatOutsideTier(event, priceTier, request.getSeatNumbers());
+            if (outsideSeat != null) {
+                throw new BookingException("Seat " + outsideSeat + " is not part of tier " + priceTier.getTierName());
+            }
+        }
+
+        if (!seatInventoryService.reserve(priceTier, request.getNumTickets())) {
+            throw new InsufficientSeatsException(
+                    "Only " + seatInventoryService.availableSeats(priceTier) + " seats available");
+        }
+        if (withSeats) {
+            String takenSeat = seatOccupancyService.tryClaim(event, request.getSeatNumbers());
+            if (takenSeat != null) {
+                seatInventoryService.unreserve(priceTier, request.getNumTickets());
+                throw new BookingException("Seat " + takenSeat + " is already booked");
+            }
+            command.seatNumbers = request.getSeatNumbers();
+        } else if (bookingService.assignsSeats(event, priceTier)) {
+            command.seatNumbers = seatOccupancyService.tryClaimBest(event, priceTier, request.getNumTickets());
+            if (command.seatNumbers == null) {
+                seatInventoryService.unreserve(priceTier, request.getNumTickets());
+                throw new InsufficientSeatsException("Not enough seats left in tier " + priceTier.getTierName());
+            }
+        }
+        return bookingService.buildConfirmedBooking(user, event, priceTier, request, command.seatNumbers);
+    }
+
+    private void commit(List<Command> commands) {
+        List<BookingResponseDTO> responses = bookingService.saveSequencedBookings(
+                commands.stream().map(command -> command.booking).toList(),
+                commands.stream().map(command -> command.claim).toList());
+        for (int i = 0; i < commands.size(); i++) {
+            commands.get(i).result.complete(responses.get(i));
+        }
+    }
+
+    private void release(Event event, Command command) {
+        seatInventoryService.unreserve(command.booking.getPriceTier(), command.request.getNumTickets());
+        if (command.seatNumbers != null) {
+            seatOccupancyService.release(event, command.seatNumbers);
+        }
+    }
+
+    private static final class Command {
+        private final BookingRequestDTO request;
+        private final Long userId;
+        private final IdempotencyService.Claim claim; // Idempotency-Key of the submitting request, if any
+        private final CompletableFuture<BookingResponseDTO> result = new CompletableFuture<>();
+        // Set by the lane when it takes the command up, or by the submitter when it withdraws it
+        private final AtomicBoolean taken = new AtomicBoolean();
+        private Booking booking; // Set once accepted, only touched by the lane thread
+        private List<String> seatNumbers; // Seats claimed for the booking, picked or assigned
+
+        private Command(BookingRequestDTO request, Long userId, IdempotencyService.Claim claim) {
+            this.request = request;
+            this.userId = userId;
+            this.claim = claim;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final Long eventId;
+        private final BlockingQueue<Command> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Lane(Long eventId) {
+            this.eventId = eventId;
+            this.thread = new Thread(this, "booking-sequencer-" + eventId);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(maxBatchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Command first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    process(eventId, batch);
+                } catch (InterruptedException e) {
+                    // Stop taking new work but still answer everything that is already queued
+                    running = false;
+                } catch (RuntimeException e) {
+                    log.error("Booking sequencer for event {} failed on a batch", eventId, e);
+                    batch.forEach(command -> command.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+            log.debug("Booking sequencer for event {} stopped", eventId);
+        }
+
+        private void stop() {
+            running = false;
+            try {
+                thread.join(submitTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
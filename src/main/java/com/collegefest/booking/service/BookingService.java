@@ -3,6 +3,7 @@ package com.collegefest.booking.service;
 import com.collegefest.booking.dto.request.BookingRequestDTO;
 import com.collegefest.booking.dto.request.PaymentConfirmationDTO;
 import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.dto.response.BookingSummaryDTO;
 import com.collegefest.booking.entity.*;
 import com.collegefest.booking.exception.BookingException;
 import com.collegefest.booking.exception.InsufficientSeatsException;
@@ -10,17 +11,26 @@ import com.collegefest.booking.exception.ResourceNotFoundException;
 import com.collegefest.booking.repository.*;
 import com.collegefest.booking.security.UserPrincipal;
 import com.collegefest.booking.util.BookingReferenceGenerator;
+import com.collegefest.booking.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,11 +43,58 @@ public class BookingService {
     private final EventRepository eventRepository;
     private final PriceTierRepository priceTierRepository;
     private final SeatReservationRepository seatReservationRepository;
-    private final TransactionRepository transactionRepository;
+    private final LedgerOutboxRepository ledgerOutboxRepository;
     private final BookingReferenceGenerator referenceGenerator;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final BookingMetricsService bookingMetricsService;
+    private final BookingSchedulerService bookingSchedulerService;
+    private final TierAvailabilityService tierAvailabilityService;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final BookingFactStore bookingFactStore;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.optimistic.max-attempts:5}")
+    private int optimisticMaxAttempts;
+
+    @Value("${booking.optimistic.base-backoff-ms:5}")
+    private long optimisticBaseBackoffMs;
+
+    @Value("${booking.optimistic.max-backoff-ms:100}")
+    private long optimisticMaxBackoffMs;
 
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public BookingResponseDTO createBooking(BookingRequestDTO request, Authentication authentication) {
+        return placeBooking(request, authentication);
+    }
+
+    /**
+     * Books for an {@link BookingMode#OPTIMISTIC} event. Each attempt runs in its own transaction and takes the
+     * seats with a conditional update on the tier's version and remaining count, so a sold-out tier fails at once
+     * and is never retried. An attempt that finds the tier changed since it read it while seats are still left,
+     * or that fails with a lock wait timeout or a deadlock on the tier row, is retried with a jittered backoff up
+     * to a bounded number of attempts; those are what the OPTIMISTIC retry counters in
+     * {@link BookingMetricsService} count.
+     */
+    public BookingResponseDTO createBookingOptimistically(BookingRequestDTO request, Authentication authentication) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeBooking(request, authentication));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= optimisticMaxAttempts) {
+                    bookingMetricsService.recordRetriesExhausted(BookingMode.OPTIMISTIC);
+                    log.warn("Giving up on booking for tier {} after {} attempts: {}",
+                            request.getPriceTierId(), attempt, e.getMessage());
+                    throw new BookingException("This tier is in high demand right now, please try again");
+                }
+                bookingMetricsService.recordRetry(BookingMode.OPTIMISTIC);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private BookingResponseDTO placeBooking(BookingRequestDTO request, Authentication authentication) {
         log.info("Creating booking for event ID: {}, tickets: {}", request.getEventId(), request.getNumTickets());
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         User user = userRepository.findById(userPrincipal.getId())
@@ -46,7 +103,131 @@ public class BookingService {
         // 1. Validate event exists and is open for booking
         Event event = eventRepository.findById(request.getEventId())
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + request.getEventId()));
+        checkBookingOpen(event);
+
+        // 2. Get price tier - only pessimistic events lock it up front
+        BookingMode mode = event.getBookingMode();
+        boolean inMemoryInventory = mode == BookingMode.IN_MEMORY;
+        boolean optimistic = mode == BookingMode.OPTIMISTIC;
+        long lockStart = System.nanoTime();
+        PriceTier priceTier = (inMemoryInventory || optimistic
+                ? priceTierRepository.findById(request.getPriceTierId())
+                : priceTierRepository.findByIdWithLock(request.getPriceTierId()))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Price tier not found with id: " + request.getPriceTierId()));
+        if (!inMemoryInventory && !optimistic) {
+            bookingMetricsService.recordLockWait(mode, System.nanoTime() - lockStart);
+        }
+
+        // Chosen seats must lie in the tier's seat range
+        if (hasSeatNumbers(request)) {
+            String outsideSeat = seatOccupancyService.seatOutsideTier(event, priceTier, request.getSeatNumbers());
+            if (outsideSeat != null) {
+                throw new BookingException("Seat " + outsideSeat + " is not part of tier " + priceTier.getTierName());
+            }
+        }
+
+        // 3. Check seat availability (for optimistic events this is only an early exit on a possibly stale count)
+        if (inMemoryInventory) {
+            if (!seatInventoryService.tryAcquire(priceTier, request.getNumTickets())) {
+                throw new InsufficientSeatsException(
+                        "Only " + seatInventoryService.availableSeats(priceTier) + " seats available");
+            }
+        } else if (priceTier.getAvailableSeats() < request.getNumTickets()) {
+            throw new InsufficientSeatsException("Only " + priceTier.getAvailableSeats() + " seats available");
+        }
+
+        // 4. Reserve seats
+        List<String> seatNumbers = request.getSeatNumbers();
+        if (hasSeatNumbers(request)) {
+            // Claim the seats in the event's occupancy index (released again if this transaction rolls back)
+            String takenSeat = seatOccupancyService.claim(event, seatNumbers);
+            if (takenSeat != null) {
+                throw new BookingException("Seat " + takenSeat + " is already booked");
+            }
+        } else if (assignsSeats(event, priceTier)) {
+            // No seats picked, so the group gets the best seats left in the tier, together when possible
+            seatNumbers = seatOccupancyService.claimBest(event, priceTier, request.getNumTickets());
+            if (seatNumbers == null) {
+                throw new InsufficientSeatsException("Not enough seats left in tier " + priceTier.getTierName());
+            }
+        }
 
+        // 5. Create booking - AUTO-CONFIRMED for offline mode
+        Booking booking = buildConfirmedBooking(user, event, priceTier, request, seatNumbers);
+
+        // 6. Decrease available seats (in-memory tiers are written back by the inventory flush). Optimistic
+        // events take them with a conditional update before anything else is written, so a sold-out attempt
+        // leaves nothing behind; the tier row is locked only from here until the commit
+        if (optimistic) {
+            lockStart = System.nanoTime();
+            int updated = priceTierRepository.takeSeatsIfUnchanged(
+                    priceTier.getId(), priceTier.getVersion(), request.getNumTickets());
+            bookingMetricsService.recordLockWait(mode, System.nanoTime() - lockStart);
+            if (updated == 0) {
+                // Sold out is final; a tier that changed since the read but still has the seats gets another attempt
+                if (priceTierRepository.findAvailableSeatsById(priceTier.getId()) < request.getNumTickets()) {
+                    throw new InsufficientSeatsException("Not enough seats left in " + priceTier.getTierName());
+                }
+                throw new OptimisticLockingFailureException(
+                        "Price tier " + priceTier.getId() + " changed since it was read");
+            }
+        } else if (!inMemoryInventory) {
+            priceTier.setAvailableSeats(priceTier.getAvailableSeats() - request.getNumTickets());
+            priceTierRepository.save(priceTier);
+        }
+
+        // 7. Save booking and its transaction record
+        Booking savedBooking = saveWithPayment(booking);
+
+        tierAvailabilityService.seatsChanged(priceTier.getEvent().getId(), priceTier.getId());
+        log.info("Booking created successfully - Reference: {}, User: {}, Event: {}",
+                savedBooking.getBookingReference(), user.getEmail(), event.getEventName());
+
+        // Commits with the booking, so a retry with the same Idempotency-Key gets this response back
+        BookingResponseDTO response = convertToResponse(savedBooking);
+        idempotencyService.recordResponse(response);
+        return response;
+    }
+
+    // Full jitter: sleep a random time up to an exponentially growing cap
+    private void backOff(int attempt) {
+        long capMillis = Math.min(optimisticMaxBackoffMs, optimisticBaseBackoffMs << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(capMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Booking was interrupted");
+        }
+    }
+
+    /**
+     * Persists bookings that the {@link BookingSequencer} has already validated and claimed seats for,
+     * in one transaction with a single relative seat update per price tier. The claims are the requests'
+     * Idempotency-Key claims, null for requests sent without a key.
+     */
+    @Transactional
+    public List<BookingResponseDTO> saveSequencedBookings(List<Booking> bookings,
+                                                          List<IdempotencyService.Claim> claims) {
+        Map<Long, Integer> ticketsByTier = new HashMap<>();
+        List<BookingResponseDTO> responses = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            ticketsByTier.merge(booking.getPriceTier().getId(), booking.getNumTickets(), Integer::sum);
+            BookingResponseDTO response = convertToResponse(saveWithPayment(booking));
+            idempotencyService.recordResponse(claims.get(i), response);
+            responses.add(response);
+        }
+        Long eventId = bookings.get(0).getEvent().getId();
+        ticketsByTier.forEach((tierId, tickets) -> {
+            priceTierRepository.adjustAvailableSeats(tierId, -tickets);
+            tierAvailabilityService.seatsChanged(eventId, tierId);
+        });
+        log.info("Committed {} sequenced bookings for event {}", bookings.size(), eventId);
+        return responses;
+    }
+
+    void checkBookingOpen(Event event) {
         if (!event.getStatus().equals(EventStatus.BOOKING_OPEN)) {
             throw new BookingException("Booking is not open for this event");
         }
@@ -55,21 +236,30 @@ public class BookingService {
         if (now.isBefore(event.getBookingOpensAt()) || now.isAfter(event.getBookingClosesAt())) {
             throw new BookingException("Booking is closed for this event");
         }
+    }
 
-        // 2. Get price tier with pessimistic lock
-        PriceTier priceTier = priceTierRepository.findByIdWithLock(request.getPriceTierId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Price tier not found with id: " + request.getPriceTierId()));
-
-        // 3. Check seat availability
-        if (priceTier.getAvailableSeats() < request.getNumTickets()) {
-            throw new InsufficientSeatsException("Only " + priceTier.getAvailableSeats() + " seats available");
+    // Validates the requested seat numbers against the ticket count; false when no seats were picked
+    boolean hasSeatNumbers(BookingRequestDTO request) {
+        if (request.getSeatNumbers() == null || request.getSeatNumbers().isEmpty()) {
+            return false;
+        }
+        if (request.getSeatNumbers().size() != request.getNumTickets()) {
+            throw new BookingException("Number of seat numbers must match number of tickets");
         }
+        return true;
+    }
 
-        // 4. Calculate total amount
+    // Bookings that name no seats get them assigned at numbered venues, from tiers with a seat range in the
+    // venue layout; other tiers keep booking by seat count only
+    boolean assignsSeats(Event event, PriceTier priceTier) {
+        return !Boolean.FALSE.equals(event.getVenue().getHasNumberedSeats())
+                && seatOccupancyService.assignableRange(event, priceTier) != null;
+    }
+
+    Booking buildConfirmedBooking(User user, Event event, PriceTier priceTier, BookingRequestDTO request,
+                                  List<String> seatNumbers) {
         BigDecimal totalAmount = priceTier.getPrice().multiply(BigDecimal.valueOf(request.getNumTickets()));
 
-        // 5. Create booking - AUTO-CONFIRMED for offline mode
         Booking booking = Booking.builder()
                 .bookingReference(referenceGenerator.generate())
                 .user(user)
@@ -83,25 +273,9 @@ public class BookingService {
                 .confirmedAt(LocalDateTime.now())
                 .build();
 
-        // 6. Reserve seats
-        if (request.getSeatNumbers() != null && !request.getSeatNumbers().isEmpty()) {
-            // Validate seat numbers
-            if (request.getSeatNumbers().size() != request.getNumTickets()) {
-                throw new BookingException("Number of seat numbers must match number of tickets");
-            }
-
-            // Check if seats are already reserved
-            for (String seatNumber : request.getSeatNumbers()) {
-                boolean isReserved = seatReservationRepository.existsByEventIdAndSeatNumberAndReservationStatus(
-                        event.getId(), seatNumber, ReservationStatus.CONFIRMED);
-                if (isReserved) {
-                    throw new BookingException("Seat " + seatNumber + " is already booked");
-                }
-            }
-
-            // Create seat reservations
+        if (seatNumbers != null) {
             List<SeatReservation> seatReservations = new ArrayList<>();
-            for (String seatNumber : request.getSeatNumbers()) {
+            for (String seatNumber : seatNumbers) {
                 SeatReservation reservation = SeatReservation.builder()
                         .booking(booking)
                         .event(event)
@@ -114,29 +288,25 @@ public class BookingService {
             }
             booking.setSeatReservations(seatReservations);
         }
+        return booking;
+    }
 
-        // 7. Decrease available seats
-        priceTier.setAvailableSeats(priceTier.getAvailableSeats() - request.getNumTickets());
-        priceTierRepository.save(priceTier);
-
-        // 8. Save booking
+    private Booking saveWithPayment(Booking booking) {
         Booking savedBooking = bookingRepository.save(booking);
-        log.info("Booking created successfully - Reference: {}, User: {}, Event: {}",
-                savedBooking.getBookingReference(), user.getEmail(), event.getEventName());
-
-        // 9. Create transaction record (PAYMENT type, fully persisted as required)
-        Transaction transaction = Transaction.builder()
-                .user(user)
-                .booking(savedBooking)
+        bookingSchedulerService.scheduleExpiry(savedBooking);
+        dashboardMetricsService.bookingChanged(null, savedBooking.getBookingStatus(), savedBooking.getTotalAmount());
+        bookingFactStore.bookingCreated(savedBooking);
+
+        // Queue the PAYMENT ledger row; LedgerOutboxDispatcher writes it to transactions after the commit
+        ledgerOutboxRepository.save(LedgerOutboxEntry.builder()
+                .userId(savedBooking.getUser().getId())
+                .bookingId(savedBooking.getId())
                 .bookingReference(savedBooking.getBookingReference())
                 .transactionType(TransactionType.PAYMENT)
-                .amount(totalAmount)
-                .paymentMethod(request.getPaymentMethod())
-                .status(TransactionStatus.SUCCESS)
-                .build();
-        transactionRepository.save(transaction);
-
-        return convertToResponse(savedBooking);
+                .amount(savedBooking.getTotalAmount())
+                .paymentMethod(savedBooking.getPaymentMethod())
+                .build());
+        return savedBooking;
     }
 
     @Transactional
@@ -168,19 +338,39 @@ public class BookingService {
         }
 
         Booking confirmedBooking = bookingRepository.save(booking);
-
-        return convertToResponse(confirmedBooking);
+        bookingSchedulerService.cancelExpiry(bookingId);
+        dashboardMetricsService.bookingChanged(BookingStatus.PENDING_PAYMENT, BookingStatus.CONFIRMED,
+                confirmedBooking.getTotalAmount());
+        bookingFactStore.statusChanged(bookingId, BookingStatus.CONFIRMED);
+
+        BookingResponseDTO response = convertToResponse(confirmedBooking);
+        idempotencyService.recordResponse(response);
+        return response;
     }
 
     @Transactional(readOnly = true)
     public List<BookingResponseDTO> getUserBookings(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
-        List<Booking> bookings = bookingRepository.findByUserIdOrderByBookedAtDesc(userPrincipal.getId());
+        return convertToResponses(bookingRepository.findSummariesByUserId(userPrincipal.getId()));
+    }
 
-        return bookings.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    // One page of the user's bookings, newest first, after the cursor row or from the start without one
+    @Transactional(readOnly = true)
+    public PageCursor.Page<BookingResponseDTO> getUserBookings(Authentication authentication, String cursor, int limit) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        PageRequest firstRows = PageRequest.of(0, limit + 1);
+
+        List<BookingSummaryDTO> rows;
+        if (cursor == null) {
+            rows = bookingRepository.findSummariesByUserId(userPrincipal.getId(), firstRows);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = bookingRepository.findSummariesByUserIdAfter(
+                    userPrincipal.getId(), after.dateTimeKey(), after.id(), firstRows);
+        }
+        return PageCursor.page(rows, limit, BookingSummaryDTO::getBookedAt, BookingSummaryDTO::getId)
+                .map(this::convertToResponses);
     }
 
     @Transactional(readOnly = true)
@@ -206,6 +396,37 @@ public class BookingService {
         return convertToResponse(booking);
     }
 
+    /**
+     * Sets a booking's status on an admin's behalf. A booking moving into CONFIRMED queues a PAYMENT ledger
+     * row and one moving out of it a REFUND row, as booking and cancelling do, so the ledger and the revenue
+     * rollup follow the change.
+     */
+    @Transactional
+    public void updateStatus(Long bookingId, BookingStatus newStatus) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+        BookingStatus previousStatus = booking.getBookingStatus();
+        booking.setBookingStatus(newStatus);
+        if (newStatus == BookingStatus.CONFIRMED && booking.getConfirmedAt() == null) {
+            booking.setConfirmedAt(LocalDateTime.now());
+        }
+        bookingRepository.save(booking);
+        dashboardMetricsService.bookingChanged(previousStatus, newStatus, booking.getTotalAmount());
+        bookingFactStore.statusChanged(bookingId, newStatus);
+
+        boolean wasConfirmed = previousStatus == BookingStatus.CONFIRMED;
+        if (wasConfirmed != (newStatus == BookingStatus.CONFIRMED)) {
+            ledgerOutboxRepository.save(LedgerOutboxEntry.builder()
+                    .userId(booking.getUser().getId())
+                    .bookingId(booking.getId())
+                    .bookingReference(booking.getBookingReference())
+                    .transactionType(wasConfirmed ? TransactionType.REFUND : TransactionType.PAYMENT)
+                    .amount(booking.getTotalAmount())
+                    .paymentMethod(booking.getPaymentMethod())
+                    .build());
+        }
+    }
+
     @Transactional
     public void cancelBooking(Long id, Authentication authentication) {
         log.info("Cancellation request for booking ID: {}", id);
@@ -228,27 +449,34 @@ public class BookingService {
 
         // Release seats
         PriceTier priceTier = booking.getPriceTier();
-        priceTier.setAvailableSeats(priceTier.getAvailableSeats() + booking.getNumTickets());
-        priceTierRepository.save(priceTier);
-
-        // Release seat reservations
-        for (SeatReservation reservation : booking.getSeatReservations()) {
-            reservation.setReservationStatus(ReservationStatus.RELEASED);
+        if (booking.getEvent().getBookingMode() == BookingMode.IN_MEMORY) {
+            seatInventoryService.releaseOnCommit(priceTier, booking.getNumTickets());
+        } else {
+            // Relative update, so bookings committed on the tier meanwhile are never overwritten
+            priceTierRepository.adjustAvailableSeats(priceTier.getId(), booking.getNumTickets());
+            seatInventoryService.restoreOnCommit(priceTier, booking.getNumTickets());
         }
+        tierAvailabilityService.seatsChanged(booking.getEvent().getId(), priceTier.getId());
+
+        // Release seat reservations; the rows are deleted so the seats can be reserved again
+        seatOccupancyService.releaseOnCommit(booking.getEvent(), booking.getSeatReservations().stream()
+                .map(SeatReservation::getSeatNumber)
+                .collect(Collectors.toList()));
+        booking.getSeatReservations().clear();
 
         bookingRepository.save(booking);
+        dashboardMetricsService.bookingChanged(BookingStatus.CONFIRMED, BookingStatus.CANCELLED, booking.getTotalAmount());
+        bookingFactStore.statusChanged(booking.getId(), BookingStatus.CANCELLED);
         log.info("Booking cancelled successfully - Reference: {}, Refund amount: {}",
                 booking.getBookingReference(), booking.getTotalAmount());
 
-        // Create refund transaction
-        Transaction refundTransaction = Transaction.builder()
-                .user(booking.getUser())
-                .booking(booking)
+        // Queue the refund ledger row
+        ledgerOutboxRepository.save(LedgerOutboxEntry.builder()
+                .userId(booking.getUser().getId())
+                .bookingId(booking.getId())
                 .transactionType(TransactionType.REFUND)
                 .amount(booking.getTotalAmount())
-                .status(TransactionStatus.SUCCESS)
-                .build();
-        transactionRepository.save(refundTransaction);
+                .build());
     }
 
     private BookingResponseDTO convertToResponse(Booking booking) {
@@ -275,4 +503,42 @@ public class BookingService {
                 .seatNumbers(seatNumbers)
                 .build();
     }
+
+    // Two statements whatever the number of bookings: the rows, then all of their seats
+    private List<BookingResponseDTO> convertToResponses(List<BookingSummaryDTO> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<String>> seatsByBooking = new HashMap<>();
+        List<Long> bookingIds = bookings.stream().map(BookingSummaryDTO::getId).toList();
+        for (Object[] row : seatReservationRepository.findBookingSeatNumbers(bookingIds)) {
+            seatsByBooking.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        return bookings.stream()
+                .map(booking -> convertToResponse(booking, seatsByBooking.getOrDefault(booking.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private BookingResponseDTO convertToResponse(BookingSummaryDTO booking, List<String> seatNumbers) {
+        return BookingResponseDTO.builder()
+                .id(booking.getId())
+                .bookingReference(booking.getBookingReference())
+                .userId(booking.getUserId())
+                .userEmail(booking.getUserEmail())
+                .eventId(booking.getEventId())
+                .eventName(booking.getEventName())
+                .tierName(booking.getTierName())
+                .numTickets(booking.getNumTickets())
+                .totalAmount(booking.getTotalAmount())
+                .bookingStatus(booking.getBookingStatus())
+                .paymentMethod(booking.getPaymentMethod())
+                .paymentStatus(booking.getPaymentStatus())
+                .bookedAt(booking.getBookedAt())
+                .confirmedAt(booking.getConfirmedAt())
+                .expiresAt(booking.getExpiresAt())
+                .seatNumbers(seatNumbers)
+                .build();
+    }
 }
@@ -0,0 +1,167 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.BookingStatus;
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.entity.EventStatus;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking counts per status, confirmed revenue and event counts per status for the admin dashboard, kept up
+ * to date from the booking and event state transitions so reading them costs the same however big the tables
+ * get. Transitions are applied once their transaction commits. A periodic reconcile against grouped counts
+ * corrects any drift, such as from rows changed outside the application.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardMetricsService {
+
+    private final BookingRepository bookingRepository;
+    private final EventRepository eventRepository;
+
+    private final Map<BookingStatus, AtomicLong> bookings = counters(BookingStatus.class);
+    private final Map<EventStatus, AtomicLong> events = counters(EventStatus.class);
+    private final AtomicLong revenueCents = new AtomicLong(); // Total amount of confirmed bookings
+
+    // A booking was created (from is null) or moved between statuses
+    public void bookingChanged(BookingStatus from, BookingStatus to, BigDecimal amount) {
+        long cents = toCents(amount);
+        TransactionCallbacks.afterCommit(() -> apply(from, to, 1, cents));
+    }
+
+    // Bulk transitions between unconfirmed statuses, such as the expiry sweep, which leave revenue alone
+    public void bookingsChanged(BookingStatus from, BookingStatus to, int count) {
+        if (from == BookingStatus.CONFIRMED || to == BookingStatus.CONFIRMED) {
+            throw new IllegalArgumentException("Bulk transitions of confirmed bookings need their amounts");
+        }
+        TransactionCallbacks.afterCommit(() -> apply(from, to, count, 0));
+    }
+
+    // An event was created (from is null) or moved between statuses
+    public void eventChanged(EventStatus from, EventStatus to) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (from != null) {
+                events.get(from).decrementAndGet();
+            }
+            events.get(to).incrementAndGet();
+        });
+    }
+
+    // Call before deleting the event: its bookings are deleted with it, so they are counted out as well
+    public void eventDeleted(Event event) {
+        EventStatus status = event.getStatus();
+        List<Object[]> deletedBookings = bookingRepository.summarizeByStatusForEvent(event.getId());
+        TransactionCallbacks.afterCommit(() -> {
+            events.get(status).decrementAndGet();
+            for (Object[] row : deletedBookings) {
+                BookingStatus bookingStatus = (BookingStatus) row[0];
+                long cents = bookingStatus == BookingStatus.CONFIRMED ? toCents((BigDecimal) row[2]) : 0;
+                apply(bookingStatus, null, (Long) row[1], cents);
+            }
+        });
+    }
+
+    public Snapshot snapshot() {
+        Map<BookingStatus, Long> bookingCounts = new EnumMap<>(BookingStatus.class);
+        bookings.forEach((status, count) -> bookingCounts.put(status, count.get()));
+        Map<EventStatus, Long> eventCounts = new EnumMap<>(EventStatus.class);
+        events.forEach((status, count) -> eventCounts.put(status, count.get()));
+        return new Snapshot(bookingCounts, eventCounts, BigDecimal.valueOf(revenueCents.get(), 2));
+    }
+
+    /**
+     * Resets the counters to grouped counts from the DB. Transitions committing while the queries run may be
+     * counted twice or not at all until the next reconcile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.dashboard.reconcile-ms:300000}", initialDelayString = "${booking.dashboard.reconcile-ms:300000}")
+    public void reconcile() {
+        Map<BookingStatus, Long> bookingCounts = new EnumMap<>(BookingStatus.class);
+        long cents = 0;
+        for (Object[] row : bookingRepository.summarizeByStatus()) {
+            BookingStatus status = (BookingStatus) row[0];
+            bookingCounts.put(status, (Long) row[1]);
+            if (status == BookingStatus.CONFIRMED) {
+                cents = toCents((BigDecimal) row[2]);
+            }
+        }
+        Map<EventStatus, Long> eventCounts = new EnumMap<>(EventStatus.class);
+        for (Object[] row : eventRepository.countByStatus()) {
+            eventCounts.put((EventStatus) row[0], (Long) row[1]);
+        }
+
+        long drift = Math.abs(revenueCents.getAndSet(cents) - cents);
+        for (Map.Entry<BookingStatus, AtomicLong> entry : bookings.entrySet()) {
+            long actual = bookingCounts.getOrDefault(entry.getKey(), 0L);
+            drift += Math.abs(entry.getValue().getAndSet(actual) - actual);
+        }
+        for (Map.Entry<EventStatus, AtomicLong> entry : events.entrySet()) {
+            long actual = eventCounts.getOrDefault(entry.getKey(), 0L);
+            drift += Math.abs(entry.getValue().getAndSet(actual) - actual);
+        }
+        if (drift > 0) {
+            log.info("Dashboard counters reconciled, corrected a drift of {}", drift);
+        }
+    }
+
+    private void apply(BookingStatus from, BookingStatus to, long count, long cents) {
+        if (from != null) {
+            bookings.get(from).addAndGet(-count);
+            if (from == BookingStatus.CONFIRMED) {
+                revenueCents.addAndGet(-cents);
+            }
+        }
+        if (to != null) {
+            bookings.get(to).addAndGet(count);
+            if (to == BookingStatus.CONFIRMED) {
+                revenueCents.addAndGet(cents);
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private static <S extends Enum<S>> Map<S, AtomicLong> counters(Class<S> statuses) {
+        Map<S, AtomicLong> counters = new EnumMap<>(statuses);
+        for (S status : statuses.getEnumConstants()) {
+            counters.put(status, new AtomicLong());
+        }
+        return counters;
+    }
+
+    public record Snapshot(Map<BookingStatus, Long> bookings, Map<EventStatus, Long> events,
+                           BigDecimal confirmedRevenue) {
+
+        public long totalBookings() {
+            return bookings.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long totalEvents() {
+            return events.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long events(EventStatus... statuses) {
+            long count = 0;
+            for (EventStatus status : statuses) {
+                count += events.get(status);
+            }
+            return count;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.collegefest.booking.service;
 import com.collegefest.booking.dto.response.DashboardStatsResponse;
 import com.collegefest.booking.entity.BookingStatus;
 import com.collegefest.booking.entity.EventStatus;
-import com.collegefest.booking.repository.BookingRepository;
 import com.collegefest.booking.repository.EventRepository;
 import com.collegefest.booking.repository.UserRepository;
 import com.collegefest.booking.repository.VenueRepository;
@@ -12,7 +11,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Service
@@ -22,32 +20,28 @@ public class DashboardService {
 
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
-    private final BookingRepository bookingRepository;
     private final VenueRepository venueRepository;
+    private final DashboardMetricsService dashboardMetricsService;
 
     @Transactional(readOnly = true)
     public DashboardStatsResponse getDashboardStats() {
+        DashboardMetricsService.Snapshot metrics = dashboardMetricsService.snapshot();
         long totalUsers = userRepository.count();
-        long totalEvents = eventRepository.count();
-        long totalBookings = bookingRepository.count();
         long totalVenues = venueRepository.count();
 
         // Count active events (upcoming and open for booking)
-        long activeEvents = eventRepository.findByStatusAndEventDateAfter(
-                EventStatus.BOOKING_OPEN, LocalDateTime.now()).size();
-
-        // Count confirmed bookings
-        long confirmedBookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getBookingStatus() == BookingStatus.CONFIRMED)
-                .count();
+        long activeEvents = eventRepository.countByStatusAndEventDateAfter(
+                EventStatus.BOOKING_OPEN, LocalDateTime.now());
 
         return DashboardStatsResponse.builder()
                 .totalUsers(totalUsers)
-                .totalEvents(totalEvents)
-                .totalBookings(totalBookings)
+                .totalEvents(metrics.totalEvents())
+                .totalBookings(metrics.totalBookings())
                 .totalVenues(totalVenues)
                 .activeEvents(activeEvents)
-                .totalRevenue(BigDecimal.ZERO) // Would need to calculate from transactions
+                .confirmedBookings(metrics.bookings().get(BookingStatus.CONFIRMED))
+                .pendingBookings(metrics.bookings().get(BookingStatus.PENDING_PAYMENT))
+                .totalRevenue(metrics.confirmedRevenue())
                 .build();
     }
 }
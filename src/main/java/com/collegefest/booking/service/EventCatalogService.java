@@ -0,0 +1,230 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.EventResponseDTO;
+import com.collegefest.booking.dto.response.PriceTierResponseDTO;
+import com.collegefest.booking.dto.response.VenueResponseDTO;
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.entity.EventStatus;
+import com.collegefest.booking.entity.EventType;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.util.PageCursor;
+import com.collegefest.booking.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of all events with their venues and price tiers, so the event listings are
+ * served without touching the DB. The snapshot is rebuilt with one query and swapped in whole after every
+ * committed event, tier or venue change, and periodically so tier seat counts stay fresh.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventCatalogService {
+
+    private static final Comparator<EventResponseDTO> BY_DATE =
+            Comparator.comparing(EventResponseDTO::getEventDate).thenComparing(EventResponseDTO::getId);
+
+    private final EventRepository eventRepository;
+
+    // Replaced, never modified; readers use whichever snapshot they got
+    private volatile Catalog catalog;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    // A lock, not a monitor: rebuilds run JDBC, also on request threads that may be virtual
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private ExecutorService refresher;
+
+    @PostConstruct
+    void init() {
+        // Own thread, so a rebuild after a commit reads through a fresh persistence context
+        refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Events matching the filters, each of which is optional.
+     *
+     * @param upcomingOnly leave out events that have already taken place
+     */
+    public List<EventResponseDTO> getEvents(EventType eventType, EventStatus status, boolean upcomingOnly) {
+        LocalDateTime now = LocalDateTime.now();
+        return catalog().events().stream()
+                .filter(event -> eventType == null || event.getEventType() == eventType)
+                .filter(event -> status == null || event.getStatus() == status)
+                .filter(event -> !upcomingOnly || event.getEventDate().isAfter(now))
+                .toList();
+    }
+
+    /**
+     * One page of the events matching the filters in (eventDate, id) order, after the cursor event or from
+     * the start without one. The page start is a binary search over the date-ordered copy, so deep pages
+     * cost the same as the first.
+     */
+    public PageCursor.Page<EventResponseDTO> getEvents(EventType eventType, EventStatus status, boolean upcomingOnly,
+                                                      String cursor, int limit) {
+        List<EventResponseDTO> byDate = catalog().byDate();
+        int from = 0;
+        if (cursor != null) {
+            PageCursor after = PageCursor.decode(cursor);
+            from = firstAfter(byDate, after.dateTimeKey(), after.id());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<EventResponseDTO> rows = new ArrayList<>(limit + 1);
+        for (int i = from; i < byDate.size() && rows.size() <= limit; i++) {
+            EventResponseDTO event = byDate.get(i);
+            if ((eventType == null || event.getEventType() == eventType)
+                    && (status == null || event.getStatus() == status)
+                    && (!upcomingOnly || event.getEventDate().isAfter(now))) {
+                rows.add(event);
+            }
+        }
+        return PageCursor.page(rows, limit, EventResponseDTO::getEventDate, EventResponseDTO::getId);
+    }
+
+    public Optional<EventResponseDTO> getEvent(Long id) {
+        return Optional.ofNullable(catalog().byId().get(id));
+    }
+
+    // Call inside the transaction that changes an event, tier or venue; the catalog is rebuilt after it commits
+    public void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(() -> {
+            if (refreshQueued.compareAndSet(false, true)) {
+                refresher.execute(this::refresh);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.catalog.refresh-ms:5000}", initialDelayString = "${booking.catalog.refresh-ms:5000}")
+    public void refreshNow() {
+        refresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public EventResponseDTO toResponse(Event event) {
+        VenueResponseDTO venueDTO = VenueResponseDTO.builder()
+                .id(event.getVenue().getId())
+                .venueName(event.getVenue().getVenueName())
+                .address(event.getVenue().getAddress())
+                .totalCapacity(event.getVenue().getTotalCapacity())
+                .hasNumberedSeats(event.getVenue().getHasNumberedSeats())
+                .facilities(event.getVenue().getFacilities())
+                .build();
+
+        List<PriceTierResponseDTO> priceTierDTOs = event.getPriceTiers().stream()
+                .map(tier -> PriceTierResponseDTO.builder()
+                        .id(tier.getId())
+                        .tierName(tier.getTierName())
+                        .price(tier.getPrice())
+                        .totalSeats(tier.getTotalSeats())
+                        .availableSeats(tier.getAvailableSeats())
+                        .seatRangeStart(tier.getSeatRangeStart())
+                        .seatRangeEnd(tier.getSeatRangeEnd())
+                        .colorCode(tier.getColorCode())
+                        .build())
+                .collect(Collectors.toList());
+
+        return EventResponseDTO.builder()
+                .id(event.getId())
+                .eventName(event.getEventName())
+                .description(event.getDescription())
+                .eventType(event.getEventType())
+                .venue(venueDTO)
+                .eventDate(event.getEventDate())
+                .durationMinutes(event.getDurationMinutes())
+                .bannerImageUrl(event.getBannerImageUrl())
+                .organizerName(event.getOrganizerName())
+                .maxCapacity(event.getMaxCapacity())
+                .bookingOpensAt(event.getBookingOpensAt())
+                .bookingClosesAt(event.getBookingClosesAt())
+                .status(event.getStatus())
+                .bookingMode(event.getBookingMode())
+                .admissionRatePerSecond(event.getAdmissionRatePerSecond())
+                .priceTiers(priceTierDTOs)
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
+    private Catalog catalog() {
+        Catalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            // Requests waiting on a cold start use the catalog the first one built
+            current = catalog;
+            return current != null ? current : refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Serialized, so an older rebuild can never replace a newer one
+    private Catalog refresh() {
+        refreshLock.lock();
+        try {
+            refreshQueued.set(false);
+            List<EventResponseDTO> events = eventRepository.findAllWithVenueAndPriceTiers().stream()
+                    .map(this::toResponse)
+                    .toList();
+            Map<Long, EventResponseDTO> byId = events.stream()
+                    .collect(Collectors.toUnmodifiableMap(EventResponseDTO::getId, event -> event));
+            List<EventResponseDTO> byDate = events.stream().sorted(BY_DATE).toList();
+            Catalog rebuilt = new Catalog(events, byId, byDate);
+            catalog = rebuilt;
+            log.debug("Event catalog rebuilt with {} events", events.size());
+            return rebuilt;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Index of the first event ordered after (eventDate, id)
+    private static int firstAfter(List<EventResponseDTO> byDate, LocalDateTime eventDate, long id) {
+        int low = 0;
+        int high = byDate.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            EventResponseDTO event = byDate.get(mid);
+            int order = event.getEventDate().compareTo(eventDate);
+            if (order < 0 || (order == 0 && event.getId() <= id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // The DTOs are shared by every reader and treated as read-only; byDate holds the same events in page order
+    private record Catalog(List<EventResponseDTO> events, Map<Long, EventResponseDTO> byId,
+                           List<EventResponseDTO> byDate) {
+    }
+}
@@ -2,21 +2,19 @@ package com.collegefest.booking.service;
 
 import com.collegefest.booking.dto.request.EventRequestDTO;
 import com.collegefest.booking.dto.response.EventResponseDTO;
-import com.collegefest.booking.dto.response.PriceTierResponseDTO;
-import com.collegefest.booking.dto.response.VenueResponseDTO;
 import com.collegefest.booking.entity.*;
 import com.collegefest.booking.exception.ResourceNotFoundException;
 import com.collegefest.booking.repository.EventRepository;
 import com.collegefest.booking.repository.PriceTierRepository;
 import com.collegefest.booking.repository.VenueRepository;
+import com.collegefest.booking.util.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +24,14 @@ public class EventService {
         private final EventRepository eventRepository;
         private final VenueRepository venueRepository;
         private final PriceTierRepository priceTierRepository;
+        private final SeatInventoryService seatInventoryService;
+        private final BookingSequencer bookingSequencer;
+        private final BookingModeService bookingModeService;
+        private final SeatOccupancyService seatOccupancyService;
+        private final WaitingRoomService waitingRoomService;
+        private final EventCatalogService eventCatalogService;
+        private final DashboardMetricsService dashboardMetricsService;
+        private final BookingFactStore bookingFactStore;
 
         @Transactional
         public EventResponseDTO createEvent(EventRequestDTO request) {
@@ -47,9 +53,14 @@ public class EventService {
                                 .bookingOpensAt(request.getBookingOpensAt())
                                 .bookingClosesAt(request.getBookingClosesAt())
                                 .status(EventStatus.DRAFT)
+                                .bookingMode(request.getBookingMode() != null
+                                                ? request.getBookingMode()
+                                                : BookingMode.PESSIMISTIC)
+                                .admissionRatePerSecond(request.getAdmissionRatePerSecond())
                                 .build();
 
                 Event savedEvent = eventRepository.save(event);
+                dashboardMetricsService.eventChanged(null, savedEvent.getStatus());
                 log.info("Event created with ID: {} - {}", savedEvent.getId(), savedEvent.getEventName());
 
                 // Create price tiers if provided
@@ -61,43 +72,37 @@ public class EventService {
                                                 .price(tierDTO.getPrice())
                                                 .totalSeats(tierDTO.getTotalSeats())
                                                 .availableSeats(tierDTO.getTotalSeats())
+                                                .seatRangeStart(tierDTO.getSeatRangeStart())
+                                                .seatRangeEnd(tierDTO.getSeatRangeEnd())
                                                 .colorCode(tierDTO.getColorCode())
                                                 .build();
                                 priceTierRepository.save(priceTier);
                         });
                 }
+                eventCatalogService.refreshAfterCommit();
 
                 return convertToDTO(savedEvent);
         }
 
-        @Transactional(readOnly = true)
+        // Listings are served from the in-memory event catalog
         public List<EventResponseDTO> getAllEvents() {
-                return eventRepository.findAll().stream()
-                                .map(this::convertToDTO)
-                                .collect(Collectors.toList());
+                return eventCatalogService.getEvents(null, null, false);
         }
 
-        @Transactional(readOnly = true)
         public List<EventResponseDTO> getPublishedEvents() {
-                return eventRepository.findByStatusAndEventDateAfter(EventStatus.BOOKING_OPEN, LocalDateTime.now())
-                                .stream()
-                                .map(this::convertToDTO)
-                                .collect(Collectors.toList());
+                return eventCatalogService.getEvents(null, EventStatus.BOOKING_OPEN, true);
         }
 
         @Transactional(readOnly = true)
         public EventResponseDTO getEventById(Long id) {
-                Event event = eventRepository.findByIdWithPriceTiers(id)
-                                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
-                return convertToDTO(event);
+                return eventCatalogService.getEvent(id)
+                                .orElseGet(() -> convertToDTO(eventRepository.findByIdWithPriceTiers(id)
+                                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                                "Event not found with id: " + id))));
         }
 
-        @Transactional(readOnly = true)
         public List<EventResponseDTO> getEventsByType(EventType eventType) {
-                return eventRepository.findByEventTypeAndStatus(eventType, EventStatus.BOOKING_OPEN)
-                                .stream()
-                                .map(this::convertToDTO)
-                                .collect(Collectors.toList());
+                return eventCatalogService.getEvents(eventType, EventStatus.BOOKING_OPEN, false);
         }
 
         @Transactional
@@ -112,6 +117,9 @@ public class EventService {
                 event.setEventName(request.getEventName());
                 event.setDescription(request.getDescription());
                 event.setEventType(request.getEventType());
+                if (!venue.getId().equals(event.getVenue().getId())) {
+                        seatOccupancyService.evict(event.getId());
+                }
                 event.setVenue(venue);
                 event.setEventDate(request.getEventDate());
                 event.setDurationMinutes(request.getDurationMinutes());
@@ -120,8 +128,30 @@ public class EventService {
                 event.setMaxCapacity(request.getMaxCapacity());
                 event.setBookingOpensAt(request.getBookingOpensAt());
                 event.setBookingClosesAt(request.getBookingClosesAt());
+                BookingMode previousMode = event.getBookingMode();
+                if (request.getBookingMode() != null) {
+                        event.setBookingMode(request.getBookingMode());
+                }
+                boolean admissionRateChanged =
+                                !Objects.equals(request.getAdmissionRatePerSecond(), event.getAdmissionRatePerSecond());
+                event.setAdmissionRatePerSecond(request.getAdmissionRatePerSecond());
 
                 Event updatedEvent = eventRepository.save(event);
+                if (admissionRateChanged) {
+                        // After the commit, so a request in between cannot rebuild the room from the old rate
+                        Long eventId = updatedEvent.getId();
+                        TransactionCallbacks.afterCommit(() -> waitingRoomService.evict(eventId));
+                }
+                if (previousMode != updatedEvent.getBookingMode()) {
+                        // Once the switch is committed, drain the sequencer and hand in-memory tier counts back to the DB
+                        Long eventId = updatedEvent.getId();
+                        TransactionCallbacks.afterCommit(() -> {
+                                bookingModeService.evict(eventId);
+                                bookingSequencer.evict(eventId);
+                                seatInventoryService.evictEvent(eventId);
+                        });
+                }
+                eventCatalogService.refreshAfterCommit();
                 return convertToDTO(updatedEvent);
         }
 
@@ -131,8 +161,11 @@ public class EventService {
                 Event event = eventRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
 
+                EventStatus previousStatus = event.getStatus();
                 event.setStatus(status);
                 Event updatedEvent = eventRepository.save(event);
+                dashboardMetricsService.eventChanged(previousStatus, status);
+                eventCatalogService.refreshAfterCommit();
                 return convertToDTO(updatedEvent);
         }
 
@@ -141,47 +174,14 @@ public class EventService {
                 log.info("Deleting event with ID: {}", id);
                 Event event = eventRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+                dashboardMetricsService.eventDeleted(event);
+                bookingFactStore.eventDeleted(event.getId());
                 eventRepository.delete(event);
+                eventCatalogService.refreshAfterCommit();
                 log.info("Event deleted successfully - ID: {}, Name: {}", id, event.getEventName());
         }
 
         private EventResponseDTO convertToDTO(Event event) {
-                VenueResponseDTO venueDTO = VenueResponseDTO.builder()
-                                .id(event.getVenue().getId())
-                                .venueName(event.getVenue().getVenueName())
-                                .address(event.getVenue().getAddress())
-                                .totalCapacity(event.getVenue().getTotalCapacity())
-                                .hasNumberedSeats(event.getVenue().getHasNumberedSeats())
-                                .facilities(event.getVenue().getFacilities())
-                                .build();
-
-                List<PriceTierResponseDTO> priceTierDTOs = event.getPriceTiers().stream()
-                                .map(tier -> PriceTierResponseDTO.builder()
-                                                .id(tier.getId())
-                                                .tierName(tier.getTierName())
-                                                .price(tier.getPrice())
-                                                .totalSeats(tier.getTotalSeats())
-                                                .availableSeats(tier.getAvailableSeats())
-                                                .colorCode(tier.getColorCode())
-                                                .build())
-                                .collect(Collectors.toList());
-
-                return EventResponseDTO.builder()
-                                .id(event.getId())
-                                .eventName(event.getEventName())
-                                .description(event.getDescription())
-                                .eventType(event.getEventType())
-                                .venue(venueDTO)
-                                .eventDate(event.getEventDate())
-                                .durationMinutes(event.getDurationMinutes())
-                                .bannerImageUrl(event.getBannerImageUrl())
-                                .organizerName(event.getOrganizerName())
-                                .maxCapacity(event.getMaxCapacity())
-                                .bookingOpensAt(event.getBookingOpensAt())
-                                .bookingClosesAt(event.getBookingClosesAt())
-                                .status(event.getStatus())
-                                .priceTiers(priceTierDTOs)
-                                .createdAt(event.getCreatedAt())
-                                .build();
+                return eventCatalogService.toResponse(event);
         }
 }
@@ -0,0 +1,336 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.IdempotencyRecord;
+import com.collegefest.booking.entity.IdempotencyStatus;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.repository.IdempotencyRecordRepository;
+import com.collegefest.booking.util.TransactionCallbacks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored result of booking requests that carry an Idempotency-Key header. A request first claims
+ * its key by inserting a PENDING row under the unique (user, key) constraint; only the request that wins the
+ * insert runs the action, and the booking's own transaction stores the response in that row, so the booking
+ * and its key commit together. Requests that lose the insert wait for the stored response and replay it.
+ * Completed keys are kept in a bounded LRU cache in front of the idempotency_keys table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${booking.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${booking.idempotency.in-flight-timeout-ms:15000}")
+    private long inFlightTimeoutMs;
+
+    // A claim this old without a response belongs to a request that died before its booking committed
+    @Value("${booking.idempotency.pending-timeout-ms:120000}")
+    private long pendingTimeoutMs;
+
+    @Value("${booking.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    private Map<String, CachedResponse> cache;
+    private TransactionTemplate ownTransaction;
+    private final Map<String, CompletableFuture<BookingResponseDTO>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Claim> currentClaim = new ThreadLocal<>();
+
+    @PostConstruct
+    void init() {
+        // Access-ordered, so the least recently used key is dropped once the cache is full
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        // Claims and releases commit on their own, whatever transaction the caller is in
+        ownTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the action once per user and key. Later requests with the same key get the stored response, as
+     * long as they are for the same operation and payload. Failed actions are not stored and may be retried.
+     */
+    public BookingResponseDTO execute(Long userId, String key, String operation, Object request,
+                                      Supplier<BookingResponseDTO> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BookingException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = userId + ":" + key;
+        String requestHash = hash(operation, request);
+
+        CachedResponse cached = cache.get(cacheKey);
+        if (cached != null && !isExpired(cached.createdAt)) {
+            return cached.replay(operation, requestHash);
+        }
+
+        // Retries reaching this instance share one future, so only one of them polls the table
+        CompletableFuture<BookingResponseDTO> mine = new CompletableFuture<>();
+        CompletableFuture<BookingResponseDTO> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            BookingResponseDTO response = claimOrReplay(userId, key, cacheKey, operation, requestHash, action);
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * The claim of the request running on this thread, for actions that hand the booking to another thread.
+     */
+    public Claim currentClaim() {
+        return currentClaim.get();
+    }
+
+    /**
+     * Stores the response for the claim of the request running on this thread. Called from the booking's
+     * transaction; does nothing for requests without an Idempotency-Key.
+     */
+    public void recordResponse(BookingResponseDTO response) {
+        recordResponse(currentClaim.get(), response);
+    }
+
+    public void recordResponse(Claim claim, BookingResponseDTO response) {
+        if (claim == null) {
+            return;
+        }
+        idempotencyRecordRepository.complete(claim.recordId, serialize(response), IdempotencyStatus.COMPLETED);
+        TransactionCallbacks.afterCommit(() -> claim.recorded = true);
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private BookingResponseDTO claimOrReplay(Long userId, String key, String cacheKey, String operation,
+                                             String requestHash, Supplier<BookingResponseDTO> action) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(inFlightTimeoutMs);
+        while (true) {
+            Claim claim = tryClaim(userId, key, cacheKey, operation, requestHash);
+            if (claim != null) {
+                return runClaimed(claim, action);
+            }
+
+            // Another request holds the key, on this instance or another one
+            IdempotencyRecord record = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                    .orElseThrow(() -> new BookingException(
+                            "The first request with this Idempotency-Key failed and nothing was booked, please retry"));
+            if (isAbandoned(record)) {
+                // Expired, or claimed by a request that never finished: free it and compete for it again
+                ownTransaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteRecord(record.getId()));
+                continue;
+            }
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return remember(cacheKey, record).replay(operation, requestHash);
+            }
+            CachedResponse.checkSameRequest(record.getOperation(), record.getRequestHash(), operation, requestHash);
+            if (System.nanoTime() > deadline) {
+                throw new BookingException("A request with this Idempotency-Key is still being processed");
+            }
+            pause();
+        }
+    }
+
+    // Inserts the PENDING row in its own transaction; null when the key is already taken
+    private Claim tryClaim(Long userId, String key, String cacheKey, String operation, String requestHash) {
+        try {
+            IdempotencyRecord record = ownTransaction.execute(status ->
+                    idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                            .userId(userId)
+                            .idempotencyKey(key)
+                            .operation(operation)
+                            .requestHash(requestHash)
+                            .status(IdempotencyStatus.PENDING)
+                            .responseBody("")
+                            .build()));
+            return new Claim(record.getId(), cacheKey, operation, requestHash);
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private BookingResponseDTO runClaimed(Claim claim, Supplier<BookingResponseDTO> action) {
+        BookingResponseDTO response;
+        currentClaim.set(claim);
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(claim);
+            throw e;
+        } finally {
+            currentClaim.remove();
+        }
+        if (!claim.recorded) {
+            // The action did not store its response in a booking transaction, so store it on its own
+            ownTransaction.executeWithoutResult(status -> recordResponse(claim, response));
+        }
+        cache.put(claim.cacheKey, new CachedResponse(claim.operation, claim.requestHash, response, LocalDateTime.now()));
+        return response;
+    }
+
+    // A failed action rolled back its booking together with the response, so the key can be used again
+    private void release(Claim claim) {
+        try {
+            ownTransaction.executeWithoutResult(status ->
+                    idempotencyRecordRepository.deleteByIdAndStatus(claim.recordId, IdempotencyStatus.PENDING));
+        } catch (RuntimeException e) {
+            log.error("Could not release idempotency key {}: {}", claim.cacheKey, e.getMessage());
+        }
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record) {
+        if (record.getStatus() == IdempotencyStatus.PENDING) {
+            return record.getCreatedAt().isBefore(LocalDateTime.now().minus(Duration.ofMillis(pendingTimeoutMs)));
+        }
+        return isExpired(record.getCreatedAt());
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Request was interrupted");
+        }
+    }
+
+    private String serialize(BookingResponseDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response for idempotency key", e);
+        }
+    }
+
+    private CachedResponse remember(String cacheKey, IdempotencyRecord record) {
+        try {
+            CachedResponse cached = new CachedResponse(record.getOperation(), record.getRequestHash(),
+                    objectMapper.readValue(record.getResponseBody(), BookingResponseDTO.class),
+                    record.getCreatedAt() != null ? record.getCreatedAt() : LocalDateTime.now());
+            cache.put(cacheKey, cached);
+            return cached;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt stored response for idempotency key " + record.getIdempotencyKey(), e);
+        }
+    }
+
+    private BookingResponseDTO await(CompletableFuture<BookingResponseDTO> running) {
+        try {
+            return running.get(inFlightTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BookingException("Request failed: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new BookingException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Request was interrupted");
+        }
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt.isBefore(LocalDateTime.now().minus(Duration.ofHours(retentionHours)));
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private record CachedResponse(String operation, String requestHash, BookingResponseDTO response,
+                                  LocalDateTime createdAt) {
+
+        BookingResponseDTO replay(String requestedOperation, String requestedHash) {
+            checkSameRequest(operation, requestHash, requestedOperation, requestedHash);
+            return response;
+        }
+
+        static void checkSameRequest(String operation, String requestHash, String requestedOperation,
+                                     String requestedHash) {
+            if (!operation.equals(requestedOperation) || !requestHash.equals(requestedHash)) {
+                throw new BookingException("Idempotency-Key was already used for a different request");
+            }
+        }
+    }
+
+    /**
+     * A key won by the request running the action; its response is stored through {@link #recordResponse}.
+     */
+    public static final class Claim {
+        private final Long recordId;
+        private final String cacheKey;
+        private final String operation;
+        private final String requestHash;
+        private volatile boolean recorded; // Set once a transaction storing the response has committed
+
+        private Claim(Long recordId, String cacheKey, String operation, String requestHash) {
+            this.recordId = recordId;
+            this.cacheKey = cacheKey;
+            this.operation = operation;
+            this.requestHash = requestHash;
+        }
+    }
+}
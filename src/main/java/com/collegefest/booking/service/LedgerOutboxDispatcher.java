@@ -0,0 +1,144 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.LedgerOutboxEntry;
+import com.collegefest.booking.entity.Transaction;
+import com.collegefest.booking.entity.TransactionStatus;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.LedgerOutboxRepository;
+import com.collegefest.booking.repository.RevenueDailyRepository;
+import com.collegefest.booking.repository.TransactionRepository;
+import com.collegefest.booking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the transactions ledger from the ledger_outbox table. Booking and cancellation only insert a small
+ * outbox row; this dispatcher turns pending rows into {@link Transaction} rows in batches and marks them as
+ * dispatched in the same database transaction, so every entry reaches the ledger exactly once even if the
+ * application stops between the booking commit and the dispatch. The daily revenue rollup is updated from the
+ * same batches, see {@link RevenueRollupService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerOutboxDispatcher {
+
+    private final LedgerOutboxRepository ledgerOutboxRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final RevenueDailyRepository revenueDailyRepository;
+    private final RevenueRollupService revenueRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Held across whole dispatches and rebuilds, which run JDBC, so a lock rather than a monitor a virtual
+    // thread would pin
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    @Value("${booking.ledger-outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.ledger-outbox.retention-hours:72}")
+    private long retentionHours;
+
+    /**
+     * Dispatches pending entries until the outbox is empty; also picks up whatever was left behind by a
+     * previous run of the application.
+     */
+    @Scheduled(fixedDelayString = "${booking.ledger-outbox.dispatch-interval-ms:500}")
+    public int dispatch() {
+        dispatchLock.lock();
+        try {
+            int total = 0;
+            try {
+                int dispatched;
+                do {
+                    dispatched = transactionTemplate.execute(status -> dispatchBatch());
+                    total += dispatched;
+                } while (dispatched == batchSize);
+            } catch (RuntimeException e) {
+                // Nothing of the failed batch was committed, the next run retries it
+                log.error("Ledger outbox dispatch failed after {} entries, will retry: {}", total, e.getMessage());
+            }
+            if (total > 0) {
+                log.debug("Dispatched {} ledger outbox entries", total);
+            }
+            return total;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    // Runs inside the caller's transaction
+    int dispatchBatch() {
+        List<LedgerOutboxEntry> entries = ledgerOutboxRepository.findPendingForDispatch(PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        // References only, the ledger rows need the foreign keys but not the loaded users or bookings
+        List<Transaction> transactions = entries.stream()
+                .map(entry -> Transaction.builder()
+                        .outboxId(entry.getId())
+                        .user(userRepository.getReferenceById(entry.getUserId()))
+                        .booking(entry.getBookingId() != null ? bookingRepository.getReferenceById(entry.getBookingId()) : null)
+                        .bookingReference(entry.getBookingReference())
+                        .transactionType(entry.getTransactionType())
+                        .amount(entry.getAmount())
+                        .paymentMethod(entry.getPaymentMethod())
+                        .status(TransactionStatus.SUCCESS)
+                        .build())
+                .toList();
+        transactionRepository.saveAll(transactions);
+        revenueRollupService.record(entries);
+        ledgerOutboxRepository.markDispatched(entries.stream().map(LedgerOutboxEntry::getId).toList(), LocalDateTime.now());
+        return entries.size();
+    }
+
+    /**
+     * Recomputes the revenue rollup of the bookings made from {@code from} to {@code to} from the ledger.
+     * Holds the dispatch lock so no batch lands between reading the ledger and writing the rollup; with
+     * several instances, dispatches on the others may still interleave and need another rebuild.
+     */
+    public int rebuildRevenue(LocalDate from, LocalDate to) {
+        dispatchLock.lock();
+        try {
+            return transactionTemplate.execute(status -> revenueRollupService.rebuild(from, to));
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    // Fills the rollup from the existing ledger the first time the application runs with it
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRevenue() {
+        if (revenueDailyRepository.count() == 0 && transactionRepository.count() > 0) {
+            rebuildRevenue(LocalDate.EPOCH, LocalDate.now());
+        }
+    }
+
+    public long pendingCount() {
+        return ledgerOutboxRepository.countByDispatchedAtIsNull();
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    @Transactional
+    public void purgeDispatched() {
+        int deleted = ledgerOutboxRepository.deleteDispatchedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} dispatched ledger outbox entries", deleted);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.LedgerOutboxEntry;
+import com.collegefest.booking.entity.RevenueDaily;
+import com.collegefest.booking.entity.TransactionType;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.RevenueDailyRepository;
+import com.collegefest.booking.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the revenue_daily rollup: payments less refunds per booking day, event and price tier, in minor
+ * units. The ledger outbox dispatcher records each batch it dispatches in the same transaction, so the
+ * rollup always matches the transactions ledger; {@link #rebuild} recomputes a date range from the ledger.
+ * Both run inside the caller's transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupService {
+
+    private final RevenueDailyRepository revenueDailyRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionRepository transactionRepository;
+
+    // Revenue is counted on the day the booking was made, so a refund lowers the day of its booking
+    void record(List<LedgerOutboxEntry> entries) {
+        List<Long> bookingIds = entries.stream()
+                .filter(entry -> isRevenue(entry.getTransactionType()) && entry.getBookingId() != null)
+                .map(LedgerOutboxEntry::getBookingId)
+                .distinct()
+                .toList();
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        Map<Long, RevenueKey> keys = new HashMap<>();
+        for (Object[] row : bookingRepository.findRevenueKeys(bookingIds)) {
+            LocalDateTime bookedAt = (LocalDateTime) row[1];
+            if (bookedAt != null) {
+                keys.put((Long) row[0], new RevenueKey(bookedAt.toLocalDate(), (Long) row[2], (Long) row[3]));
+            }
+        }
+
+        // Summed per key first, so each day, event and tier costs one statement per batch
+        Map<RevenueKey, Delta> deltas = new HashMap<>();
+        for (LedgerOutboxEntry entry : entries) {
+            RevenueKey key = entry.getBookingId() != null ? keys.get(entry.getBookingId()) : null;
+            if (key == null || !isRevenue(entry.getTransactionType())) {
+                continue;
+            }
+            int sign = entry.getTransactionType() == TransactionType.REFUND ? -1 : 1;
+            deltas.computeIfAbsent(key, k -> new Delta()).add(sign * toMinor(entry.getAmount()), sign);
+        }
+        deltas.forEach((key, delta) -> {
+            int updated = revenueDailyRepository.addToDay(key.date(), key.eventId(), key.priceTierId(),
+                    delta.amountMinor, delta.bookings);
+            if (updated == 0) {
+                // Another instance inserting the same key fails the unique constraint; the batch is retried
+                revenueDailyRepository.save(RevenueDaily.builder()
+                        .revenueDate(key.date())
+                        .eventId(key.eventId())
+                        .priceTierId(key.priceTierId())
+                        .amountMinor(delta.amountMinor)
+                        .bookingCount(delta.bookings)
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Replaces the rollup rows of the bookings made from {@code from} to {@code to}, both inclusive, with
+     * sums over the transactions ledger. Returns the number of rows written.
+     */
+    int rebuild(LocalDate from, LocalDate to) {
+        int deleted = revenueDailyRepository.deleteBetween(from, to);
+        List<RevenueDaily> rows = transactionRepository.summarizeRevenueByDay(TransactionType.PAYMENT,
+                        TransactionType.REFUND, from.atStartOfDay(), to.plusDays(1).atStartOfDay()).stream()
+                .map(row -> RevenueDaily.builder()
+                        .revenueDate((LocalDate) row[0])
+                        .eventId((Long) row[1])
+                        .priceTierId((Long) row[2])
+                        .amountMinor(toMinor((BigDecimal) row[3]))
+                        .bookingCount(((Number) row[4]).intValue())
+                        .build())
+                .toList();
+        revenueDailyRepository.saveAll(rows);
+        log.info("Rebuilt revenue rollup from {} to {}: replaced {} rows with {}", from, to, deleted, rows.size());
+        return rows.size();
+    }
+
+    private static boolean isRevenue(TransactionType type) {
+        return type == TransactionType.PAYMENT || type == TransactionType.REFUND;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private record RevenueKey(LocalDate date, Long eventId, Long priceTierId) {
+    }
+
+    private static class Delta {
+        private long amountMinor;
+        private int bookings;
+
+        void add(long amountMinor, int bookings) {
+            this.amountMinor += amountMinor;
+            this.bookings += bookings;
+        }
+    }
+}
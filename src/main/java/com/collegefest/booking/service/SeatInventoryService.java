@@ -0,0 +1,248 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.BookingMode;
+import com.collegefest.booking.entity.BookingStatus;
+import com.collegefest.booking.entity.PriceTier;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Seat counters for events in {@link BookingMode#IN_MEMORY} and {@link BookingMode#SEQUENCED} mode.
+ * Bookings are admitted or rejected against an atomic counter per price tier; committed changes
+ * are queued as deltas and written back to price_tiers in batches. Write-backs run in their own
+ * transaction, as they are also started from after-commit callbacks.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryService {
+
+    // Bookings in these states hold seats against their tier
+    private static final List<BookingStatus> SEAT_HOLDING_STATUSES =
+            List.of(BookingStatus.PENDING_PAYMENT, BookingStatus.CONFIRMED);
+
+    private final PriceTierRepository priceTierRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, TierCounter> counters = new ConcurrentHashMap<>();
+    // Not a monitor, as both holders write to the DB and a virtual thread must not pin its carrier meanwhile
+    private final ReentrantLock writeBackLock = new ReentrantLock();
+
+    /**
+     * Takes seats from the tier's counter without touching the DB. The seats are given back if the
+     * surrounding transaction rolls back, and the decrement is queued for write-behind once it commits.
+     */
+    public boolean tryAcquire(PriceTier priceTier, int seats) {
+        TierCounter counter = counterFor(priceTier);
+        if (!counter.tryTake(seats)) {
+            return false;
+        }
+        TransactionCallbacks.afterCommit(() -> addPending(priceTier.getId(), counter, -seats));
+        TransactionCallbacks.onRollback(() -> counter.available.addAndGet(seats));
+        return true;
+    }
+
+    // Returns seats to the tier once the surrounding transaction commits
+    public void releaseOnCommit(PriceTier priceTier, int seats) {
+        TierCounter counter = counterFor(priceTier);
+        TransactionCallbacks.afterCommit(() -> {
+            counter.available.addAndGet(seats);
+            addPending(priceTier.getId(), counter, seats);
+        });
+    }
+
+    /**
+     * Takes seats from the tier's counter for a caller that writes price_tiers itself, like the booking
+     * sequencer. Nothing is queued for write-behind; hand the seats back with {@link #unreserve} on failure.
+     */
+    public boolean reserve(PriceTier priceTier, int seats) {
+        return counterFor(priceTier).tryTake(seats);
+    }
+
+    public void unreserve(PriceTier priceTier, int seats) {
+        counterFor(priceTier).available.addAndGet(seats);
+    }
+
+    // Returns seats to an existing counter once the transaction commits, for callers that already updated price_tiers
+    public void restoreOnCommit(PriceTier priceTier, int seats) {
+        TierCounter counter = counters.get(priceTier.getId());
+        if (counter != null) {
+            TransactionCallbacks.afterCommit(() -> counter.available.addAndGet(seats));
+        }
+    }
+
+    public int availableSeats(PriceTier priceTier) {
+        return counterFor(priceTier).available.get();
+    }
+
+    // Live count of a tier that has a counter, or null when price_tiers is current for it
+    public Integer currentAvailableSeats(Long tierId) {
+        TierCounter counter = counters.get(tierId);
+        return counter != null ? counter.available.get() : null;
+    }
+
+    // Locked against eviction, so a failed flush never puts deltas back on a counter that was just evicted
+    @Scheduled(fixedDelayString = "${booking.inventory.flush-interval-ms:250}")
+    public void flush() {
+        writeBackLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            counters.forEach((tierId, counter) -> {
+                int delta = counter.pendingDelta.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(tierId, delta);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                writeBack(deltas);
+                log.debug("Flushed seat inventory for {} price tiers", deltas.size());
+            } catch (RuntimeException e) {
+                // Put the deltas back so the next flush retries them
+                deltas.forEach((tierId, delta) -> {
+                    TierCounter counter = counters.get(tierId);
+                    if (counter != null) {
+                        counter.pendingDelta.addAndGet(delta);
+                    }
+                });
+                log.error("Failed to flush seat inventory, will retry: {}", e.getMessage());
+            }
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the counters of an event and writes their queued deltas back, e.g. when it switches back to
+     * pessimistic booking. Bookings that took seats from a dropped counter and commit afterwards write their
+     * delta straight to price_tiers instead, see {@link #addPending}.
+     */
+    public void evictEvent(Long eventId) {
+        writeBackLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            counters.entrySet().removeIf(entry -> {
+                TierCounter counter = entry.getValue();
+                if (!counter.eventId.equals(eventId)) {
+                    return false;
+                }
+                int delta;
+                synchronized (counter) {
+                    counter.evicted = true;
+                    delta = counter.pendingDelta.getAndSet(0);
+                }
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                }
+                return true;
+            });
+            if (!deltas.isEmpty()) {
+                writeBack(deltas);
+            }
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    // Queues a committed change on the counter, or writes it right away once the counter has been evicted
+    private void addPending(Long tierId, TierCounter counter, int delta) {
+        synchronized (counter) {
+            if (!counter.evicted) {
+                counter.pendingDelta.addAndGet(delta);
+                return;
+            }
+        }
+        writeBack(Map.of(tierId, delta));
+    }
+
+    private void writeBack(Map<Long, Integer> deltas) {
+        TransactionTemplate writeBack = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        writeBack.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        writeBack.executeWithoutResult(status -> deltas.forEach(priceTierRepository::adjustAvailableSeats));
+    }
+
+    /**
+     * Rebuilds price_tiers.available_seats for in-memory events from the bookings table, which is always
+     * written synchronously. This repairs any decrements that were still queued when the app went down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        Map<Long, Long> heldByTier = new HashMap<>();
+        for (Object[] row : bookingRepository.sumTicketsByTierForBookingMode(BookingMode.IN_MEMORY, SEAT_HOLDING_STATUSES)) {
+            heldByTier.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        int corrected = 0;
+        for (PriceTier priceTier : priceTierRepository.findByEventBookingMode(BookingMode.IN_MEMORY)) {
+            int expected = (int) Math.max(0, priceTier.getTotalSeats() - heldByTier.getOrDefault(priceTier.getId(), 0L));
+            if (!Integer.valueOf(expected).equals(priceTier.getAvailableSeats())) {
+                log.warn("Reconciling price tier {}: available seats {} -> {}",
+                        priceTier.getId(), priceTier.getAvailableSeats(), expected);
+                priceTier.setAvailableSeats(expected);
+                corrected++;
+            }
+            counters.put(priceTier.getId(), new TierCounter(priceTier.getEvent().getId(), expected));
+        }
+        log.info("Seat inventory reconciled: {} tiers loaded, {} corrected", counters.size(), corrected);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private TierCounter counterFor(PriceTier priceTier) {
+        // A tier without a counter has no queued deltas, so its DB value is current
+        return counters.computeIfAbsent(priceTier.getId(),
+                id -> new TierCounter(priceTier.getEvent().getId(), priceTier.getAvailableSeats()));
+    }
+
+    private static final class TierCounter {
+        private final Long eventId;
+        private final AtomicInteger available;
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+        // Set under the counter's lock once it is no longer in the counters map
+        private boolean evicted;
+
+        private TierCounter(Long eventId, int available) {
+            this.eventId = eventId;
+            this.available = new AtomicInteger(available);
+        }
+
+        // Lock-free decrement that never goes below zero
+        private boolean tryTake(int seats) {
+            while (true) {
+                int current = available.get();
+                if (current < seats) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - seats)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
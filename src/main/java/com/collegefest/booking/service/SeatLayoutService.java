@@ -0,0 +1,40 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.entity.Venue;
+import com.collegefest.booking.util.LoadingCache;
+import com.collegefest.booking.util.SeatLayout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Compiled seating layouts, one per venue and shared by every event held there. A layout is compiled on
+ * first use and dropped when the venue changes, see {@link VenueService#updateVenue}.
+ */
+@Service
+@Slf4j
+public class SeatLayoutService {
+
+    private final LoadingCache<Long, SeatLayout> layouts = new LoadingCache<>();
+
+    public SeatLayout layoutFor(Event event) {
+        Venue venue = event.getVenue();
+        if (venue.getTotalCapacity() == null) {
+            // Sized by the event when the venue has no capacity, so not shared
+            return SeatLayout.parse(venue.getSeatingLayoutJson(),
+                    event.getMaxCapacity() != null ? event.getMaxCapacity() : 0);
+        }
+        return layouts.get(venue.getId(), venueId -> compile(venue));
+    }
+
+    public void evict(Long venueId) {
+        layouts.remove(venueId);
+    }
+
+    private SeatLayout compile(Venue venue) {
+        SeatLayout layout = SeatLayout.parse(venue.getSeatingLayoutJson(), venue.getTotalCapacity());
+        log.debug("Compiled seating layout of venue {}: {} sections, {} rows, {} seats, hash {}",
+                venue.getId(), layout.sectionCount(), layout.rowCount(), layout.capacity(), layout.hash());
+        return layout;
+    }
+}
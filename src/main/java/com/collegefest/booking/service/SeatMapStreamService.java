@@ -0,0 +1,155 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.SeatMapUpdateResponse;
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.exception.AdmissionRequiredException;
+import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.util.SeatMapEncoding;
+import com.collegefest.booking.util.SeatOccupancyIndex;
+import com.collegefest.booking.util.SseFanout;
+import com.collegefest.booking.util.SseTopics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Live seat maps over Server-Sent Events for the seat picker: a snapshot of the reserved seats, then the
+ * seats claimed and released since. Changes come from the in-memory occupancy index, so viewers see a
+ * seat go as soon as a booking holds it and nothing is read from the DB after the snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatMapStreamService {
+
+    private static final String EVENT_NAME = "seats";
+
+    private final EventRepository eventRepository;
+    private final SeatOccupancyService seatOccupancyService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sseWriterExecutor;
+
+    @Value("${booking.sse.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${booking.sse.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${booking.sse.max-subscribers-per-topic:5000}")
+    private int maxSubscribers;
+
+    private SseTopics<Long> streams;
+
+    @PostConstruct
+    void init() {
+        streams = new SseTopics<>(bufferSize, maxSubscribers, sseWriterExecutor);
+    }
+
+    /**
+     * Opens a stream for the event that starts with its reserved seats in the given encoding.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(Long eventId, SeatMapEncoding encoding) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + eventId));
+        SeatOccupancyIndex index = seatOccupancyService.indexFor(event);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Read inside subscribe, so no change between the snapshot and the first delta is lost
+        boolean subscribed = streams.subscribe(eventId, emitter, sequence -> {
+            SeatOccupancyIndex.Snapshot snapshot = index.snapshot(encoding);
+            return message(SeatMapUpdateResponse.builder()
+                    .eventId(eventId)
+                    .sequence(sequence)
+                    .snapshot(true)
+                    .version(snapshot.version())
+                    .totalCapacity(index.getLayout().capacity())
+                    .reservedSeats(snapshot.occupiedSeats())
+                    .encoding(encoding)
+                    .reservedBitmap(snapshot.bitmap())
+                    .reservedRanges(snapshot.ranges())
+                    .build());
+        });
+        if (!subscribed) {
+            throw new AdmissionRequiredException("Too many live viewers for this event, please retry shortly");
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends each watched event the current state of the seats that changed since the last run.
+     */
+    @Scheduled(fixedDelayString = "${booking.seat-map-stream.interval-ms:250}")
+    public void publishChanges() {
+        Map<Long, Set<String>> changes = seatOccupancyService.drainChanges();
+        changes.forEach((eventId, seatNumbers) -> {
+            SeatOccupancyIndex index = seatOccupancyService.loadedIndex(eventId);
+            if (index == null || !streams.isWatched(eventId)) {
+                return;
+            }
+            // Read before the seats, so a client resuming from it with ?since can only get a change twice
+            long version = index.version();
+            List<String> claimed = new ArrayList<>();
+            List<String> released = new ArrayList<>();
+            for (String seatNumber : seatNumbers) {
+                (index.isTaken(seatNumber) ? claimed : released).add(seatNumber);
+            }
+            Collections.sort(claimed);
+            Collections.sort(released);
+            streams.publish(eventId, sequence -> message(SeatMapUpdateResponse.builder()
+                    .eventId(eventId)
+                    .sequence(sequence)
+                    .snapshot(false)
+                    .version(version)
+                    .claimed(claimed)
+                    .released(released)
+                    .build()));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        streams.heartbeat();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("watchedEvents", streams.topicCount());
+        snapshot.put("subscribers", streams.subscriberCount());
+        snapshot.put("evictedSlowConsumers", streams.evictedCount());
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.closeAll();
+    }
+
+    // Serialized once per broadcast, however many subscribers receive it
+    private SseFanout.Message message(SeatMapUpdateResponse update) {
+        update.setTimestamp(LocalDateTime.now());
+        try {
+            return new SseFanout.Message(String.valueOf(update.getSequence()), EVENT_NAME,
+                    objectMapper.writeValueAsString(update));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat map update", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.entity.PriceTier;
+import com.collegefest.booking.entity.ReservationStatus;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.repository.SeatReservationRepository;
+import com.collegefest.booking.util.LoadingCache;
+import com.collegefest.booking.util.SeatLayout;
+import com.collegefest.booking.util.SeatOccupancyIndex;
+import com.collegefest.booking.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link SeatOccupancyIndex} per event so seat checks and seat maps are answered from memory.
+ * Each index is loaded from seat_reservations once and then kept in sync by the booking flows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatOccupancyService {
+
+    // Reservations in these states block the seat for everyone else
+    private static final List<ReservationStatus> OCCUPYING_STATUSES =
+            List.of(ReservationStatus.RESERVED, ReservationStatus.CONFIRMED);
+
+    private final SeatReservationRepository seatReservationRepository;
+    private final SeatLayoutService seatLayoutService;
+
+    @Value("${booking.seat-map.change-log-size:1024}")
+    private int changeLogSize;
+
+    private final LoadingCache<Long, SeatOccupancyIndex> indexes = new LoadingCache<>();
+    // Seats claimed or freed since the last drain, by event, for the seat-map stream; a set is only added to
+    // inside compute and is the drainer's alone once removed
+    private final Map<Long, Set<String>> changedSeats = new ConcurrentHashMap<>();
+
+    // Rows from when freed seats were kept as RELEASED still hold their seat's unique key
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void deleteReleasedReservations() {
+        int deleted = seatReservationRepository.deleteByReservationStatus(ReservationStatus.RELEASED);
+        if (deleted > 0) {
+            log.info("Deleted {} released seat reservations", deleted);
+        }
+    }
+
+    public SeatOccupancyIndex indexFor(Event event) {
+        return indexes.get(event.getId(), eventId -> load(event));
+    }
+
+    // The event's index if it is loaded, or null
+    public SeatOccupancyIndex loadedIndex(Long eventId) {
+        return indexes.getIfPresent(eventId);
+    }
+
+    /**
+     * Dense index range of the tier's seats in the event's layout, or null when the tier has no seat range.
+     */
+    public SeatLayout.SeatRange tierRange(Event event, PriceTier priceTier) {
+        if (priceTier.getSeatRangeStart() == null || priceTier.getSeatRangeEnd() == null) {
+            return null;
+        }
+        try {
+            return indexFor(event).getLayout().range(priceTier.getSeatRangeStart(), priceTier.getSeatRangeEnd());
+        } catch (IllegalArgumentException e) {
+            throw new BookingException("Seat range of tier " + priceTier.getTierName() + " does not match the venue layout: "
+                    + priceTier.getSeatRangeStart() + "-" + priceTier.getSeatRangeEnd());
+        }
+    }
+
+    /**
+     * The tier's seat range when seats can be assigned from it: the range lies in the venue layout and holds
+     * all of the tier's seats. Null for tiers without a range, with one from before seat layouts (e.g.
+     * "1".."100") or with one too small for the tier; those book by seat count only.
+     */
+    public SeatLayout.SeatRange assignableRange(Event event, PriceTier priceTier) {
+        if (priceTier.getSeatRangeStart() == null || priceTier.getSeatRangeEnd() == null) {
+            return null;
+        }
+        SeatLayout.SeatRange range;
+        try {
+            range = indexFor(event).getLayout().range(priceTier.getSeatRangeStart(), priceTier.getSeatRangeEnd());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return range.size() >= priceTier.getTotalSeats() ? range : null;
+    }
+
+    // The first seat outside the tier's seat range, or null when all are inside or the tier has no range
+    public String seatOutsideTier(Event event, PriceTier priceTier, List<String> seatNumbers) {
+        SeatLayout.SeatRange range = tierRange(event, priceTier);
+        if (range == null) {
+            return null;
+        }
+        SeatLayout layout = indexFor(event).getLayout();
+        for (String seatNumber : seatNumbers) {
+            if (!range.contains(layout.indexOf(seatNumber))) {
+                return seatNumber;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claims the seats for the current transaction; they are freed again if it rolls back.
+     *
+     * @return the first seat that is already taken, or null when all seats were claimed
+     */
+    public String claim(Event event, List<String> seatNumbers) {
+        String conflict = tryClaim(event, seatNumbers);
+        if (conflict == null) {
+            TransactionCallbacks.onRollback(() -> release(event, seatNumbers));
+        }
+        return conflict;
+    }
+
+    /**
+     * Claims the seats outside of any transaction, for callers that free them with {@link #release} on failure.
+     *
+     * @return the first seat that is already taken, or null when all seats were claimed
+     */
+    public String tryClaim(Event event, List<String> seatNumbers) {
+        String conflict = indexFor(event).claimAll(seatNumbers);
+        if (conflict == null) {
+            // Published as soon as the index holds them, since the index is what turns other bookings away
+            recordChange(event.getId(), seatNumbers);
+        }
+        return conflict;
+    }
+
+    public void release(Event event, Collection<String> seatNumbers) {
+        indexFor(event).releaseAll(seatNumbers);
+        recordChange(event.getId(), seatNumbers);
+    }
+
+    /**
+     * Picks and claims the best seats for a group in the tier's {@link #assignableRange} (adjacent when
+     * possible) for the current transaction; they are freed again if it rolls back.
+     *
+     * @return the claimed seat numbers, or null when the range has fewer free seats
+     */
+    public List<String> claimBest(Event event, PriceTier priceTier, int count) {
+        List<String> seatNumbers = tryClaimBest(event, priceTier, count);
+        if (seatNumbers != null) {
+            TransactionCallbacks.onRollback(() -> release(event, seatNumbers));
+        }
+        return seatNumbers;
+    }
+
+    // Like claimBest, for callers that free the seats with release on failure
+    public List<String> tryClaimBest(Event event, PriceTier priceTier, int count) {
+        SeatLayout.SeatRange range = assignableRange(event, priceTier);
+        if (range == null) {
+            throw new IllegalArgumentException("Tier " + priceTier.getTierName() + " has no seat range to assign seats from");
+        }
+        List<String> seatNumbers = indexFor(event).claimBest(range.first(), range.last(), count);
+        if (seatNumbers != null) {
+            recordChange(event.getId(), seatNumbers);
+        }
+        return seatNumbers;
+    }
+
+    // Frees the seats once the surrounding transaction commits
+    public void releaseOnCommit(Event event, Collection<String> seatNumbers) {
+        if (seatNumbers.isEmpty()) {
+            return;
+        }
+        SeatOccupancyIndex index = indexFor(event);
+        TransactionCallbacks.afterCommit(() -> {
+            index.releaseAll(seatNumbers);
+            recordChange(event.getId(), seatNumbers);
+        });
+    }
+
+    /**
+     * Takes the seats changed since the last call, by event. Their current state is in the event's index.
+     */
+    public Map<Long, Set<String>> drainChanges() {
+        Map<Long, Set<String>> drained = new HashMap<>();
+        for (Long eventId : changedSeats.keySet()) {
+            Set<String> seats = changedSeats.remove(eventId);
+            if (seats != null) {
+                drained.put(eventId, seats);
+            }
+        }
+        return drained;
+    }
+
+    // Drops the index so it is rebuilt on next use, e.g. after the event moved to another venue
+    public void evict(Long eventId) {
+        indexes.remove(eventId);
+    }
+
+    private void recordChange(Long eventId, Collection<String> seatNumbers) {
+        changedSeats.compute(eventId, (id, seats) -> {
+            Set<String> changed = seats != null ? seats : new HashSet<>();
+            changed.addAll(seatNumbers);
+            return changed;
+        });
+    }
+
+    private SeatOccupancyIndex load(Event event) {
+        SeatLayout layout = seatLayoutService.layoutFor(event);
+        // Versions start at the load time in microseconds, so they keep growing across reloads and restarts
+        SeatOccupancyIndex index = new SeatOccupancyIndex(layout, System.currentTimeMillis() * 1000, changeLogSize);
+        List<String> occupied = seatReservationRepository.findSeatNumbersByEventIdAndStatuses(event.getId(), OCCUPYING_STATUSES);
+        index.occupyAll(occupied);
+        log.debug("Loaded seat occupancy for event {}: {} of {} seats taken",
+                event.getId(), index.occupiedCount(), layout.capacity());
+        return index;
+    }
+}
@@ -1,22 +1,20 @@
 package com.collegefest.booking.service;
 
 import com.collegefest.booking.dto.response.SeatMapResponse;
+import com.collegefest.booking.dto.response.TierSeatAvailabilityResponse;
 import com.collegefest.booking.entity.Event;
 import com.collegefest.booking.entity.PriceTier;
-import com.collegefest.booking.entity.ReservationStatus;
-import com.collegefest.booking.entity.SeatReservation;
 import com.collegefest.booking.exception.ResourceNotFoundException;
 import com.collegefest.booking.repository.EventRepository;
 import com.collegefest.booking.repository.PriceTierRepository;
-import com.collegefest.booking.repository.SeatReservationRepository;
+import com.collegefest.booking.util.SeatLayout;
+import com.collegefest.booking.util.SeatMapEncoding;
+import com.collegefest.booking.util.SeatOccupancyIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,53 +22,88 @@ public class SeatService {
 
         private final EventRepository eventRepository;
         private final PriceTierRepository priceTierRepository;
-        private final SeatReservationRepository seatReservationRepository;
+        private final SeatOccupancyService seatOccupancyService;
 
         @Transactional(readOnly = true)
-        public SeatMapResponse getSeatMap(Long eventId) {
+        public SeatMapResponse getSeatMap(Long eventId, Long sinceVersion, SeatMapEncoding encoding,
+                                          String knownLayoutHash) {
+                // A client that already has the map gets the changes from the in-memory log, without a DB read
+                if (sinceVersion != null) {
+                        SeatOccupancyIndex index = seatOccupancyService.loadedIndex(eventId);
+                        SeatOccupancyIndex.Changes changes = index != null ? index.changesSince(sinceVersion) : null;
+                        if (changes != null) {
+                                return SeatMapResponse.builder()
+                                                .eventId(eventId)
+                                                .version(changes.version())
+                                                .delta(true)
+                                                .claimedSeats(changes.claimed())
+                                                .releasedSeats(changes.released())
+                                                .build();
+                        }
+                }
+
                 Event event = eventRepository.findById(eventId)
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Event not found with id: " + eventId));
 
-                List<PriceTier> priceTiers = priceTierRepository.findByEventId(eventId);
-
-                List<SeatReservation> reservedSeats = seatReservationRepository
-                                .findByEventIdAndReservationStatus(eventId, ReservationStatus.CONFIRMED);
-
-                List<String> reservedSeatNumbers = reservedSeats.stream()
-                                .map(SeatReservation::getSeatNumber)
-                                .collect(Collectors.toList());
+                SeatOccupancyIndex index = seatOccupancyService.indexFor(event);
+                SeatOccupancyIndex.Snapshot snapshot = index.snapshot(encoding);
+                // The layout is only sent to clients that do not have this version of it yet
+                String layoutHash = index.getLayout().hash();
+                boolean sendLayout = !layoutHash.equals(knownLayoutHash);
 
                 return SeatMapResponse.builder()
                                 .eventId(eventId)
                                 .eventName(event.getEventName())
-                                .venueLayout(event.getVenue().getSeatingLayoutJson())
+                                .venueLayout(sendLayout ? event.getVenue().getSeatingLayoutJson() : null)
+                                .layoutHash(layoutHash)
                                 .totalCapacity(event.getMaxCapacity())
-                                .reservedSeats(reservedSeatNumbers)
+                                .reservedSeats(snapshot.occupiedSeats())
+                                .encoding(encoding)
+                                .reservedBitmap(snapshot.bitmap())
+                                .reservedRanges(snapshot.ranges())
+                                .version(snapshot.version())
+                                .delta(false)
                                 .build();
         }
 
+        /**
+         * Free seats of a tier from the event's occupancy index, as runs per row within the tier's seat range
+         * (the whole layout for tiers without one).
+         */
         @Transactional(readOnly = true)
-        public List<String> getAvailableSeats(Long eventId, Long priceTierId) {
+        public TierSeatAvailabilityResponse getAvailableSeats(Long eventId, Long priceTierId) {
                 PriceTier priceTier = priceTierRepository.findById(priceTierId)
+                                .filter(tier -> tier.getEvent().getId().equals(eventId))
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Price tier not found with id: " + priceTierId));
+                Event event = priceTier.getEvent();
 
-                List<SeatReservation> reservedSeats = seatReservationRepository
-                                .findByEventIdAndReservationStatus(eventId, ReservationStatus.CONFIRMED);
-
-                List<String> reservedSeatNumbers = reservedSeats.stream()
-                                .map(SeatReservation::getSeatNumber)
-                                .collect(Collectors.toList());
+                SeatOccupancyIndex index = seatOccupancyService.indexFor(event);
+                SeatLayout.SeatRange range = seatOccupancyService.tierRange(event, priceTier);
+                if (range == null) {
+                        range = new SeatLayout.SeatRange(0, index.getLayout().capacity() - 1);
+                }
+                SeatOccupancyIndex.Availability availability = index.freeSeats(range.first(), range.last());
 
-                // Generate available seats based on price tier range
-                // This is a simplified implementation
-                return List.of(); // Would need proper seat generation logic
+                return TierSeatAvailabilityResponse.builder()
+                                .eventId(eventId)
+                                .priceTierId(priceTierId)
+                                .tierName(priceTier.getTierName())
+                                .seatRangeStart(priceTier.getSeatRangeStart())
+                                .seatRangeEnd(priceTier.getSeatRangeEnd())
+                                .totalSeats(range.size())
+                                .availableSeats(availability.freeCount())
+                                .availableRanges(availability.ranges())
+                                .version(availability.version())
+                                .build();
         }
 
         @Transactional(readOnly = true)
         public boolean isSeatAvailable(Long eventId, String seatNumber) {
-                return !seatReservationRepository.existsByEventIdAndSeatNumberAndReservationStatus(
-                                eventId, seatNumber, ReservationStatus.CONFIRMED);
+                Event event = eventRepository.findById(eventId)
+                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                "Event not found with id: " + eventId));
+                return !seatOccupancyService.indexFor(event).isTaken(seatNumber);
         }
 }
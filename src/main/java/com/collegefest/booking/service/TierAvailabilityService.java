@@ -0,0 +1,193 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.AvailabilityUpdateResponse;
+import com.collegefest.booking.dto.response.TierAvailabilityDTO;
+import com.collegefest.booking.entity.PriceTier;
+import com.collegefest.booking.exception.AdmissionRequiredException;
+import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.util.SseFanout;
+import com.collegefest.booking.util.SseTopics;
+import com.collegefest.booking.util.TransactionCallbacks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Live tier availability over Server-Sent Events, so seat pickers stop polling the event endpoint.
+ * Seat changes only mark their tier dirty once committed; a periodic publish reads all dirty tiers with
+ * one query and sends each event's changed counts once to a broadcast shared by its subscribers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TierAvailabilityService {
+
+    private static final String EVENT_NAME = "availability";
+
+    private final EventRepository eventRepository;
+    private final PriceTierRepository priceTierRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sseWriterExecutor;
+
+    @Value("${booking.sse.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${booking.sse.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${booking.sse.max-subscribers-per-topic:5000}")
+    private int maxSubscribers;
+
+    private SseTopics<Long> streams;
+    // Tier ids changed since the last publish, by event; a set is only added to inside compute and is the
+    // publisher's alone once removed, so no id can land in a set that was already taken
+    private final Map<Long, Set<Long>> dirtyTiers = new ConcurrentHashMap<>();
+    // Last count sent per tier, so unchanged tiers are left out of an update
+    private final Map<Long, Integer> lastSent = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        streams = new SseTopics<>(bufferSize, maxSubscribers, sseWriterExecutor);
+    }
+
+    /**
+     * Opens a stream for the event that starts with a snapshot of every tier.
+     */
+    public SseEmitter subscribe(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found with id: " + eventId);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        List<TierAvailabilityDTO> tiers = priceTierRepository.findByEventId(eventId).stream()
+                .map(this::toAvailability)
+                .toList();
+        if (!streams.subscribe(eventId, emitter, sequence -> message(eventId, sequence, true, tiers))) {
+            throw new AdmissionRequiredException("Too many live viewers for this event, please retry shortly");
+        }
+        return emitter;
+    }
+
+    // Call inside the transaction that changes the tier's seats; the tier is published after it commits
+    public void seatsChanged(Long eventId, Long tierId) {
+        TransactionCallbacks.afterCommit(() -> dirtyTiers.compute(eventId, (id, tierIds) -> {
+            Set<Long> changed = tierIds != null ? tierIds : new HashSet<>();
+            changed.add(tierId);
+            return changed;
+        }));
+    }
+
+    /**
+     * Sends the changed tier counts of every watched event, coalescing all changes since the last run.
+     */
+    @Scheduled(fixedDelayString = "${booking.availability-stream.interval-ms:500}")
+    public void publishChanges() {
+        Map<Long, Set<Long>> changed = new HashMap<>();
+        for (Long eventId : dirtyTiers.keySet()) {
+            Set<Long> tierIds = dirtyTiers.remove(eventId);
+            if (tierIds == null) {
+                continue;
+            }
+            if (streams.isWatched(eventId)) {
+                changed.put(eventId, tierIds);
+            } else {
+                // Nobody saw this change, so the next viewer's snapshot is the baseline again
+                tierIds.forEach(lastSent::remove);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Set<Long> tierIds = new HashSet<>();
+        changed.values().forEach(tierIds::addAll);
+        Map<Long, Integer> available = new HashMap<>();
+        for (Object[] row : priceTierRepository.findAvailableSeatsByIds(tierIds)) {
+            available.put((Long) row[0], (Integer) row[1]);
+        }
+
+        changed.forEach((eventId, eventTiers) -> {
+            List<TierAvailabilityDTO> updates = new ArrayList<>();
+            for (Long tierId : eventTiers) {
+                Integer seats = currentSeats(tierId, available.get(tierId));
+                if (seats != null && !seats.equals(lastSent.put(tierId, seats))) {
+                    updates.add(TierAvailabilityDTO.builder().tierId(tierId).availableSeats(seats).build());
+                }
+            }
+            if (!updates.isEmpty()) {
+                streams.publish(eventId, sequence -> message(eventId, sequence, false, updates));
+            }
+        });
+        log.debug("Published availability changes for {} events", changed.size());
+    }
+
+    // Heartbeats every open stream and drops the streams of events nobody watches any more
+    @Scheduled(fixedDelayString = "${booking.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        streams.heartbeat();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("watchedEvents", streams.topicCount());
+        snapshot.put("subscribers", streams.subscriberCount());
+        snapshot.put("evictedSlowConsumers", streams.evictedCount());
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.closeAll();
+    }
+
+    private TierAvailabilityDTO toAvailability(PriceTier priceTier) {
+        return TierAvailabilityDTO.builder()
+                .tierId(priceTier.getId())
+                .tierName(priceTier.getTierName())
+                .totalSeats(priceTier.getTotalSeats())
+                .availableSeats(currentSeats(priceTier.getId(), priceTier.getAvailableSeats()))
+                .build();
+    }
+
+    // In-memory counters run ahead of price_tiers until the next inventory flush
+    private Integer currentSeats(Long tierId, Integer stored) {
+        Integer counted = seatInventoryService.currentAvailableSeats(tierId);
+        return counted != null ? counted : stored;
+    }
+
+    // Serialized once per broadcast, however many subscribers receive it
+    private SseFanout.Message message(Long eventId, long sequence, boolean snapshot, List<TierAvailabilityDTO> tiers) {
+        AvailabilityUpdateResponse update = AvailabilityUpdateResponse.builder()
+                .eventId(eventId)
+                .sequence(sequence)
+                .snapshot(snapshot)
+                .tiers(tiers)
+                .timestamp(LocalDateTime.now())
+                .build();
+        try {
+            return new SseFanout.Message(String.valueOf(sequence), EVENT_NAME, objectMapper.writeValueAsString(update));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize availability update", e);
+        }
+    }
+}
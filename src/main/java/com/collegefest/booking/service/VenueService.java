@@ -2,16 +2,22 @@ package com.collegefest.booking.service;
 
 import com.collegefest.booking.dto.request.VenueRequestDTO;
 import com.collegefest.booking.dto.response.VenueResponseDTO;
+import com.collegefest.booking.entity.Event;
 import com.collegefest.booking.entity.Venue;
+import com.collegefest.booking.exception.BookingException;
 import com.collegefest.booking.exception.DuplicateResourceException;
 import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
 import com.collegefest.booking.repository.VenueRepository;
+import com.collegefest.booking.util.SeatLayout;
+import com.collegefest.booking.util.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +26,12 @@ import java.util.stream.Collectors;
 public class VenueService {
 
     private final VenueRepository venueRepository;
+    private final EventRepository eventRepository;
+    private final SeatLayoutService seatLayoutService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final EventCatalogService eventCatalogService;
+    private final DashboardMetricsService dashboardMetricsService;
+    private final BookingFactStore bookingFactStore;
 
     @Transactional
     public VenueResponseDTO createVenue(VenueRequestDTO request) {
@@ -27,6 +39,8 @@ public class VenueService {
             throw new DuplicateResourceException("Venue with this name already exists");
         }
 
+        validateLayout(request);
+
         Venue venue = Venue.builder()
                 .venueName(request.getVenueName())
                 .address(request.getAddress())
@@ -59,6 +73,10 @@ public class VenueService {
         Venue venue = venueRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + id));
 
+        boolean layoutChanged = !Objects.equals(venue.getSeatingLayoutJson(), request.getSeatingLayoutJson())
+                || !Objects.equals(venue.getTotalCapacity(), request.getTotalCapacity());
+        validateLayout(request);
+
         venue.setVenueName(request.getVenueName());
         venue.setAddress(request.getAddress());
         venue.setTotalCapacity(request.getTotalCapacity());
@@ -67,6 +85,15 @@ public class VenueService {
         venue.setFacilities(request.getFacilities());
 
         Venue updatedVenue = venueRepository.save(venue);
+        eventCatalogService.refreshAfterCommit();
+        if (layoutChanged) {
+            // Recompile the layout and rebuild the seat indexes of the venue's events once the change is committed
+            List<Long> eventIds = eventRepository.findIdsByVenueId(id);
+            TransactionCallbacks.afterCommit(() -> {
+                seatLayoutService.evict(id);
+                eventIds.forEach(seatOccupancyService::evict);
+            });
+        }
         return convertToDTO(updatedVenue);
     }
 
@@ -74,7 +101,23 @@ public class VenueService {
     public void deleteVenue(Long id) {
         Venue venue = venueRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + id));
+        // The venue's events and their bookings are deleted with it
+        for (Event event : venue.getEvents()) {
+            dashboardMetricsService.eventDeleted(event);
+            bookingFactStore.eventDeleted(event.getId());
+        }
         venueRepository.delete(venue);
+        eventCatalogService.refreshAfterCommit();
+    }
+
+    // Rejects layouts that cannot be compiled before they reach seat maps and bookings
+    private void validateLayout(VenueRequestDTO request) {
+        try {
+            SeatLayout.parse(request.getSeatingLayoutJson(),
+                    request.getTotalCapacity() != null ? request.getTotalCapacity() : 0);
+        } catch (IllegalArgumentException e) {
+            throw new BookingException(e.getMessage());
+        }
     }
 
     private VenueResponseDTO convertToDTO(Venue venue) {
@@ -0,0 +1,184 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.QueueStatusResponse;
+import com.collegefest.booking.entity.Event;
+import com.collegefest.booking.exception.AdmissionRequiredException;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.exception.ResourceNotFoundException;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.util.LoadingCache;
+import com.collegefest.booking.util.WaitingRoom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Virtual waiting room in front of booking creation. For events with an admission rate, clients join a
+ * queue, poll their position and may only create a booking once their ticket has been admitted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomService {
+
+    private final EventRepository eventRepository;
+
+    @Value("${booking.waiting-room.admission-ttl-seconds:120}")
+    private long admissionTtlSeconds;
+
+    @Value("${booking.waiting-room.ticket-ttl-minutes:30}")
+    private long ticketTtlMinutes;
+
+    // Empty for events that have no waiting room
+    private final LoadingCache<Long, Optional<WaitingRoom>> rooms = new LoadingCache<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, String> tokensByUserAndEvent = new ConcurrentHashMap<>();
+
+    public QueueStatusResponse join(Long eventId, Long userId) {
+        WaitingRoom room = roomFor(eventId)
+                .orElseThrow(() -> new BookingException("This event does not use a waiting room"));
+
+        // One place per user, so refreshing the page does not move a student to the back
+        String token = tokensByUserAndEvent.computeIfAbsent(userId + ":" + eventId, key -> {
+            String newToken = UUID.randomUUID().toString();
+            tickets.put(newToken, new Ticket(eventId, userId, room.join(), System.nanoTime()));
+            return newToken;
+        });
+        return status(eventId, token);
+    }
+
+    public QueueStatusResponse status(Long eventId, String token) {
+        Ticket ticket = ticketFor(eventId, token);
+        WaitingRoom room = roomFor(eventId).orElseThrow(() -> new AdmissionRequiredException("Queue ticket is no longer valid"));
+
+        boolean admitted = room.isAdmitted(ticket.number);
+        if (admitted && ticket.admittedAtNanos == 0) {
+            ticket.admittedAtNanos = System.nanoTime();
+        }
+        QueueStatusResponse.QueueStatusResponseBuilder response = QueueStatusResponse.builder()
+                .eventId(eventId)
+                .admissionToken(token)
+                .admitted(admitted)
+                .position(room.position(ticket.number))
+                .etaSeconds(room.etaSeconds(ticket.number));
+        if (admitted) {
+            response.admissionExpiresInSeconds(Math.max(0,
+                    admissionTtlSeconds - Duration.ofNanos(System.nanoTime() - ticket.admittedAtNanos).toSeconds()));
+        }
+        return response.build();
+    }
+
+    /**
+     * Lets a booking request through if the event has no waiting room or the token has been admitted.
+     * Every admitted token can be used for one booking at a time; call {@link #complete} once it is done.
+     */
+    public void checkAdmission(Long eventId, Long userId, String token) {
+        if (roomFor(eventId).isEmpty()) {
+            return;
+        }
+        if (token == null) {
+            throw new AdmissionRequiredException("Booking for this event is queued. Join the waiting room first");
+        }
+        Ticket ticket = ticketFor(eventId, token);
+        QueueStatusResponse status = status(eventId, token);
+        if (!ticket.userId.equals(userId)) {
+            throw new AdmissionRequiredException("Queue ticket belongs to another user");
+        }
+        if (!status.getAdmitted()) {
+            throw new AdmissionRequiredException("Still in the queue at position " + status.getPosition()
+                    + ", about " + status.getEtaSeconds() + "s to go");
+        }
+        if (status.getAdmissionExpiresInSeconds() == 0) {
+            forget(token, ticket);
+            throw new AdmissionRequiredException("Admission expired. Please join the waiting room again");
+        }
+        if (!ticket.inUse.compareAndSet(false, true)) {
+            throw new AdmissionRequiredException("A booking with this admission is already in progress");
+        }
+    }
+
+    // Ends an admission: a successful booking uses it up, a failed one frees it for another attempt
+    public void complete(String token, boolean bookingCreated) {
+        Ticket ticket = token != null ? tickets.get(token) : null;
+        if (ticket == null) {
+            return;
+        }
+        if (bookingCreated) {
+            forget(token, ticket);
+        } else {
+            ticket.inUse.set(false);
+        }
+    }
+
+    // Restarts the event's queue with its current admission rate; outstanding tickets are dropped
+    public void evict(Long eventId) {
+        rooms.remove(eventId);
+        tickets.forEach((token, ticket) -> {
+            if (ticket.eventId.equals(eventId)) {
+                forget(token, ticket);
+            }
+        });
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void purgeExpiredTickets() {
+        long now = System.nanoTime();
+        long ticketTtl = Duration.ofMinutes(ticketTtlMinutes).toNanos();
+        long admissionTtl = Duration.ofSeconds(admissionTtlSeconds).toNanos();
+        tickets.forEach((token, ticket) -> {
+            boolean admissionExpired = ticket.admittedAtNanos != 0 && now - ticket.admittedAtNanos > admissionTtl;
+            if (admissionExpired || now - ticket.joinedAtNanos > ticketTtl) {
+                forget(token, ticket);
+            }
+        });
+    }
+
+    private Optional<WaitingRoom> roomFor(Long eventId) {
+        return rooms.get(eventId, id -> {
+            Event event = eventRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+            Integer rate = event.getAdmissionRatePerSecond();
+            return rate != null && rate > 0
+                    ? Optional.of(new WaitingRoom(rate, System::nanoTime))
+                    : Optional.empty();
+        });
+    }
+
+    private Ticket ticketFor(Long eventId, String token) {
+        Ticket ticket = token != null ? tickets.get(token) : null;
+        if (ticket == null || !ticket.eventId.equals(eventId)) {
+            throw new AdmissionRequiredException("Unknown or expired queue ticket. Please join the waiting room again");
+        }
+        return ticket;
+    }
+
+    private void forget(String token, Ticket ticket) {
+        tickets.remove(token);
+        tokensByUserAndEvent.remove(ticket.userId + ":" + ticket.eventId, token);
+    }
+
+    private static final class Ticket {
+        private final Long eventId;
+        private final Long userId;
+        private final long number;
+        private final long joinedAtNanos;
+        private final AtomicBoolean inUse = new AtomicBoolean();
+        private volatile long admittedAtNanos;
+
+        private Ticket(Long eventId, Long userId, long number, long joinedAtNanos) {
+            this.eventId = eventId;
+            this.userId = userId;
+            this.number = number;
+            this.joinedAtNanos = joinedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.collegefest.booking.util;
+
+/**
+ * Segment tree over the rows of a layout holding the longest run of free seats in each row, so the first
+ * row that can seat a group of n together is found in O(log rows) however full the venue is.
+ * Not thread-safe; {@link SeatOccupancyIndex} guards it with its own lock.
+ */
+public final class FreeRunTree {
+
+    private final int rows;
+    private final int[] max; // max[node] is the longest run of any row under the node; node 1 is the root
+
+    public FreeRunTree(int[] longestRuns) {
+        this.rows = longestRuns.length;
+        this.max = new int[Math.max(4 * rows, 1)];
+        if (rows > 0) {
+            build(1, 0, rows - 1, longestRuns);
+        }
+    }
+
+    public void update(int row, int longestRun) {
+        update(1, 0, rows - 1, row, longestRun);
+    }
+
+    public int longestRun(int row) {
+        int node = 1;
+        int low = 0;
+        int high = rows - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (row <= mid) {
+                node = 2 * node;
+                high = mid;
+            } else {
+                node = 2 * node + 1;
+                low = mid + 1;
+            }
+        }
+        return max[node];
+    }
+
+    // First row in [fromRow, toRow] with a run of at least n free seats, or -1
+    public int firstRowWithRun(int fromRow, int toRow, int n) {
+        if (rows == 0 || fromRow > toRow) {
+            return -1;
+        }
+        return first(1, 0, rows - 1, fromRow, toRow, n);
+    }
+
+    private void build(int node, int low, int high, int[] longestRuns) {
+        if (low == high) {
+            max[node] = longestRuns[low];
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        build(2 * node, low, mid, longestRuns);
+        build(2 * node + 1, mid + 1, high, longestRuns);
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+    }
+
+    private void update(int node, int low, int high, int row, int longestRun) {
+        if (low == high) {
+            max[node] = longestRun;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (row <= mid) {
+            update(2 * node, low, mid, row, longestRun);
+        } else {
+            update(2 * node + 1, mid + 1, high, row, longestRun);
+        }
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+    }
+
+    // Only descends into subtrees that overlap the rows and have a long enough run
+    private int first(int node, int low, int high, int fromRow, int toRow, int n) {
+        if (high < fromRow || low > toRow || max[node] < n) {
+            return -1;
+        }
+        if (low == high) {
+            return low;
+        }
+        int mid = (low + high) >>> 1;
+        int row = first(2 * node, low, mid, fromRow, toRow, n);
+        return row >= 0 ? row : first(2 * node + 1, mid + 1, high, fromRow, toRow, n);
+    }
+}
@@ -0,0 +1,50 @@
+package com.collegefest.booking.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Concurrent map whose values are loaded on first use by a loader that may block on the database. Unlike
+ * {@link ConcurrentHashMap#computeIfAbsent}, the loader does not run while holding a monitor, so a virtual
+ * thread waiting on JDBC never pins its carrier thread. Loads and removals are serialized by a lock, so a
+ * value removed after a change cannot be overwritten by a load that read the old state.
+ */
+public final class LoadingCache<K, V> {
+
+    private final Map<K, V> values = new ConcurrentHashMap<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public V get(K key, Function<K, V> loader) {
+        V value = values.get(key);
+        if (value != null) {
+            return value;
+        }
+        loadLock.lock();
+        try {
+            value = values.get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                values.put(key, value);
+            }
+            return value;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // The loaded value, or null without loading it
+    public V getIfPresent(K key) {
+        return values.get(key);
+    }
+
+    public void remove(K key) {
+        loadLock.lock();
+        try {
+            values.remove(key);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
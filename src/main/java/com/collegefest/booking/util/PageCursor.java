@@ -0,0 +1,71 @@
+package com.collegefest.booking.util;
+
+import com.collegefest.booking.exception.BookingException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a keyset-paged list: the sort key and id of the last row of the previous page.
+ * Clients get it as an opaque string in the X-Next-Cursor header and pass it back unchanged,
+ * so the next page is a range seek on a (key, id) index however deep it is.
+ */
+public record PageCursor(String key, long id) {
+
+    public static final String HEADER = "X-Next-Cursor";
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static String encode(Object key, long id) {
+        String raw = id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            return new PageCursor(raw.substring(colon + 1), Long.parseLong(raw.substring(0, colon)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BookingException("Invalid page cursor");
+        }
+    }
+
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BookingException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    public LocalDateTime dateTimeKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new BookingException("Invalid page cursor");
+        }
+    }
+
+    /**
+     * Trims rows fetched with a limit of size + 1 to one page, with the cursor of its last row
+     * when the extra row shows that more follow.
+     */
+    public static <T> Page<T> page(List<T> rows, int size, Function<T, Object> key, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new Page<>(List.copyOf(items), encode(key.apply(last), id.apply(last)));
+    }
+
+    public record Page<T>(List<T> items, String nextCursor) {
+
+        public <R> Page<R> map(Function<List<T>, List<R>> mapper) {
+            return new Page<>(mapper.apply(items), nextCursor);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.collegefest.booking.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled seating layout of a venue: sections of rows, with every seat mapped to a dense index
+ * (0 .. capacity-1). Immutable and backed by primitive arrays, so one instance is shared by every event
+ * at the venue.
+ * <p>
+ * Parsed from {@code Venue.seatingLayoutJson}, e.g.
+ * {@code {"sections":[{"name":"Balcony","rows":[{"row":"A","seats":20},{"row":"B","seats":22}]}]}}
+ * or just {@code {"rows":[...]}}. Seat numbers are the row label followed by the seat position, e.g. "B7".
+ * Venues without a layout get rows of {@value #DEFAULT_ROW_LENGTH} seats labelled A, B, ... Z, AA, ...
+ */
+public final class SeatLayout {
+
+    public static final int DEFAULT_ROW_LENGTH = 20;
+    public static final String DEFAULT_SECTION = "General";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String[] rowLabels;
+    private final int[] rowOffsets; // rowOffsets[r] is the index of seat 1 in row r; last entry is the capacity
+    private final Map<String, Integer> rowsByLabel;
+    private final String[] sectionNames;
+    private final int[] sectionRows; // sectionRows[s] is the first row of section s; last entry is the row count
+    private final String hash;
+
+    private SeatLayout(List<String> labels, List<Integer> lengths, List<String> sections, List<Integer> sectionStarts,
+                       String hash) {
+        this.rowLabels = labels.toArray(new String[0]);
+        this.rowOffsets = new int[rowLabels.length + 1];
+        this.rowsByLabel = new HashMap<>(rowLabels.length * 2);
+        for (int r = 0; r < rowLabels.length; r++) {
+            rowOffsets[r + 1] = rowOffsets[r] + lengths.get(r);
+            if (rowsByLabel.put(rowLabels[r], r) != null) {
+                throw new IllegalArgumentException("Duplicate row label: " + rowLabels[r]);
+            }
+        }
+        this.sectionNames = sections.toArray(new String[0]);
+        this.sectionRows = new int[sectionNames.length + 1];
+        for (int section = 0; section < sectionNames.length; section++) {
+            sectionRows[section] = sectionStarts.get(section);
+        }
+        sectionRows[sectionNames.length] = rowLabels.length;
+        this.hash = hash;
+    }
+
+    public static SeatLayout parse(String layoutJson, int fallbackCapacity) {
+        if (layoutJson == null || layoutJson.isBlank()) {
+            return defaultLayout(fallbackCapacity);
+        }
+        try {
+            JsonNode root = MAPPER.readTree(layoutJson);
+            List<String> labels = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            List<String> sections = new ArrayList<>();
+            List<Integer> sectionStarts = new ArrayList<>();
+            if (root.has("sections")) {
+                for (JsonNode section : root.get("sections")) {
+                    sections.add(section.hasNonNull("name") ? section.get("name").asText() : "Section " + (sections.size() + 1));
+                    sectionStarts.add(labels.size());
+                    readRows(section.get("rows"), labels, lengths);
+                }
+            } else {
+                sections.add(DEFAULT_SECTION);
+                sectionStarts.add(0);
+                readRows(root.get("rows"), labels, lengths);
+            }
+            return labels.isEmpty()
+                    ? defaultLayout(fallbackCapacity)
+                    : new SeatLayout(labels, lengths, sections, sectionStarts, hash(layoutJson));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid seating layout: " + e.getMessage(), e);
+        }
+    }
+
+    public static SeatLayout defaultLayout(int capacity) {
+        List<String> labels = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        for (int remaining = Math.max(capacity, 0), r = 0; remaining > 0; remaining -= DEFAULT_ROW_LENGTH, r++) {
+            labels.add(defaultRowLabel(r));
+            lengths.add(Math.min(DEFAULT_ROW_LENGTH, remaining));
+        }
+        return new SeatLayout(labels, lengths, List.of(DEFAULT_SECTION), List.of(0), hash("default:" + capacity));
+    }
+
+    // Content hash of the layout, so clients can cache it and caches can tell layouts apart
+    public String hash() {
+        return hash;
+    }
+
+    public int sectionCount() {
+        return sectionNames.length;
+    }
+
+    public String sectionName(int section) {
+        return sectionNames[section];
+    }
+
+    // Rows of a section are sectionFirstRow(s) .. sectionFirstRow(s + 1) - 1
+    public int sectionFirstRow(int section) {
+        return sectionRows[section];
+    }
+
+    public int capacity() {
+        return rowOffsets[rowLabels.length];
+    }
+
+    public int rowCount() {
+        return rowLabels.length;
+    }
+
+    public String rowLabel(int row) {
+        return rowLabels[row];
+    }
+
+    public int rowStart(int row) {
+        return rowOffsets[row];
+    }
+
+    public int rowLength(int row) {
+        return rowOffsets[row + 1] - rowOffsets[row];
+    }
+
+    // Dense index of a seat number, or -1 when the seat is not part of this layout
+    public int indexOf(String seatNumber) {
+        if (seatNumber == null) {
+            return -1;
+        }
+        int split = seatNumber.length();
+        while (split > 0 && Character.isDigit(seatNumber.charAt(split - 1))) {
+            split--;
+        }
+        if (split == 0 || split == seatNumber.length() || seatNumber.length() - split > 9) {
+            return -1;
+        }
+        Integer row = rowsByLabel.get(seatNumber.substring(0, split));
+        if (row == null) {
+            return -1;
+        }
+        int position = Integer.parseInt(seatNumber, split, seatNumber.length(), 10);
+        return position >= 1 && position <= rowLength(row) ? rowOffsets[row] + position - 1 : -1;
+    }
+
+    /**
+     * Dense indices of the seats from one seat number through another in layout order, e.g. a price
+     * tier's "A1" .. "E20" covering rows A to E.
+     */
+    public SeatRange range(String firstSeat, String lastSeat) {
+        int first = indexOf(firstSeat);
+        int last = indexOf(lastSeat);
+        if (first < 0 || last < first) {
+            throw new IllegalArgumentException("Seat range " + firstSeat + "-" + lastSeat + " is not part of the layout");
+        }
+        return new SeatRange(first, last);
+    }
+
+    public String seatNumberAt(int index) {
+        int row = rowOf(index);
+        return rowLabels[row] + (index - rowOffsets[row] + 1);
+    }
+
+    public int rowOf(int index) {
+        if (index < 0 || index >= capacity()) {
+            throw new IndexOutOfBoundsException("Seat index " + index + " outside layout of " + capacity());
+        }
+        int low = 0;
+        int high = rowLabels.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rowOffsets[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static void readRows(JsonNode rows, List<String> labels, List<Integer> lengths) {
+        if (rows == null) {
+            return;
+        }
+        for (JsonNode row : rows) {
+            String label = row.get("row").asText();
+            int seats = row.get("seats").asInt();
+            if (label.isEmpty() || Character.isDigit(label.charAt(label.length() - 1)) || seats < 1) {
+                throw new IllegalArgumentException("Bad row definition: " + row);
+            }
+            labels.add(label);
+            lengths.add(seats);
+        }
+    }
+
+    // First 16 hex digits of the SHA-256 of the layout source
+    private static String hash(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 0 -> A, 25 -> Z, 26 -> AA, ...
+    private static String defaultRowLabel(int row) {
+        StringBuilder label = new StringBuilder();
+        for (int n = row; n >= 0; n = n / 26 - 1) {
+            label.insert(0, (char) ('A' + n % 26));
+        }
+        return label.toString();
+    }
+
+    // Inclusive range of dense seat indices
+    public record SeatRange(int first, int last) {
+
+        public boolean contains(int index) {
+            return index >= first && index <= last;
+        }
+
+        public int size() {
+            return last - first + 1;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.collegefest.booking.util;
+
+/**
+ * How a seat map lists its reserved seats.
+ */
+public enum SeatMapEncoding {
+    // Seat numbers, e.g. ["A1","A2","B7"]
+    LIST,
+    // Base64 bitmap over the layout's dense seat index: seat i is bit (i % 8) of byte (i / 8)
+    BITMAP,
+    // Runs of reserved seat positions per row label, e.g. {"A":[[1,2]],"B":[[7,7]]}
+    RANGES
+}
@@ -0,0 +1,403 @@
+package com.collegefest.booking.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Occupied seats of one event as a bitset over the dense seat indices of its {@link SeatLayout}.
+ * Seat numbers that are not part of the layout are tracked in a small side set so legacy free-form
+ * seat numbers keep working.
+ * <p>
+ * Every claim or release bumps the version, and the last seat changes are kept in a ring buffer, so a
+ * client that knows an earlier version can be sent just the seats that changed since.
+ */
+public final class SeatOccupancyIndex {
+
+    private final SeatLayout layout;
+    private final long[] words;
+    private final Set<String> offLayoutSeats = new HashSet<>();
+    private final FreeRunTree freeRuns;
+    private int occupiedCount;
+
+    // Change log ring buffer: seat, new state and version of the last changeLog.length seat changes
+    private final String[] changeLog;
+    private final boolean[] changeLogTaken;
+    private final long[] changeLogVersions;
+    private long changesLogged;
+    private long version;
+    // Changes up to this version may have been overwritten in the log
+    private long overwrittenVersion;
+
+    public SeatOccupancyIndex(SeatLayout layout, long startVersion, int changeLogSize) {
+        this.layout = layout;
+        this.words = new long[(layout.capacity() + 63) >>> 6];
+        int[] rowLengths = new int[layout.rowCount()];
+        for (int row = 0; row < rowLengths.length; row++) {
+            rowLengths[row] = layout.rowLength(row);
+        }
+        this.freeRuns = new FreeRunTree(rowLengths);
+        this.changeLog = new String[changeLogSize];
+        this.changeLogTaken = new boolean[changeLogSize];
+        this.changeLogVersions = new long[changeLogSize];
+        this.version = startVersion;
+        this.overwrittenVersion = startVersion;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public synchronized boolean isTaken(String seatNumber) {
+        int index = layout.indexOf(seatNumber);
+        return index >= 0 ? isSet(index) : offLayoutSeats.contains(seatNumber);
+    }
+
+    /**
+     * Marks all seats as taken, or none of them.
+     *
+     * @return the first seat that was already taken, or null when all seats were claimed
+     */
+    public synchronized String claimAll(Collection<String> seatNumbers) {
+        Set<String> requested = new HashSet<>();
+        for (String seatNumber : seatNumbers) {
+            if (!requested.add(seatNumber) || isTakenUnlocked(seatNumber)) {
+                return seatNumber;
+            }
+        }
+        version++;
+        for (String seatNumber : seatNumbers) {
+            mark(seatNumber, true);
+            logChange(seatNumber, true);
+        }
+        return null;
+    }
+
+    /**
+     * Finds and claims seats for a group within the dense indices first .. last, e.g. a price tier's range:
+     * the front-most row with enough adjacent free seats, as close to the middle of the row as they fit.
+     * Without such a row the group gets the front-most free seats instead.
+     *
+     * @return the claimed seat numbers, or null when fewer than count seats are free
+     */
+    public synchronized List<String> claimBest(int first, int last, int count) {
+        int start = bestBlock(first, last, count);
+        List<Integer> seats = new ArrayList<>(count);
+        if (start >= 0) {
+            for (int i = 0; i < count; i++) {
+                seats.add(start + i);
+            }
+        } else {
+            for (int index = nextClear(first, last + 1); index <= last && seats.size() < count;
+                 index = nextClear(index + 1, last + 1)) {
+                seats.add(index);
+            }
+            if (seats.size() < count) {
+                return null;
+            }
+        }
+        version++;
+        List<String> claimed = new ArrayList<>(count);
+        for (int index : seats) {
+            String seatNumber = layout.seatNumberAt(index);
+            mark(seatNumber, true);
+            logChange(seatNumber, true);
+            claimed.add(seatNumber);
+        }
+        return claimed;
+    }
+
+    // Marks seats as taken without conflict checks, used when loading persisted reservations
+    public synchronized void occupyAll(Collection<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            mark(seatNumber, true);
+        }
+    }
+
+    public synchronized void releaseAll(Collection<String> seatNumbers) {
+        boolean bumped = false;
+        for (String seatNumber : seatNumbers) {
+            if (mark(seatNumber, false)) {
+                if (!bumped) {
+                    version++;
+                    bumped = true;
+                }
+                logChange(seatNumber, false);
+            }
+        }
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    // Occupied seat numbers together with the version they reflect
+    public synchronized Snapshot snapshot() {
+        return snapshot(SeatMapEncoding.LIST);
+    }
+
+    /**
+     * Occupied seats in the given encoding together with the version they reflect. The compact encodings
+     * are built straight from the bitset; seats outside the layout are always listed by number.
+     */
+    public synchronized Snapshot snapshot(SeatMapEncoding encoding) {
+        return switch (encoding) {
+            case LIST -> new Snapshot(version, occupiedSeatNumbers(), null, null);
+            case BITMAP -> new Snapshot(version, new ArrayList<>(offLayoutSeats), occupiedBitmap(), null);
+            case RANGES -> new Snapshot(version, new ArrayList<>(offLayoutSeats), null, occupiedRanges());
+        };
+    }
+
+    /**
+     * Free seats among the dense indices first .. last, e.g. a price tier's seat range, as runs per row.
+     */
+    public synchronized Availability freeSeats(int first, int last) {
+        int[] free = {0};
+        Map<String, List<int[]>> ranges = runs(first, last, false, free);
+        return new Availability(version, free[0], ranges);
+    }
+
+    /**
+     * Seats whose state changed after the given version, with their state now.
+     *
+     * @return null when the version is unknown or its changes are no longer all in the log
+     */
+    public synchronized Changes changesSince(long sinceVersion) {
+        if (sinceVersion < overwrittenVersion || sinceVersion > version) {
+            return null;
+        }
+        // Replay the retained changes oldest first, so the last change of a seat wins
+        Map<String, Boolean> latest = new LinkedHashMap<>();
+        for (long i = Math.max(0, changesLogged - changeLog.length); i < changesLogged; i++) {
+            int slot = (int) (i % changeLog.length);
+            if (changeLogVersions[slot] > sinceVersion) {
+                latest.remove(changeLog[slot]);
+                latest.put(changeLog[slot], changeLogTaken[slot]);
+            }
+        }
+        List<String> claimed = new ArrayList<>();
+        List<String> released = new ArrayList<>();
+        latest.forEach((seatNumber, taken) -> (taken ? claimed : released).add(seatNumber));
+        return new Changes(version, claimed, released);
+    }
+
+    public synchronized int occupiedCount() {
+        return occupiedCount;
+    }
+
+    // Occupied seat numbers in layout order, followed by any off-layout seats
+    public synchronized List<String> occupiedSeatNumbers() {
+        List<String> result = new ArrayList<>(occupiedCount);
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                result.add(layout.seatNumberAt((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        result.addAll(offLayoutSeats);
+        return result;
+    }
+
+    // Little-endian bytes of the bitset, one bit per seat index
+    private byte[] occupiedBitmap() {
+        byte[] bitmap = new byte[(layout.capacity() + 7) >>> 3];
+        for (int i = 0; i < bitmap.length; i++) {
+            bitmap[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bitmap;
+    }
+
+    // Runs of occupied positions as [first, last] pairs (1-based), by row label, for rows with any
+    private Map<String, List<int[]>> occupiedRanges() {
+        return runs(0, layout.capacity() - 1, true, null);
+    }
+
+    // 1-based [first, last] seat positions per row of the occupied (or free) runs within [first, last]
+    private Map<String, List<int[]>> runs(int first, int last, boolean occupied, int[] seatCount) {
+        Map<String, List<int[]>> ranges = new LinkedHashMap<>();
+        if (first > last) {
+            return ranges;
+        }
+        for (int row = layout.rowOf(first); row < layout.rowCount() && layout.rowStart(row) <= last; row++) {
+            int start = layout.rowStart(row);
+            int end = Math.min(start + layout.rowLength(row), last + 1);
+            List<int[]> runs = null;
+            int from = next(Math.max(start, first), end, occupied);
+            while (from < end) {
+                int to = next(from, end, !occupied);
+                if (runs == null) {
+                    runs = new ArrayList<>();
+                    ranges.put(layout.rowLabel(row), runs);
+                }
+                runs.add(new int[]{from - start + 1, to - start});
+                if (seatCount != null) {
+                    seatCount[0] += to - from;
+                }
+                from = next(to, end, occupied);
+            }
+        }
+        return ranges;
+    }
+
+    private int next(int from, int limit, boolean occupied) {
+        return occupied ? nextSet(from, limit) : nextClear(from, limit);
+    }
+
+    // Start of the best block of count adjacent free seats in [first, last], or -1
+    private int bestBlock(int first, int last, int count) {
+        if (count < 1 || first > last) {
+            return -1;
+        }
+        int firstRow = layout.rowOf(first);
+        int lastRow = layout.rowOf(last);
+        // Rows cut by the range are searched directly, the full rows in between through the tree
+        boolean firstCut = first > layout.rowStart(firstRow);
+        boolean lastCut = last < rowLast(lastRow);
+        if (firstCut || (lastCut && firstRow == lastRow)) {
+            int start = bestBlockInRow(firstRow, first, Math.min(last, rowLast(firstRow)), count);
+            if (start >= 0 || firstRow == lastRow) {
+                return start;
+            }
+        }
+        int row = freeRuns.firstRowWithRun(firstCut ? firstRow + 1 : firstRow, lastCut ? lastRow - 1 : lastRow, count);
+        if (row >= 0) {
+            return bestBlockInRow(row, layout.rowStart(row), rowLast(row), count);
+        }
+        return lastCut ? bestBlockInRow(lastRow, layout.rowStart(lastRow), last, count) : -1;
+    }
+
+    // Start of the block of count free seats in [from, to] of the row closest to the row's middle, or -1
+    private int bestBlockInRow(int row, int from, int to, int count) {
+        // Part of a row has no longer run than the whole row, so rows cut by the range skip the scan too
+        if (freeRuns.longestRun(row) < count) {
+            return -1;
+        }
+        int middle2 = 2 * layout.rowStart(row) + layout.rowLength(row); // twice the middle, to stay in integers
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        int runStart = nextClear(from, to + 1);
+        while (runStart <= to) {
+            int runEnd = nextSet(runStart, to + 1);
+            if (runEnd - runStart >= count) {
+                // Centre the block on the middle, clamped into the run
+                int start = Math.max(runStart, Math.min(runEnd - count, (middle2 - count) / 2));
+                long distance = Math.abs(2L * start + count - middle2);
+                if (distance < bestDistance) {
+                    best = start;
+                    bestDistance = distance;
+                }
+            }
+            runStart = nextClear(runEnd, to + 1);
+        }
+        return best;
+    }
+
+    private int rowLast(int row) {
+        return layout.rowStart(row) + layout.rowLength(row) - 1;
+    }
+
+    // Longest run of free seats in the row
+    private int longestFreeRun(int row) {
+        int end = layout.rowStart(row) + layout.rowLength(row);
+        int longest = 0;
+        int runStart = nextClear(layout.rowStart(row), end);
+        while (runStart < end) {
+            int runEnd = nextSet(runStart, end);
+            longest = Math.max(longest, runEnd - runStart);
+            runStart = nextClear(runEnd, end);
+        }
+        return longest;
+    }
+
+    // First occupied index in [from, limit), or limit
+    private int nextSet(int from, int limit) {
+        while (from < limit) {
+            long word = words[from >>> 6] & (-1L << from);
+            if (word != 0) {
+                return Math.min(limit, (from & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            from = (from & ~63) + 64;
+        }
+        return limit;
+    }
+
+    // First free index in [from, limit), or limit
+    private int nextClear(int from, int limit) {
+        while (from < limit) {
+            long word = ~words[from >>> 6] & (-1L << from);
+            if (word != 0) {
+                return Math.min(limit, (from & ~63) + Long.numberOfTrailingZeros(word));
+            }
+            from = (from & ~63) + 64;
+        }
+        return limit;
+    }
+
+    private boolean isTakenUnlocked(String seatNumber) {
+        int index = layout.indexOf(seatNumber);
+        return index >= 0 ? isSet(index) : offLayoutSeats.contains(seatNumber);
+    }
+
+    private boolean isSet(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void logChange(String seatNumber, boolean taken) {
+        if (changeLog.length == 0) {
+            overwrittenVersion = version;
+            return;
+        }
+        int slot = (int) (changesLogged % changeLog.length);
+        if (changesLogged >= changeLog.length) {
+            overwrittenVersion = changeLogVersions[slot];
+        }
+        changeLog[slot] = seatNumber;
+        changeLogTaken[slot] = taken;
+        changeLogVersions[slot] = version;
+        changesLogged++;
+    }
+
+    // Returns whether the seat's state changed
+    private boolean mark(String seatNumber, boolean occupied) {
+        int index = layout.indexOf(seatNumber);
+        boolean changed;
+        if (index < 0) {
+            changed = occupied ? offLayoutSeats.add(seatNumber) : offLayoutSeats.remove(seatNumber);
+        } else {
+            changed = isSet(index) != occupied;
+            if (occupied) {
+                words[index >>> 6] |= 1L << index;
+            } else {
+                words[index >>> 6] &= ~(1L << index);
+            }
+            if (changed) {
+                int row = layout.rowOf(index);
+                freeRuns.update(row, longestFreeRun(row));
+            }
+        }
+        if (changed) {
+            occupiedCount += occupied ? 1 : -1;
+        }
+        return changed;
+    }
+
+    /**
+     * Occupied seats at a version: by number, or as a bitmap or ranges with only off-layout seats by number.
+     */
+    public record Snapshot(long version, List<String> occupiedSeats, byte[] bitmap, Map<String, List<int[]>> ranges) {
+    }
+
+    public record Changes(long version, List<String> claimed, List<String> released) {
+    }
+
+    /**
+     * Free seats of a seat range at a version, as 1-based [first, last] seat positions per row.
+     */
+    public record Availability(long version, int freeCount, Map<String, List<int[]>> ranges) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.collegefest.booking.util;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One Server-Sent Events broadcast shared by many subscribers. Every message is serialized once by the
+ * caller and queued per subscriber in a bounded buffer, which a shared writer pool drains, so a slow client
+ * never holds up the broadcaster or the other clients. A subscriber whose buffer overflows is disconnected;
+ * EventSource clients reconnect on their own and start again from a fresh snapshot.
+ */
+public final class SseFanout {
+
+    private final int bufferSize;
+    private final Executor writer;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final LongAdder evicted = new LongAdder();
+
+    public SseFanout(int bufferSize, Executor writer) {
+        this.bufferSize = bufferSize;
+        this.writer = writer;
+    }
+
+    /**
+     * Registers the emitter and queues the initial messages (e.g. a snapshot) ahead of any broadcast.
+     */
+    public void subscribe(SseEmitter emitter, List<Message> initial) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        initial.forEach(subscriber.queue::offer);
+        subscribers.add(subscriber);
+        subscriber.scheduleDrain();
+    }
+
+    public void broadcast(Message message) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(message)) {
+                subscriber.scheduleDrain();
+            } else {
+                evicted.increment();
+                subscriber.evict();
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects clients that went away
+    public void heartbeat() {
+        broadcast(Message.HEARTBEAT);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    public void closeAll() {
+        subscribers.forEach(Subscriber::evict);
+    }
+
+    /**
+     * Pre-serialized event; a null name and data stands for a comment line used as heartbeat.
+     */
+    public record Message(String id, String name, String data) {
+        static final Message HEARTBEAT = new Message(null, null, null);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean completeOnDrain;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                writer.execute(this::drain);
+            }
+        }
+
+        // Only one writer thread drains a subscriber at a time
+        private void drain() {
+            try {
+                Message message;
+                while (!closed && !completeOnDrain && (message = queue.poll()) != null) {
+                    send(message);
+                }
+                if (completeOnDrain && !closed) {
+                    // Completed here rather than by the broadcaster, which must not wait on a slow send
+                    closed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed && (completeOnDrain || !queue.isEmpty())) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        private void send(Message message) throws IOException {
+            if (message.name() == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event();
+            if (message.id() != null) {
+                event.id(message.id());
+            }
+            emitter.send(event.name(message.name()).data(message.data(), MediaType.APPLICATION_JSON));
+        }
+
+        private void evict() {
+            subscribers.remove(this);
+            queue.clear();
+            completeOnDrain = true;
+            scheduleDrain();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.collegefest.booking.util;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Keyed {@link SseFanout}s, e.g. one per event, each with its own message sequence. A topic exists while
+ * it has subscribers; {@link #heartbeat} drops the ones everybody has left.
+ */
+public final class SseTopics<K> {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Executor writer;
+    private final Map<K, Topic> topics = new ConcurrentHashMap<>();
+    // Evictions counted by topics that were dropped
+    private final LongAdder retiredEvictions = new LongAdder();
+
+    public SseTopics(int bufferSize, int maxSubscribers, Executor writer) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.writer = writer;
+    }
+
+    /**
+     * Subscribes the emitter, starting with the message built for the topic's current sequence.
+     *
+     * @return false when the topic already has the maximum number of subscribers
+     */
+    public boolean subscribe(K key, SseEmitter emitter, LongFunction<SseFanout.Message> initial) {
+        boolean[] accepted = {false};
+        topics.compute(key, (k, topic) -> {
+            Topic target = topic != null ? topic : new Topic(new SseFanout(bufferSize, writer));
+            if (target.fanout.subscriberCount() < maxSubscribers) {
+                target.fanout.subscribe(emitter, List.of(initial.apply(target.sequence.get())));
+                accepted[0] = true;
+            }
+            return target;
+        });
+        return accepted[0];
+    }
+
+    public boolean isWatched(K key) {
+        return topics.containsKey(key);
+    }
+
+    // Sends the message built for the topic's next sequence; does nothing when nobody watches the topic
+    public void publish(K key, LongFunction<SseFanout.Message> message) {
+        Topic topic = topics.get(key);
+        if (topic != null) {
+            topic.fanout.broadcast(message.apply(topic.sequence.incrementAndGet()));
+        }
+    }
+
+    public void heartbeat() {
+        for (K key : topics.keySet()) {
+            Topic topic = topics.computeIfPresent(key, (k, current) -> {
+                if (current.fanout.subscriberCount() > 0) {
+                    return current;
+                }
+                retiredEvictions.add(current.fanout.evictedCount());
+                return null;
+            });
+            if (topic != null) {
+                topic.fanout.heartbeat();
+            }
+        }
+    }
+
+    public int topicCount() {
+        return topics.size();
+    }
+
+    public int subscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.fanout.subscriberCount()).sum();
+    }
+
+    public long evictedCount() {
+        return retiredEvictions.sum() + topics.values().stream().mapToLong(topic -> topic.fanout.evictedCount()).sum();
+    }
+
+    public void closeAll() {
+        topics.values().forEach(topic -> topic.fanout.closeAll());
+    }
+
+    private static final class Topic {
+        private final SseFanout fanout;
+        private final AtomicLong sequence = new AtomicLong();
+
+        private Topic(SseFanout fanout) {
+            this.fanout = fanout;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.collegefest.booking.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} slots of one tick each, and every higher level
+ * has slots as long as a whole turn of the level below. Timers are kept in the level that fits their
+ * deadline and moved down as time catches up, so scheduling, cancelling and expiring are O(1) per timer
+ * no matter how many are pending. Timers further out than the top level are parked in its last slot and
+ * re-placed when that slot comes up.
+ */
+public final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // Length of one slot per level, in ticks
+    private final long[] slotTicks;
+    private final List<List<Timer<K>>>[] levels;
+
+    // Guarded by this
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final List<Timer<K>> overdue = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick, 2+ slots and 1+ levels");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slotTicks = new long[levelCount];
+        this.levels = new List[levelCount];
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            slotTicks[level] = span;
+            levels[level] = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                levels[level].add(new ArrayList<>());
+            }
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the key to expire at the deadline, replacing any earlier schedule of the same key.
+     * Deadlines that already passed are returned by the next {@link #advanceTo}.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        // Rounded up, so a timer never fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    public synchronized boolean cancel(K key) {
+        // The timer stays in its slot and is skipped when the slot comes up
+        return timers.remove(key) != null;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns the keys whose deadline has been reached.
+     */
+    public synchronized List<K> advanceTo(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Bring down the higher-level slots that start at this tick, top level first
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (currentTick % slotTicks[level] == 0) {
+                    List<Timer<K>> slot = slotFor(level, currentTick);
+                    List<Timer<K>> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+            List<Timer<K>> slot = slotFor(0, currentTick);
+            slot.forEach(timer -> expire(timer, expired));
+            slot.clear();
+        }
+        overdue.forEach(timer -> expire(timer, expired));
+        overdue.clear();
+        return expired;
+    }
+
+    private void expire(Timer<K> timer, List<K> expired) {
+        if (timers.remove(timer.key, timer)) {
+            expired.add(timer.key);
+        }
+    }
+
+    private void place(Timer<K> timer) {
+        if (timers.get(timer.key) != timer) {
+            return; // Cancelled or rescheduled meanwhile
+        }
+        if (timer.deadlineTick <= currentTick) {
+            overdue.add(timer);
+            return;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            if (timer.deadlineTick / slotTicks[level] - currentTick / slotTicks[level] < wheelSize) {
+                slotFor(level, timer.deadlineTick).add(timer);
+                return;
+            }
+        }
+        // Beyond the top level: park in its last slot ahead and place again from there
+        int top = levels.length - 1;
+        slotFor(top, currentTick + (wheelSize - 1) * slotTicks[top]).add(timer);
+    }
+
+    private List<Timer<K>> slotFor(int level, long tick) {
+        return levels[level].get((int) ((tick / slotTicks[level]) % wheelSize));
+    }
+
+    private record Timer<K>(K key, long deadlineTick) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.collegefest.booking.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * FIFO queue for one event's sale opening. Clients draw increasing ticket numbers and are admitted in
+ * order by a token bucket that refills at {@code ratePerSecond} and holds at most one second of tokens.
+ * Admission is advanced lazily whenever somebody asks for a status, so an idle room costs nothing.
+ */
+public final class WaitingRoom {
+
+    private final double ratePerSecond;
+    private final LongSupplier nanoClock;
+    private final AtomicLong issued = new AtomicLong();
+
+    // Guarded by this
+    private long admittedThrough;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public WaitingRoom(double ratePerSecond, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Admission rate must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.nanoClock = nanoClock;
+        this.tokens = ratePerSecond;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    // Hands out the next place in the queue (1-based)
+    public long join() {
+        return issued.incrementAndGet();
+    }
+
+    public long waitingCount() {
+        return issued.get() - admittedThrough();
+    }
+
+    public synchronized long admittedThrough() {
+        refill();
+        return admittedThrough;
+    }
+
+    public boolean isAdmitted(long ticket) {
+        return ticket <= admittedThrough();
+    }
+
+    // Number of clients ahead of this ticket, including itself; 0 once admitted
+    public long position(long ticket) {
+        return Math.max(0, ticket - admittedThrough());
+    }
+
+    public long etaSeconds(long ticket) {
+        return (long) Math.ceil(position(ticket) / ratePerSecond);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRefillNanos = now;
+        tokens = Math.min(ratePerSecond, tokens + elapsedSeconds * ratePerSecond);
+
+        long waiting = issued.get() - admittedThrough;
+        long admit = Math.min(waiting, (long) tokens);
+        if (admit > 0) {
+            admittedThrough += admit;
+            tokens -= admit;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.collegefest.booking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolLimitFilterTest {
+
+	private final ConnectionPoolLimitFilter filter =
+			new ConnectionPoolLimitFilter(2, 50, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+	@Test
+	void turnsAwayRequestsOverTheCapUntilASlotFrees() throws Exception {
+		CountDownLatch inside = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Two slow requests hold both slots, like requests waiting on a locked price tier
+			Future<?> first = executor.submit(() -> holdSlot(inside, release));
+			Future<?> second = executor.submit(() -> holdSlot(inside, release));
+			assertTrue(inside.await(5, TimeUnit.SECONDS));
+			assertEquals(2, filter.getInFlight());
+
+			MockHttpServletResponse rejected = call("/api/bookings");
+			assertEquals(429, rejected.getStatus());
+			assertEquals("5", rejected.getHeader("Retry-After"));
+			assertTrue(rejected.getContentAsString().contains("Server is busy"));
+			assertEquals(1, filter.getRejected());
+
+			// Health checks and non-API paths are never limited
+			assertEquals(200, call("/api/health").getStatus());
+			assertEquals(200, call("/index.html").getStatus());
+
+			release.countDown();
+			first.get(5, TimeUnit.SECONDS);
+			second.get(5, TimeUnit.SECONDS);
+			assertEquals(0, filter.getInFlight());
+			assertEquals(200, call("/api/bookings").getStatus());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Void holdSlot(CountDownLatch inside, CountDownLatch release) throws Exception {
+		MockFilterChain chain = new MockFilterChain() {
+			@Override
+			public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+				inside.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		filter.doFilter(new MockHttpServletRequest("POST", "/api/bookings"), new MockHttpServletResponse(), chain);
+		return null;
+	}
+
+	private MockHttpServletResponse call(String path) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", path), response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,189 @@
+package com.collegefest.booking.controller;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.PageCursor;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of the booking lists with 60 bookings of two seats each: a user's bookings take two
+ * statements (the rows, then their seats) and the admin lists one, however many bookings they hold.
+ * Following the cursors, every page costs the same as the first.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.catalog.refresh-ms=3600000",
+		QueryBudget.PROPERTY
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class BookingListQueryBudgetTest {
+
+	private static final int BOOKINGS = 60;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private SeatReservationRepository seatReservationRepository;
+
+	private User student;
+	private User admin;
+	private Long eventId;
+
+	@BeforeEach
+	void createBookings() {
+		student = fixtures.save(TestFixtures.user("Budget Student"));
+		admin = fixtures.save(TestFixtures.user("Budget Admin").role(UserRole.ADMIN));
+		eventId = createBookings(student, TestFixtures.uniqueSuffix());
+	}
+
+	@Test
+	void bookingListsStayWithinTheirQueryBudgets() throws Exception {
+		QueryBudget.assertAtMost(2, "GET /api/bookings/my-bookings", () -> mockMvc.perform(get("/api/bookings/my-bookings")
+						.with(as(student)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(BOOKINGS))
+				.andExpect(jsonPath("$.data[0].seatNumbers.length()").value(2))
+				.andExpect(jsonPath("$.data[0].tierName").value("General")));
+
+		QueryBudget.assertAtMost(1, "GET /api/admin/bookings", () -> mockMvc.perform(get("/api/admin/bookings")
+						.param("size", "40").with(as(admin)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(40))
+				.andExpect(jsonPath("$.data[0].userName").value(student.getFullName())));
+		QueryBudget.assertAtMost(1, "GET /api/admin/bookings/recent", () -> mockMvc.perform(get("/api/admin/bookings/recent")
+						.param("limit", "20").with(as(admin)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(20)));
+		QueryBudget.assertAtMost(1, "GET /api/admin/bookings/event/{id}", () -> mockMvc.perform(get("/api/admin/bookings/event/" + eventId)
+						.with(as(admin)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(BOOKINGS)));
+	}
+
+	@Test
+	void cursorPagesCostTheSameAsTheFirstPage() throws Exception {
+		// The bookings share a few bookedAt values, so the id decides their order within each
+		List<Object> ids = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			MvcResult result = QueryBudget.assertAtMost(2, "My bookings page " + pages, pageOf(
+					get("/api/bookings/my-bookings").param("limit", "25"), cursor, student));
+			ids.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$.data[*].id"));
+			cursor = result.getResponse().getHeader(PageCursor.HEADER);
+			pages++;
+		} while (cursor != null);
+		assertEquals(3, pages);
+		assertEquals(BOOKINGS, ids.size());
+		assertEquals(BOOKINGS, Set.copyOf(ids).size());
+
+		// Other bookings may be listed too, so walk two admin pages and check they do not overlap
+		List<Object> adminIds = new ArrayList<>();
+		cursor = null;
+		for (int page = 0; page < 2; page++) {
+			MvcResult result = QueryBudget.assertAtMost(1, "Admin bookings page " + page, pageOf(
+					get("/api/admin/bookings").param("size", "25"), cursor, admin));
+			adminIds.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$.data[*].id"));
+			cursor = result.getResponse().getHeader(PageCursor.HEADER);
+			assertNotNull(cursor);
+		}
+		assertEquals(50, Set.copyOf(adminIds).size());
+
+		MvcResult users = QueryBudget.assertAtMost(1, "Admin users page", pageOf(
+				get("/api/admin/users").param("size", "1"), null, admin));
+		MvcResult nextUsers = QueryBudget.assertAtMost(1, "Next admin users page", pageOf(
+				get("/api/admin/users").param("size", "1"), users.getResponse().getHeader(PageCursor.HEADER), admin));
+		String first = JsonPath.read(users.getResponse().getContentAsString(), "$.data[0].fullName");
+		String second = JsonPath.read(nextUsers.getResponse().getContentAsString(), "$.data[0].fullName");
+		assertTrue(first.compareTo(second) <= 0, first + " before " + second);
+
+		mockMvc.perform(get("/api/admin/bookings").param("cursor", "not a cursor").with(as(admin)))
+				.andExpect(status().isBadRequest());
+	}
+
+	private Callable<MvcResult> pageOf(MockHttpServletRequestBuilder request, String cursor, User user) {
+		if (cursor != null) {
+			request.param("cursor", cursor);
+		}
+		return () -> mockMvc.perform(request.with(as(user)))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	// One event with BOOKINGS confirmed bookings by the student, two seats each; returns the event id
+	private Long createBookings(User student, String suffix) {
+		Venue venue = fixtures.save(TestFixtures.venue("Booking Budget", 500));
+		Event event = fixtures.save(TestFixtures.event(venue, "Booking Budget"));
+		PriceTier tier = fixtures.save(TestFixtures.tier(event, 500).availableSeats(500 - 2 * BOOKINGS));
+
+		List<Booking> bookings = new ArrayList<>();
+		for (int i = 0; i < BOOKINGS; i++) {
+			bookings.add(Booking.builder()
+					.bookingReference("QB" + suffix + i)
+					.user(student)
+					.event(event)
+					.priceTier(tier)
+					.numTickets(2)
+					.totalAmount(BigDecimal.valueOf(200))
+					.bookingStatus(BookingStatus.CONFIRMED)
+					.paymentMethod(PaymentMethod.UPI)
+					.paymentStatus(PaymentStatus.SUCCESS)
+					.build());
+		}
+		bookings = bookingRepository.saveAll(bookings);
+
+		List<SeatReservation> seats = new ArrayList<>();
+		for (int i = 0; i < BOOKINGS; i++) {
+			for (int seat = 1; seat <= 2; seat++) {
+				seats.add(SeatReservation.builder()
+						.booking(bookings.get(i))
+						.event(event)
+						.priceTier(tier)
+						.seatNumber("R" + i + "-" + seat)
+						.reservationStatus(ReservationStatus.CONFIRMED)
+						.build());
+			}
+		}
+		seatReservationRepository.saveAll(seats);
+		return event.getId();
+	}
+
+	private static RequestPostProcessor as(User user) {
+		return authentication(TestFixtures.authenticationOf(user));
+	}
+}
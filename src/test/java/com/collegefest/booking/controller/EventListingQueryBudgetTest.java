@@ -0,0 +1,130 @@
+package com.collegefest.booking.controller;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.EventRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.repository.VenueRepository;
+import com.collegefest.booking.service.EventCatalogService;
+import com.collegefest.booking.util.PageCursor;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of the event listings with 200 events: rebuilding the catalog is one statement whatever
+ * the number of events, and the listing endpoints themselves run none, paged or not.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.catalog.refresh-ms=3600000",
+		QueryBudget.PROPERTY
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class EventListingQueryBudgetTest {
+
+	private static final int EVENTS = 200;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EventCatalogService eventCatalogService;
+
+	@Autowired
+	private VenueRepository venueRepository;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Test
+	void listingsStayWithinTheirQueryBudgets() throws Exception {
+		Long eventId = createEvents();
+
+		QueryBudget.assertAtMost(1, "Catalog rebuild", () -> {
+			eventCatalogService.refreshNow();
+			return null;
+		});
+		int total = eventRepository.findAll().size();
+
+		QueryBudget.assertAtMost(0, "GET /api/events", () -> mockMvc.perform(get("/api/events"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(total)));
+		QueryBudget.assertAtMost(0, "GET /api/events?eventType&status", () -> mockMvc.perform(get("/api/events")
+						.param("eventType", "TECH").param("status", "BOOKING_OPEN"))
+				.andExpect(status().isOk()));
+		QueryBudget.assertAtMost(0, "GET /api/events/upcoming", () -> mockMvc.perform(get("/api/events/upcoming"))
+				.andExpect(status().isOk()));
+		QueryBudget.assertAtMost(0, "GET /api/events/{id}", () -> mockMvc.perform(get("/api/events/" + eventId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.priceTiers.length()").value(2)));
+
+		// Following the cursors walks every event once, in date order, with no SQL on any page
+		List<Object> paged = new ArrayList<>();
+		String cursor = null;
+		do {
+			var request = get("/api/events").param("limit", "60");
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			MvcResult result = QueryBudget.assertAtMost(0, "GET /api/events page", () -> mockMvc.perform(request)
+					.andExpect(status().isOk())
+					.andReturn());
+			paged.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$.data[*].id"));
+			cursor = result.getResponse().getHeader(PageCursor.HEADER);
+		} while (cursor != null);
+		assertEquals(total, paged.size());
+		assertEquals(total, Set.copyOf(paged).size());
+
+		// Events missing from the catalog are read with their venue and tiers in one statement
+		Event event = QueryBudget.assertAtMost(1, "Single event read", () ->
+				eventRepository.findByIdWithPriceTiers(eventId).orElseThrow());
+		assertEquals(2, QueryBudget.assertAtMost(0, "Single event conversion", () ->
+				eventCatalogService.toResponse(event).getPriceTiers().size()));
+	}
+
+	// 200 events over 20 venues with two tiers each; returns the id of one of them
+	private Long createEvents() {
+		List<Venue> venues = new ArrayList<>();
+		for (int v = 0; v < 20; v++) {
+			venues.add(TestFixtures.venue("Budget " + v, 500).build());
+		}
+		venues = venueRepository.saveAll(venues);
+
+		List<Event> events = new ArrayList<>();
+		for (int e = 0; e < EVENTS; e++) {
+			events.add(TestFixtures.event(venues.get(e % venues.size()), "Budget " + e)
+					.eventType(e % 2 == 0 ? EventType.TECH : EventType.MUSIC)
+					.build());
+		}
+		events = eventRepository.saveAll(events);
+
+		List<PriceTier> tiers = new ArrayList<>();
+		for (Event event : events) {
+			tiers.add(TestFixtures.tier(event, 100).build());
+			tiers.add(TestFixtures.tier(event, 100).tierName("VIP").price(BigDecimal.valueOf(300)).build());
+		}
+		priceTierRepository.saveAll(tiers);
+		return events.get(0).getId();
+	}
+}
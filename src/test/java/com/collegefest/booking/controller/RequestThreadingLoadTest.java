@@ -0,0 +1,134 @@
+package com.collegefest.booking.controller;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.security.JwtTokenProvider;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sale-style HTTP load against a real Tomcat: many clients book one pessimistically locked tier while others
+ * read the event. Subclasses switch the request threading model. Skipped unless run with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.show-sql=false",
+		"logging.level.com.collegefest.booking=WARN"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestThreadingLoadTest {
+
+	private static final int CLIENTS = 400;
+	private static final int REQUESTS = 4000;
+	private static final int USERS = 64;
+	private static final int SEATS = 100_000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Test
+	void bookAndBrowseUnderLoad() throws InterruptedException {
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			User user = fixtures.save(TestFixtures.user("Load"));
+			tokens.add(jwtTokenProvider.generateToken(TestFixtures.authenticationOf(user)));
+		}
+		Venue venue = fixtures.save(TestFixtures.venue("Load", SEATS));
+		PriceTier priceTier = fixtures.save(TestFixtures.tier(fixtures.save(TestFixtures.event(venue, "Load")), SEATS));
+		String bookingJson = "{\"eventId\":" + priceTier.getEvent().getId() + ",\"priceTierId\":" + priceTier.getId()
+				+ ",\"numTickets\":1,\"paymentMethod\":\"UPI\"}";
+		String base = "http://localhost:" + port;
+
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger busy = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REQUESTS; i++) {
+			String token = tokens.get(i % USERS);
+			boolean book = i % 2 == 0;
+			clients.execute(() -> {
+				HttpRequest request = book
+						? HttpRequest.newBuilder(URI.create(base + "/api/bookings"))
+								.header("Authorization", "Bearer " + token)
+								.header("Content-Type", "application/json")
+								.POST(HttpRequest.BodyPublishers.ofString(bookingJson))
+								.build()
+						: HttpRequest.newBuilder(URI.create(base + "/api/events/" + priceTier.getEvent().getId()))
+								.header("Authorization", "Bearer " + token)
+								.GET()
+								.build();
+				long sent = System.nanoTime();
+				try {
+					int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					latencies.add(System.nanoTime() - sent);
+					if (status == 429) {
+						busy.incrementAndGet();
+					} else if (status >= 400) {
+						failed.incrementAndGet();
+					} else if (book) {
+						booked.incrementAndGet();
+					}
+				} catch (Exception e) {
+					failed.incrementAndGet();
+				}
+			});
+		}
+		clients.shutdown();
+		assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES));
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		System.out.printf("%s (Java %d): %d requests from %d clients in %.2fs = %.0f req/s, p50 %.1f ms, p99 %.1f ms, "
+						+ "booked %d, 429 %d, failed %d%n",
+				getClass().getSimpleName(), Runtime.version().feature(), REQUESTS, CLIENTS, seconds, REQUESTS / seconds,
+				percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), booked.get(), busy.get(), failed.get());
+
+		int available = priceTierRepository.findById(priceTier.getId()).orElseThrow().getAvailableSeats();
+		assertEquals(SEATS - booked.get(), available);
+		assertEquals(0, failed.get());
+	}
+
+	private static double percentileMillis(List<Long> sorted, double percentile) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		return sorted.get((int) Math.min(sorted.size() - 1, Math.round(percentile * sorted.size()))) / 1e6;
+	}
+}
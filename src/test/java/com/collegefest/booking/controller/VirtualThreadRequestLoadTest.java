@@ -0,0 +1,13 @@
+package com.collegefest.booking.controller;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The same load with requests served on virtual threads behind the connection pool limiter. Needs Java 21.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadRequestLoadTest extends RequestThreadingLoadTest {
+}
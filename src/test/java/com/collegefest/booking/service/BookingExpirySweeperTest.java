@@ -0,0 +1,126 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.BookingRepository;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.repository.SeatReservationRepository;
+import com.collegefest.booking.util.SeatLayout;
+import com.collegefest.booking.util.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A sale's worth of abandoned carts is expired in a few set-based chunks rather than one statement per booking.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"booking.expiry.chunk-size=200",
+		// Statistics are global, so keep the outbox dispatcher's polling out of the counts
+		"booking.ledger-outbox.dispatch-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class BookingExpirySweeperTest {
+
+	private static final int ABANDONED = 1000;
+	private static final int CAPACITY = 2000;
+
+	@Autowired
+	private BookingExpirySweeper bookingExpirySweeper;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private SeatReservationRepository seatReservationRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void expiresAbandonedCartsInChunksWithGroupedTierUpdates() {
+		String suffix = TestFixtures.uniqueSuffix();
+		User user = fixtures.save(TestFixtures.user("Sweep"));
+		Event event = fixtures.save(TestFixtures.event(fixtures.save(TestFixtures.venue("Sweep", CAPACITY)), "Sweep"));
+		PriceTier gold = createTier(event, "Gold");
+		PriceTier silver = createTier(event, "Silver");
+		SeatLayout layout = SeatLayout.defaultLayout(CAPACITY);
+
+		// 1,000 expired carts split over two tiers, one cart whose expiry is still ahead and one paid booking
+		List<Booking> bookings = new ArrayList<>();
+		for (int i = 0; i < ABANDONED + 2; i++) {
+			PriceTier priceTier = i % 2 == 0 ? gold : silver;
+			Booking booking = Booking.builder()
+					.bookingReference("SWP" + suffix + i)
+					.user(user)
+					.event(event)
+					.priceTier(priceTier)
+					.numTickets(1)
+					.totalAmount(priceTier.getPrice())
+					.expiresAt(LocalDateTime.now().minusMinutes(1))
+					.build();
+			booking.getSeatReservations().add(SeatReservation.builder()
+					.booking(booking)
+					.event(event)
+					.priceTier(priceTier)
+					.seatNumber(layout.seatNumberAt(i))
+					.build());
+			bookings.add(booking);
+		}
+		Booking notDueYet = bookings.get(ABANDONED);
+		notDueYet.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+		Booking paid = bookings.get(ABANDONED + 1);
+		paid.setBookingStatus(BookingStatus.CONFIRMED);
+		List<Long> ids = bookingRepository.saveAll(bookings).stream().map(Booking::getId).toList();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		BookingExpirySweeper.SweepResult result = bookingExpirySweeper.sweep(ids);
+		long statements = statistics.getPrepareStatementCount();
+		assertEquals(ABANDONED, result.expired());
+		assertEquals(6, result.chunks());
+		assertEquals(ABANDONED, result.seatsReleased());
+		assertEquals(List.of(notDueYet.getId()), List.copyOf(result.deferred().keySet()));
+		assertTrue(result.failed().isEmpty());
+		// Lock, booking update, seat lookup, reservation delete, tier lookup and two tier updates per chunk,
+		// plus loading the event's seat index once
+		assertTrue(statements <= result.chunks() * 8L + 5, "sweep used " + statements + " statements");
+
+		assertEquals(CAPACITY - 1, priceTierRepository.findById(gold.getId()).orElseThrow().getAvailableSeats());
+		assertEquals(CAPACITY - 1, priceTierRepository.findById(silver.getId()).orElseThrow().getAvailableSeats());
+		assertEquals(ABANDONED, bookingRepository.countByEventIdAndBookingStatus(event.getId(), BookingStatus.EXPIRED));
+		assertEquals(1L, bookingRepository.countByEventIdAndBookingStatus(event.getId(), BookingStatus.PENDING_PAYMENT));
+		// Expired seats are deleted; only the cart still due and the paid booking hold theirs
+		assertEquals(2, seatReservationRepository.findByEventIdAndReservationStatus(
+				event.getId(), ReservationStatus.RESERVED).size());
+
+		// A second sweep over the same ids finds nothing left to expire
+		assertEquals(0, bookingExpirySweeper.sweep(ids).expired());
+	}
+
+	private PriceTier createTier(Event event, String name) {
+		return fixtures.save(TestFixtures.tier(event, CAPACITY)
+				.tierName(name)
+				.availableSeats(CAPACITY - (ABANDONED / 2 + 1))); // Held by the carts and bookings below
+	}
+}
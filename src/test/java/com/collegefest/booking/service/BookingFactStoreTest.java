@@ -0,0 +1,96 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The fact store follows bookings and cancellations as they commit, agrees with a rebuild from the DB, and
+ * the analytics endpoint answers without a single statement.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		QueryBudget.PROPERTY,
+		"booking.facts.rebuild-ms=3600000",
+		"booking.catalog.refresh-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class BookingFactStoreTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookingFactStore bookingFactStore;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Test
+	void factsFollowBookingsAndMatchARebuild() throws Exception {
+		User user = fixtures.save(TestFixtures.user("Facts"));
+		User admin = fixtures.save(TestFixtures.user("Facts Admin").role(UserRole.ADMIN));
+		PriceTier tier = createTier();
+		Long eventId = tier.getEvent().getId();
+
+		Authentication authentication = TestFixtures.authenticationOf(user);
+		BookingResponseDTO kept = bookingService.createBooking(TestFixtures.bookingRequest(tier, 2), authentication);
+		BookingResponseDTO cancelled = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), authentication);
+		bookingService.cancelBooking(cancelled.getId(), authentication);
+
+		BookingFactStore.FactQuery byStatus = BookingFactStore.FactQuery.parse("status", null, "workshop", eventId, null, null);
+		List<Map<String, Object>> followed = bookingFactStore.query(byStatus);
+		assertEquals(List.of(
+				Map.of("status", "CONFIRMED", "bookings", 1L, "revenue", kept.getTotalAmount().setScale(2)),
+				Map.of("status", "CANCELLED", "bookings", 1L, "revenue", cancelled.getTotalAmount().setScale(2))
+		), followed);
+
+		bookingFactStore.rebuild();
+		assertEquals(followed, bookingFactStore.query(byStatus));
+
+		QueryBudget.assertAtMost(0, "GET /api/admin/analytics/bookings", () -> mockMvc.perform(get("/api/admin/analytics/bookings")
+						.param("groupBy", "tier,hour")
+						.param("status", "CONFIRMED")
+						.param("eventId", eventId.toString())
+						.with(authentication(TestFixtures.authenticationOf(admin))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(1))
+				.andExpect(jsonPath("$.data[0].tierId").value(tier.getId()))
+				.andExpect(jsonPath("$.data[0].bookings").value(1)));
+
+		mockMvc.perform(get("/api/admin/analytics/bookings").param("groupBy", "event,tier,day")
+						.with(authentication(TestFixtures.authenticationOf(admin))))
+				.andExpect(status().isBadRequest());
+	}
+
+	private PriceTier createTier() {
+		Venue venue = fixtures.save(TestFixtures.venue("Facts", 100));
+		Event event = fixtures.save(TestFixtures.event(venue, "Facts").eventType(EventType.WORKSHOP));
+		return fixtures.save(TestFixtures.tier(event, 100).price(new BigDecimal("120.00")));
+	}
+}
@@ -0,0 +1,10 @@
+package com.collegefest.booking.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Same statement budget with H2 emulating MySQL.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:festdb_mysql;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class BookingInsertBatchingMySqlModeTest extends BookingInsertBatchingTest {
+}
@@ -0,0 +1,119 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.BookingRequestDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.util.SeatLayout;
+import com.collegefest.booking.util.TestFixtures;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements of a 10-seat booking with insert batching on and off. The booking itself
+ * writes 12 rows (booking, 10 seat reservations, ledger outbox entry).
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		// Statistics are global, so keep the outbox dispatcher's polling out of the counts
+		"booking.ledger-outbox.dispatch-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class BookingInsertBatchingTest {
+
+	private static final int SEATS_PER_BOOKING = 10;
+	private static final int CAPACITY = 4000;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final SeatLayout layout = SeatLayout.defaultLayout(CAPACITY);
+	private Authentication authentication;
+	private PriceTier priceTier;
+	private int nextSeat;
+
+	@BeforeEach
+	void createEvent() {
+		authentication = TestFixtures.authenticationOf(fixtures.save(TestFixtures.user("Batch")));
+		Venue venue = fixtures.save(TestFixtures.venue("Batch", CAPACITY));
+		priceTier = fixtures.save(TestFixtures.tier(fixtures.save(TestFixtures.event(venue, "Batch")), CAPACITY));
+		nextSeat = 0;
+
+		// Warm up the seat index and the pooled sequences (the second id of a fresh pool fetches again)
+		statementsForBooking(50);
+		statementsForBooking(50);
+	}
+
+	@Test
+	void tenSeatBookingIsWrittenInAFewBatches() {
+		long batched = statementsForBooking(50);
+		long unbatched = statementsForBooking(1);
+		// 4 reads, 1 tier update and the 12 inserts as one batch per table
+		assertTrue(unbatched - batched >= SEATS_PER_BOOKING - 1,
+				"batched booking used " + batched + " statements, unbatched " + unbatched);
+		assertTrue(batched <= 8, "batched booking used " + batched + " statements");
+	}
+
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void compareBookingTimeWithAndWithoutBatching() {
+		int bookings = 150;
+		for (int batchSize : new int[]{1, 50, 1, 50}) {
+			long start = System.nanoTime();
+			for (int i = 0; i < bookings; i++) {
+				statementsForBooking(batchSize);
+			}
+			double millis = (System.nanoTime() - start) / 1e6;
+			System.out.printf("%s: batch size %2d: %d bookings in %.0f ms (%.2f ms each)%n",
+					getClass().getSimpleName(), batchSize, bookings, millis, millis / bookings);
+			createEvent();
+		}
+	}
+
+	// Books the next 10 seats in a transaction with the given JDBC batch size and counts the prepared statements
+	private long statementsForBooking(int jdbcBatchSize) {
+		List<String> seats = new ArrayList<>();
+		for (int i = 0; i < SEATS_PER_BOOKING; i++) {
+			seats.add(layout.seatNumberAt(nextSeat++));
+		}
+		BookingRequestDTO request = TestFixtures.bookingRequest(priceTier, SEATS_PER_BOOKING);
+		request.setSeatNumbers(seats);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		transactionTemplate.executeWithoutResult(status -> {
+			entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+			bookingService.createBooking(request, authentication);
+		});
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,106 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.BookingRequestDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.exception.InsufficientSeatsException;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of the booking modes when many clients hit one price tier at once. Runs against the
+ * in-memory H2 profile and is skipped unless started with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingModeThroughputTest {
+
+	private static final int CLIENTS = 32;
+	private static final int REQUESTS = 3000;
+	private static final int SEATS = 2000;
+	private static final int USERS = 64;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingSequencer bookingSequencer;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Test
+	void compareThroughputUnderContention() throws InterruptedException {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			users.add(fixtures.save(TestFixtures.user("Bench")));
+		}
+
+		for (BookingMode mode : List.of(BookingMode.PESSIMISTIC, BookingMode.OPTIMISTIC, BookingMode.SEQUENCED)) {
+			PriceTier priceTier = createEvent(mode);
+			AtomicInteger booked = new AtomicInteger();
+			AtomicInteger soldOut = new AtomicInteger();
+			AtomicInteger failed = new AtomicInteger();
+
+			ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+			long start = System.nanoTime();
+			for (int i = 0; i < REQUESTS; i++) {
+				User user = users.get(i % USERS);
+				clients.execute(() -> {
+					BookingRequestDTO request = TestFixtures.bookingRequest(priceTier, 1);
+					try {
+						switch (mode) {
+							case SEQUENCED -> bookingSequencer.submit(request, user.getId());
+							case OPTIMISTIC -> bookingService.createBookingOptimistically(request, TestFixtures.authenticationOf(user));
+							default -> bookingService.createBooking(request, TestFixtures.authenticationOf(user));
+						}
+						booked.incrementAndGet();
+					} catch (InsufficientSeatsException e) {
+						soldOut.incrementAndGet();
+					} catch (RuntimeException e) {
+						failed.incrementAndGet(); // e.g. lock timeouts or exhausted retries
+					}
+				});
+			}
+			clients.shutdown();
+			assertTrue(clients.awaitTermination(5, TimeUnit.MINUTES));
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			System.out.printf("%-12s %5d requests in %6.2fs = %7.0f req/s (booked %d, sold out %d, failed %d)%n",
+					mode, REQUESTS, seconds, REQUESTS / seconds, booked.get(), soldOut.get(), failed.get());
+
+			// Never oversold, and the tier's counter matches the bookings that went through
+			int available = priceTierRepository.findById(priceTier.getId()).orElseThrow().getAvailableSeats();
+			assertTrue(booked.get() <= SEATS);
+			assertEquals(SEATS - booked.get(), available);
+			if (mode == BookingMode.SEQUENCED) {
+				assertEquals(SEATS, booked.get());
+			}
+		}
+	}
+
+	private PriceTier createEvent(BookingMode mode) {
+		Venue venue = fixtures.save(TestFixtures.venue("Bench", SEATS));
+		return fixtures.save(TestFixtures.tier(fixtures.save(TestFixtures.event(venue, "Bench " + mode).bookingMode(mode)), SEATS));
+	}
+}
@@ -0,0 +1,110 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.EventRequestDTO;
+import com.collegefest.booking.dto.request.PriceTierRequestDTO;
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.dto.response.DashboardStatsResponse;
+import com.collegefest.booking.dto.response.EventResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.PriceTierRepository;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The dashboard counters follow event and booking transitions without querying, and agree with a
+ * reconcile against the DB afterwards. The periodic reconcile is slowed down so only the test runs it.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		QueryBudget.PROPERTY,
+		"booking.dashboard.reconcile-ms=3600000",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class DashboardMetricsServiceTest {
+
+	@Autowired
+	private DashboardMetricsService dashboardMetricsService;
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Test
+	void countersFollowTransitionsAndMatchTheDb() throws Exception {
+		String suffix = TestFixtures.uniqueSuffix();
+		Authentication authentication = TestFixtures.authenticationOf(fixtures.save(TestFixtures.user("Dashboard")));
+		Venue venue = fixtures.save(TestFixtures.venue("Dashboard", 100));
+
+		dashboardMetricsService.reconcile();
+		DashboardMetricsService.Snapshot before = dashboardMetricsService.snapshot();
+
+		EventResponseDTO event = eventService.createEvent(eventRequest("Dashboard " + suffix, venue.getId()));
+		eventService.updateEventStatus(event.getId(), EventStatus.BOOKING_OPEN);
+		PriceTier tier = priceTierRepository.findByEventId(event.getId()).get(0);
+		BookingResponseDTO kept = bookingService.createBooking(TestFixtures.bookingRequest(tier, 2), authentication);
+		BookingResponseDTO cancelled = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), authentication);
+		bookingService.cancelBooking(cancelled.getId(), authentication);
+
+		DashboardMetricsService.Snapshot after = dashboardMetricsService.snapshot();
+		assertEquals(before.events(EventStatus.BOOKING_OPEN) + 1, after.events(EventStatus.BOOKING_OPEN));
+		assertEquals(before.events(EventStatus.DRAFT), after.events(EventStatus.DRAFT));
+		assertEquals(before.bookings().get(BookingStatus.CONFIRMED) + 1, after.bookings().get(BookingStatus.CONFIRMED));
+		assertEquals(before.bookings().get(BookingStatus.CANCELLED) + 1, after.bookings().get(BookingStatus.CANCELLED));
+		assertEquals(before.confirmedRevenue().add(kept.getTotalAmount()), after.confirmedRevenue());
+
+		DashboardStatsResponse stats = QueryBudget.assertAtMost(3, "Dashboard stats", dashboardService::getDashboardStats);
+		assertEquals(after.confirmedRevenue(), stats.getTotalRevenue());
+		assertEquals(after.totalBookings(), stats.getTotalBookings());
+
+		dashboardMetricsService.reconcile();
+		assertEquals(after, dashboardMetricsService.snapshot());
+
+		EventResponseDTO draft = eventService.createEvent(eventRequest("Dashboard draft " + suffix, venue.getId()));
+		assertEquals(after.events(EventStatus.DRAFT) + 1, dashboardMetricsService.snapshot().events(EventStatus.DRAFT));
+		eventService.deleteEvent(draft.getId());
+		assertEquals(after, dashboardMetricsService.snapshot());
+	}
+
+	private static EventRequestDTO eventRequest(String name, Long venueId) {
+		PriceTierRequestDTO tier = new PriceTierRequestDTO();
+		tier.setTierName("General");
+		tier.setPrice(new BigDecimal("150.00"));
+		tier.setTotalSeats(100);
+
+		EventRequestDTO request = new EventRequestDTO();
+		request.setEventName(name);
+		request.setEventType(EventType.MUSIC);
+		request.setVenueId(venueId);
+		request.setEventDate(LocalDateTime.now().plusDays(10));
+		request.setMaxCapacity(100);
+		request.setBookingOpensAt(LocalDateTime.now().minusDays(1));
+		request.setBookingClosesAt(LocalDateTime.now().plusDays(9));
+		request.setPriceTiers(List.of(tier));
+		return request;
+	}
+}
@@ -0,0 +1,98 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.EventRequestDTO;
+import com.collegefest.booking.dto.request.PriceTierRequestDTO;
+import com.collegefest.booking.dto.response.EventResponseDTO;
+import com.collegefest.booking.entity.EventStatus;
+import com.collegefest.booking.entity.EventType;
+import com.collegefest.booking.entity.Venue;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Event listings come from the in-memory catalog without any SQL, and event changes show up in it once
+ * committed. The periodic rebuild is slowed down so only the change-driven rebuilds run.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		QueryBudget.PROPERTY,
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class EventCatalogServiceTest {
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private EventCatalogService eventCatalogService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Test
+	void servesListingsFromTheSnapshotAndPicksUpChanges() throws Exception {
+		Venue venue = fixtures.save(TestFixtures.venue("Catalog", 100));
+		EventResponseDTO created = eventService.createEvent(eventRequest("Catalog " + TestFixtures.uniqueSuffix(), venue.getId()));
+		Long eventId = created.getId();
+
+		awaitTrue(() -> eventCatalogService.getEvent(eventId).isPresent());
+		assertEquals(1, eventCatalogService.getEvent(eventId).get().getPriceTiers().size());
+		assertTrue(eventService.getPublishedEvents().stream().noneMatch(event -> event.getId().equals(eventId)));
+
+		eventService.updateEventStatus(eventId, EventStatus.BOOKING_OPEN);
+		awaitTrue(() -> eventCatalogService.getEvent(eventId).get().getStatus() == EventStatus.BOOKING_OPEN);
+
+		List<EventResponseDTO> published = QueryBudget.assertAtMost(0, "Published events", eventService::getPublishedEvents);
+		List<EventResponseDTO> byType = QueryBudget.assertAtMost(0, "Events by type",
+				() -> eventService.getEventsByType(EventType.TECH));
+		List<EventResponseDTO> all = QueryBudget.assertAtMost(0, "All events", eventService::getAllEvents);
+		EventResponseDTO single = QueryBudget.assertAtMost(0, "Event by id", () -> eventService.getEventById(eventId));
+
+		assertTrue(published.stream().anyMatch(event -> event.getId().equals(eventId)));
+		assertTrue(byType.stream().anyMatch(event -> event.getId().equals(eventId)));
+		assertTrue(byType.stream().allMatch(event -> event.getEventType() == EventType.TECH));
+		assertTrue(all.size() >= published.size());
+		assertEquals(venue.getVenueName(), single.getVenue().getVenueName());
+	}
+
+	private static EventRequestDTO eventRequest(String name, Long venueId) {
+		PriceTierRequestDTO tier = new PriceTierRequestDTO();
+		tier.setTierName("General");
+		tier.setPrice(BigDecimal.valueOf(100));
+		tier.setTotalSeats(100);
+
+		EventRequestDTO request = new EventRequestDTO();
+		request.setEventName(name);
+		request.setEventType(EventType.TECH);
+		request.setVenueId(venueId);
+		request.setEventDate(LocalDateTime.now().plusDays(10));
+		request.setMaxCapacity(100);
+		request.setBookingOpensAt(LocalDateTime.now().minusDays(1));
+		request.setBookingClosesAt(LocalDateTime.now().plusDays(9));
+		request.setPriceTiers(List.of(tier));
+		return request;
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "Catalog was not rebuilt in time");
+			Thread.sleep(20);
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.request.BookingRequestDTO;
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.exception.BookingException;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.TestFixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bookings sent with an Idempotency-Key: a retry gets the first booking back, a different request under the
+ * same key is rejected, and a request that loses the key to a concurrent one waits for its booking instead of
+ * booking again. Requests on another instance are played by a second service sharing only the database.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class IdempotencyServiceTest {
+
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User user;
+	private PriceTier tier;
+	private String key;
+
+	@BeforeEach
+	void createFixtures() {
+		user = fixtures.save(TestFixtures.user("Idempotency"));
+		Venue venue = fixtures.save(TestFixtures.venue("Idempotency", 100).hasNumberedSeats(false));
+		tier = fixtures.save(TestFixtures.tier(fixtures.save(TestFixtures.event(venue, "Idempotency")), 100));
+		key = "key-" + TestFixtures.uniqueSuffix();
+	}
+
+	@Test
+	void sameKeyAndBodyReplaysTheFirstBooking() {
+		BookingResponseDTO first = book(idempotencyService, bookingRequest(1));
+		BookingResponseDTO retried = book(idempotencyService, bookingRequest(1));
+		// Another instance has nothing cached and replays the stored row
+		BookingResponseDTO elsewhere = book(otherInstance(), bookingRequest(1));
+
+		assertEquals(first.getId(), retried.getId());
+		assertEquals(first.getBookingReference(), elsewhere.getBookingReference());
+		assertEquals(1, bookingsForEvent());
+		assertEquals(IdempotencyStatus.COMPLETED, storedKey().getStatus());
+	}
+
+	@Test
+	void sameKeyWithADifferentBodyIsRejected() {
+		book(idempotencyService, bookingRequest(1));
+
+		assertThrows(BookingException.class, () -> book(idempotencyService, bookingRequest(2)));
+		assertThrows(BookingException.class, () -> book(otherInstance(), bookingRequest(2)));
+		assertEquals(1, bookingsForEvent());
+	}
+
+	@Test
+	void failedBookingFreesTheKey() {
+		BookingRequestDTO tooMany = bookingRequest(101);
+		assertThrows(RuntimeException.class, () -> book(idempotencyService, tooMany));
+		assertTrue(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), key).isEmpty());
+
+		book(idempotencyService, bookingRequest(1));
+		assertEquals(1, bookingsForEvent());
+	}
+
+	@Test
+	void concurrentSubmissionsBookOnce() throws Exception {
+		CountDownLatch claimed = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		AtomicInteger actionsRun = new AtomicInteger();
+		BookingRequestDTO request = bookingRequest(1);
+		Authentication authentication = TestFixtures.authenticationOf(user);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<BookingResponseDTO> winner = executor.submit(() -> idempotencyService.execute(user.getId(), key,
+					"create-booking", request, () -> {
+						actionsRun.incrementAndGet();
+						claimed.countDown();
+						awaitLatch(proceed);
+						return bookingService.createBooking(request, authentication);
+					}));
+			assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+			// Holds no in-process state of the first request, so only the key's row can stop it
+			IdempotencyService other = otherInstance();
+			Future<BookingResponseDTO> loser = executor.submit(() -> other.execute(user.getId(), key,
+					"create-booking", request, () -> {
+						actionsRun.incrementAndGet();
+						return bookingService.createBooking(request, authentication);
+					}));
+			Thread.sleep(200);
+			assertEquals(IdempotencyStatus.PENDING, storedKey().getStatus());
+			proceed.countDown();
+
+			assertEquals(winner.get(10, TimeUnit.SECONDS).getId(), loser.get(10, TimeUnit.SECONDS).getId());
+		} finally {
+			proceed.countDown();
+			executor.shutdownNow();
+		}
+		assertEquals(1, actionsRun.get());
+		assertEquals(1, bookingsForEvent());
+	}
+
+	private BookingResponseDTO book(IdempotencyService service, BookingRequestDTO request) {
+		return service.execute(user.getId(), key, "create-booking", request,
+				() -> bookingService.createBooking(request, TestFixtures.authenticationOf(user)));
+	}
+
+	private IdempotencyService otherInstance() {
+		IdempotencyService other = new IdempotencyService(idempotencyRecordRepository, objectMapper, transactionTemplate);
+		ReflectionTestUtils.setField(other, "retentionHours", 24L);
+		ReflectionTestUtils.setField(other, "inFlightTimeoutMs", 10000L);
+		ReflectionTestUtils.setField(other, "pendingTimeoutMs", 120000L);
+		ReflectionTestUtils.setField(other, "cacheSize", 100);
+		other.init();
+		return other;
+	}
+
+	private IdempotencyRecord storedKey() {
+		return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), key).orElseThrow();
+	}
+
+	private int bookingsForEvent() {
+		return bookingRepository.findSummariesByEventId(tier.getEvent().getId()).size();
+	}
+
+	private BookingRequestDTO bookingRequest(int tickets) {
+		return TestFixtures.bookingRequest(tier, tickets);
+	}
+
+	private static void awaitLatch(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(10, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
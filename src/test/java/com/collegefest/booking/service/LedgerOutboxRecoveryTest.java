@@ -0,0 +1,104 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.LedgerOutboxRepository;
+import com.collegefest.booking.repository.TransactionRepository;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The ledger rows of a committed booking must survive a crash before or during the outbox dispatch and be
+ * written exactly once afterwards. The scheduled dispatcher is slowed down so the test drives it by hand, and
+ * the test has a database of its own, which the dispatchers of other cached test contexts never see.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"spring.datasource.url=jdbc:h2:mem:festdb_outbox;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"booking.ledger-outbox.dispatch-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class LedgerOutboxRecoveryTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private LedgerOutboxDispatcher ledgerOutboxDispatcher;
+
+	@Autowired
+	private LedgerOutboxRepository ledgerOutboxRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void ledgerRowsAreWrittenExactlyOnceAfterACrash() {
+		Authentication authentication = TestFixtures.authenticationOf(fixtures.save(TestFixtures.user("Outbox")));
+		PriceTier priceTier = fixtures.save(TestFixtures.tier(fixtures.openEvent("Outbox", BookingMode.PESSIMISTIC), 100)
+				.price(new BigDecimal("150.00")));
+
+		BookingResponseDTO booking = bookingService.createBooking(TestFixtures.bookingRequest(priceTier, 2), authentication);
+
+		// Committed, but the process "crashed" before the dispatcher ran: only the outbox row exists
+		assertEquals(0, transactionRepository.findByBookingId(booking.getId()).size());
+		LedgerOutboxEntry entry = pendingEntryFor(booking.getId());
+		assertEquals(TransactionType.PAYMENT, entry.getTransactionType());
+
+		// A crash in the middle of a dispatch rolls back the ledger insert together with the dispatched mark
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			ledgerOutboxDispatcher.dispatchBatch();
+			throw new IllegalStateException("simulated crash before commit");
+		}));
+		assertEquals(0, transactionRepository.findByBookingId(booking.getId()).size());
+		assertNull(ledgerOutboxRepository.findById(entry.getId()).orElseThrow().getDispatchedAt());
+
+		// After the restart the dispatcher delivers the entry once, and running it again changes nothing
+		ledgerOutboxDispatcher.dispatch();
+		ledgerOutboxDispatcher.dispatch();
+		List<Transaction> ledger = transactionRepository.findByBookingId(booking.getId());
+		assertEquals(1, ledger.size());
+		assertEquals(entry.getId(), ledger.get(0).getOutboxId());
+		assertEquals(0, new BigDecimal("300.00").compareTo(ledger.get(0).getAmount()));
+		assertEquals(booking.getBookingReference(), ledger.get(0).getBookingReference());
+		assertNotNull(ledgerOutboxRepository.findById(entry.getId()).orElseThrow().getDispatchedAt());
+
+		// Cancelling goes through the outbox as well
+		bookingService.cancelBooking(booking.getId(), authentication);
+		assertEquals(1, transactionRepository.findByBookingId(booking.getId()).size());
+		ledgerOutboxDispatcher.dispatch();
+		assertEquals(List.of(TransactionType.PAYMENT, TransactionType.REFUND),
+				transactionRepository.findByBookingId(booking.getId()).stream()
+						.map(Transaction::getTransactionType)
+						.sorted()
+						.toList());
+	}
+
+	private LedgerOutboxEntry pendingEntryFor(Long bookingId) {
+		return ledgerOutboxRepository.findAll().stream()
+				.filter(entry -> bookingId.equals(entry.getBookingId()) && entry.getDispatchedAt() == null)
+				.findFirst()
+				.orElseThrow();
+	}
+}
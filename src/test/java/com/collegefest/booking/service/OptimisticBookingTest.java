@@ -0,0 +1,146 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.exception.InsufficientSeatsException;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * An optimistic booking whose conditional seat update finds the tier sold out fails before it writes the
+ * booking, its payment or its ledger outbox row, and is not retried; one that finds the tier sold to someone
+ * else since it read it, with seats still left, is retried and goes through. The test has a database of its
+ * own, since contexts started later recreate the shared one and restart the id sequences under the pooled ids
+ * this context still holds.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"spring.datasource.url=jdbc:h2:mem:festdb_optimistic;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class OptimisticBookingTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingMetricsService bookingMetricsService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private LedgerOutboxRepository ledgerOutboxRepository;
+
+	@Test
+	void soldOutTierFailsWithoutWritingTheBooking() {
+		User user = fixtures.save(TestFixtures.user("Optimistic"));
+		PriceTier tier = createTier();
+		Long eventId = tier.getEvent().getId();
+		long retriesBefore = retries();
+		long outboxBefore = ledgerOutboxRepository.count();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			// The booking reads the tier from this transaction's persistence context, so its count of 3 is
+			// stale once another transaction has sold the last seats; only the conditional update notices
+			priceTierRepository.findById(tier.getId()).orElseThrow();
+			sellOut(tier.getId());
+
+			assertThrows(InsufficientSeatsException.class, () -> bookingService.createBookingOptimistically(
+					TestFixtures.bookingRequest(tier, 1), TestFixtures.authenticationOf(user)));
+			assertTrue(bookingRepository.findSummariesByEventId(eventId).isEmpty());
+			assertEquals(outboxBefore, ledgerOutboxRepository.count());
+			status.setRollbackOnly();
+		});
+
+		assertEquals(retriesBefore, retries());
+		assertEquals(0, priceTierRepository.findById(tier.getId()).orElseThrow().getAvailableSeats());
+	}
+
+	@Test
+	void tierSoldToSomeoneElseSinceTheReadIsRetried() throws Exception {
+		User user = fixtures.save(TestFixtures.user("Optimistic"));
+		PriceTier tier = createTier();
+		long retriesBefore = retries();
+		CountDownLatch sold = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Another sale holds the tier row, uncommitted, while the booking reads the tier and waits to update it
+			Future<?> otherSale = executor.submit(() -> newTransaction().executeWithoutResult(status -> {
+				priceTierRepository.adjustAvailableSeats(tier.getId(), -1);
+				sold.countDown();
+				awaitLatch(commit);
+			}));
+			assertTrue(sold.await(10, TimeUnit.SECONDS));
+			Future<BookingResponseDTO> booking = executor.submit(() -> bookingService.createBookingOptimistically(
+					TestFixtures.bookingRequest(tier, 1), TestFixtures.authenticationOf(user)));
+			Thread.sleep(200);
+			commit.countDown();
+
+			otherSale.get(10, TimeUnit.SECONDS);
+			assertNotNull(booking.get(10, TimeUnit.SECONDS).getId());
+		} finally {
+			commit.countDown();
+			executor.shutdownNow();
+		}
+		assertEquals(retriesBefore + 1, retries());
+		assertEquals(1, priceTierRepository.findById(tier.getId()).orElseThrow().getAvailableSeats());
+	}
+
+	private PriceTier createTier() {
+		Venue venue = fixtures.save(TestFixtures.venue("Optimistic", 100).hasNumberedSeats(false));
+		Event event = fixtures.save(TestFixtures.event(venue, "Optimistic").bookingMode(BookingMode.OPTIMISTIC));
+		return fixtures.save(TestFixtures.tier(event, 3));
+	}
+
+	private void sellOut(Long tierId) {
+		newTransaction().executeWithoutResult(status -> priceTierRepository.adjustAvailableSeats(tierId, -3));
+	}
+
+	private TransactionTemplate newTransaction() {
+		TransactionTemplate other = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return other;
+	}
+
+	private long retries() {
+		return (Long) bookingMetricsService.snapshot().get(BookingMode.OPTIMISTIC.name()).get("retries");
+	}
+
+	private static void awaitLatch(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(10, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
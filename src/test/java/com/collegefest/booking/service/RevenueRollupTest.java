@@ -0,0 +1,135 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The revenue rollup follows the payments and refunds the outbox dispatcher writes to the ledger, including
+ * those of admin status changes, matches a rebuild from the ledger, and the revenue chart reads it with a
+ * single statement.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		QueryBudget.PROPERTY,
+		"booking.catalog.refresh-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class RevenueRollupTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private LedgerOutboxDispatcher ledgerOutboxDispatcher;
+
+	@Autowired
+	private RevenueDailyRepository revenueDailyRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Test
+	void rollupFollowsTheLedgerAndMatchesARebuild() throws Exception {
+		User user = fixtures.save(TestFixtures.user("Revenue"));
+		User admin = fixtures.save(TestFixtures.user("Revenue Admin").role(UserRole.ADMIN));
+		PriceTier tier = createTier();
+		Long eventId = tier.getEvent().getId();
+
+		Authentication authentication = TestFixtures.authenticationOf(user);
+		BookingResponseDTO kept = bookingService.createBooking(TestFixtures.bookingRequest(tier, 2), authentication);
+		BookingResponseDTO cancelled = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), authentication);
+		bookingService.cancelBooking(cancelled.getId(), authentication);
+		ledgerOutboxDispatcher.dispatch();
+
+		RevenueDaily row = rollupOf(eventId);
+		assertEquals(LocalDate.now(), row.getRevenueDate());
+		assertEquals(tier.getId(), row.getPriceTierId());
+		assertEquals(kept.getTotalAmount().movePointRight(2).longValue(), row.getAmountMinor());
+		assertEquals(1, row.getBookingCount());
+
+		ledgerOutboxDispatcher.rebuildRevenue(LocalDate.now(), LocalDate.now());
+		RevenueDaily rebuilt = rollupOf(eventId);
+		assertEquals(row.getAmountMinor(), rebuilt.getAmountMinor());
+		assertEquals(row.getBookingCount(), rebuilt.getBookingCount());
+
+		QueryBudget.assertAtMost(1, "GET /api/admin/analytics/revenue", () -> mockMvc.perform(get("/api/admin/analytics/revenue")
+						.param("period", "7days").with(authentication(TestFixtures.authenticationOf(admin))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.length()").value(7))
+				.andExpect(jsonPath("$.data[6].date").value(LocalDate.now().toString())));
+	}
+
+	@Test
+	void adminStatusChangesMoveRevenue() throws Exception {
+		User user = fixtures.save(TestFixtures.user("Revenue Status"));
+		User admin = fixtures.save(TestFixtures.user("Revenue Status Admin").role(UserRole.ADMIN));
+		PriceTier tier = createTier();
+		Long eventId = tier.getEvent().getId();
+		BookingResponseDTO booking = bookingService.createBooking(TestFixtures.bookingRequest(tier, 2),
+				TestFixtures.authenticationOf(user));
+		long amountMinor = booking.getTotalAmount().movePointRight(2).longValue();
+
+		setStatus(booking.getId(), "CANCELLED", admin);
+		ledgerOutboxDispatcher.dispatch();
+		assertEquals(0L, rollupOf(eventId).getAmountMinor());
+		assertEquals(0, rollupOf(eventId).getBookingCount());
+
+		setStatus(booking.getId(), "CONFIRMED", admin);
+		setStatus(booking.getId(), "CONFIRMED", admin);
+		ledgerOutboxDispatcher.dispatch();
+		assertEquals(amountMinor, rollupOf(eventId).getAmountMinor());
+		assertEquals(1, rollupOf(eventId).getBookingCount());
+
+		ledgerOutboxDispatcher.rebuildRevenue(LocalDate.now(), LocalDate.now());
+		assertEquals(amountMinor, rollupOf(eventId).getAmountMinor());
+	}
+
+	private void setStatus(Long bookingId, String status, User admin) throws Exception {
+		mockMvc.perform(patch("/api/admin/bookings/{bookingId}/status", bookingId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"status\":\"" + status + "\"}")
+						.with(authentication(TestFixtures.authenticationOf(admin))))
+				.andExpect(status().isOk());
+	}
+
+	private RevenueDaily rollupOf(Long eventId) {
+		List<RevenueDaily> rows = revenueDailyRepository.findAll().stream()
+				.filter(r -> r.getEventId().equals(eventId))
+				.toList();
+		assertEquals(1, rows.size());
+		return rows.get(0);
+	}
+
+	private PriceTier createTier() {
+		return fixtures.save(TestFixtures.tier(fixtures.openEvent("Revenue", BookingMode.PESSIMISTIC), 100)
+				.price(new BigDecimal("150.00")));
+	}
+}
@@ -0,0 +1,110 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.dto.response.BookingResponseDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bookings without seat numbers at a numbered venue get seats assigned only from tiers whose seat range lies
+ * in the venue layout. Tiers without a range, with a range from before seat layouts or with more seats than
+ * their range book by count, on the locking and the sequenced path alike.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class SeatAssignmentTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingSequencer bookingSequencer;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	private User user;
+
+	@BeforeEach
+	void createUser() {
+		user = fixtures.save(TestFixtures.user("Seating"));
+	}
+
+	@Test
+	void rangeLessTierOnADefaultVenueBooksByCount() {
+		// The default layout of the 100-seat venue is smaller than the tier
+		PriceTier tier = createTier(BookingMode.PESSIMISTIC, 150, null, null);
+
+		BookingResponseDTO booking = bookingService.createBooking(TestFixtures.bookingRequest(tier, 4), TestFixtures.authenticationOf(user));
+
+		assertTrue(booking.getSeatNumbers().isEmpty());
+		assertEquals(146, availableSeats(tier));
+	}
+
+	@Test
+	void legacyNumericRangeBooksByCount() {
+		PriceTier pessimistic = createTier(BookingMode.PESSIMISTIC, 100, "1", "100");
+		PriceTier sequenced = createTier(BookingMode.SEQUENCED, 100, "1", "100");
+
+		assertTrue(bookingService.createBooking(TestFixtures.bookingRequest(pessimistic, 2), TestFixtures.authenticationOf(user))
+				.getSeatNumbers().isEmpty());
+		assertTrue(bookingSequencer.submit(TestFixtures.bookingRequest(sequenced, 2), user.getId()).getSeatNumbers().isEmpty());
+		assertEquals(98, availableSeats(pessimistic));
+		assertEquals(98, availableSeats(sequenced));
+	}
+
+	@Test
+	void tierWithARangeInTheLayoutGetsAdjacentSeats() {
+		PriceTier tier = createTier(BookingMode.PESSIMISTIC, 40, "B1", "C20");
+		PriceTier tooSmallRange = createTier(BookingMode.PESSIMISTIC, 40, "A1", "A20");
+
+		List<String> seats = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), TestFixtures.authenticationOf(user)).getSeatNumbers();
+
+		assertEquals(3, seats.size());
+		assertTrue(seats.stream().allMatch(seat -> seat.startsWith("B")), seats.toString());
+		assertTrue(bookingService.createBooking(TestFixtures.bookingRequest(tooSmallRange, 3), TestFixtures.authenticationOf(user))
+				.getSeatNumbers().isEmpty());
+	}
+
+	@Test
+	void seatsOfACancelledBookingAreAssignedAgain() {
+		PriceTier tier = createTier(BookingMode.PESSIMISTIC, 40, "B1", "C20");
+		Authentication authentication = TestFixtures.authenticationOf(user);
+		BookingResponseDTO cancelled = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), authentication);
+		bookingService.cancelBooking(cancelled.getId(), authentication);
+
+		// The best block is the one just freed, so this only commits if the cancel gave up its seat rows
+		BookingResponseDTO rebooked = bookingService.createBooking(TestFixtures.bookingRequest(tier, 3), authentication);
+
+		assertEquals(cancelled.getSeatNumbers(), rebooked.getSeatNumbers());
+		assertEquals(37, availableSeats(tier));
+	}
+
+	private int availableSeats(PriceTier tier) {
+		return priceTierRepository.findById(tier.getId()).orElseThrow().getAvailableSeats();
+	}
+
+	private PriceTier createTier(BookingMode mode, int seats, String rangeStart, String rangeEnd) {
+		Venue venue = fixtures.save(TestFixtures.venue("Seating", 100));
+		Event event = fixtures.save(TestFixtures.event(venue, "Seating").maxCapacity(seats).bookingMode(mode));
+		return fixtures.save(TestFixtures.tier(event, seats).seatRangeStart(rangeStart).seatRangeEnd(rangeEnd));
+	}
+}
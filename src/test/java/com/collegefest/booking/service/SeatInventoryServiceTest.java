@@ -0,0 +1,122 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Write-behind of the in-memory seat counters: committed takes reach price_tiers on flush, rolled back ones
+ * give their seats back, reconcile repairs deltas lost in a crash, and takes still in flight when the event is
+ * evicted reach the DB when they commit. The scheduled flush is slowed down so only the tests run it.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.inventory.flush-interval-ms=3600000",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class SeatInventoryServiceTest {
+
+	@Autowired
+	private SeatInventoryService seatInventoryService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private PriceTier tier;
+
+	@BeforeEach
+	void createTier() {
+		tier = fixtures.openTier("Inventory", BookingMode.IN_MEMORY, 100);
+	}
+
+	@Test
+	void committedTakesAreWrittenBehindOnFlush() {
+		transactionTemplate.executeWithoutResult(status -> assertTrue(seatInventoryService.tryAcquire(tier, 3)));
+
+		assertEquals(97, seatInventoryService.currentAvailableSeats(tier.getId()));
+		assertEquals(100, dbAvailableSeats());
+		seatInventoryService.flush();
+		assertEquals(97, dbAvailableSeats());
+	}
+
+	@Test
+	void rolledBackTakesGiveTheirSeatsBack() {
+		transactionTemplate.executeWithoutResult(status -> {
+			assertTrue(seatInventoryService.tryAcquire(tier, 4));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(100, seatInventoryService.currentAvailableSeats(tier.getId()));
+		seatInventoryService.flush();
+		assertEquals(100, dbAvailableSeats());
+	}
+
+	@Test
+	void reconcileRepairsDeltasLostInACrash() {
+		// Booked and committed, but the app went down before the decrement was flushed
+		User user = fixtures.save(TestFixtures.user("Inventory"));
+		bookingRepository.save(Booking.builder()
+				.bookingReference("INV" + TestFixtures.uniqueSuffix())
+				.user(user)
+				.event(tier.getEvent())
+				.priceTier(tier)
+				.numTickets(6)
+				.totalAmount(BigDecimal.valueOf(600))
+				.bookingStatus(BookingStatus.CONFIRMED)
+				.build());
+		assertEquals(100, dbAvailableSeats());
+
+		seatInventoryService.reconcile();
+
+		assertEquals(94, dbAvailableSeats());
+		assertEquals(94, seatInventoryService.currentAvailableSeats(tier.getId()));
+	}
+
+	@Test
+	void takesInFlightDuringEvictionReachTheDbOnCommit() {
+		transactionTemplate.executeWithoutResult(status -> {
+			assertTrue(seatInventoryService.tryAcquire(tier, 5));
+			seatInventoryService.evictEvent(tier.getEvent().getId());
+			assertNull(seatInventoryService.currentAvailableSeats(tier.getId()));
+		});
+
+		assertEquals(95, dbAvailableSeats());
+		assertNull(seatInventoryService.currentAvailableSeats(tier.getId()));
+	}
+
+	@Test
+	void evictionWritesQueuedDeltasBack() {
+		transactionTemplate.executeWithoutResult(status -> assertTrue(seatInventoryService.tryAcquire(tier, 2)));
+
+		seatInventoryService.evictEvent(tier.getEvent().getId());
+
+		assertEquals(98, dbAvailableSeats());
+		assertNull(seatInventoryService.currentAvailableSeats(tier.getId()));
+	}
+
+	private int dbAvailableSeats() {
+		return priceTierRepository.findById(tier.getId()).orElseThrow().getAvailableSeats();
+	}
+}
@@ -0,0 +1,111 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.util.QueryBudget;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * The seat-map stream opens with a snapshot of the reserved seats and then carries the seats claimed and
+ * released since, read from the occupancy index without touching the DB. The scheduled publish is slowed
+ * down so only the test runs it.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		QueryBudget.PROPERTY,
+		"booking.seat-map-stream.interval-ms=3600000",
+		"booking.catalog.refresh-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class SeatMapStreamServiceTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SeatMapStreamService seatMapStreamService;
+
+	@Autowired
+	private SeatOccupancyService seatOccupancyService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Test
+	void streamSendsASnapshotThenClaimsAndReleases() throws Exception {
+		Event event = fixtures.openEvent("Stream", BookingMode.PESSIMISTIC);
+		Event unwatched = fixtures.openEvent("Stream", BookingMode.PESSIMISTIC);
+		assertNull(seatOccupancyService.tryClaim(event, List.of("A1")));
+		// Nobody watches yet, so this only drops the pending change; A1 goes out in the snapshot
+		publishChanges();
+
+		MockHttpServletResponse stream = mockMvc.perform(get("/api/seats/event/{eventId}/stream", event.getId()))
+				.andExpect(request().asyncStarted())
+				.andReturn()
+				.getResponse();
+		awaitContains(stream, "\"snapshot\":true");
+		assertTrue(stream.getContentAsString().contains("\"reservedSeats\":[\"A1\"]"));
+
+		assertNull(seatOccupancyService.tryClaim(event, List.of("A3", "A2")));
+		assertNull(seatOccupancyService.tryClaim(unwatched, List.of("B1")));
+		publishChanges();
+		awaitContains(stream, "\"claimed\":[\"A2\",\"A3\"],\"released\":[]");
+
+		seatOccupancyService.release(event, List.of("A1"));
+		publishChanges();
+		awaitContains(stream, "\"claimed\":[],\"released\":[\"A1\"]");
+
+		String content = stream.getContentAsString();
+		assertFalse(content.contains("B1"), content);
+		assertTrue(content.contains("id:2\n"), content);
+	}
+
+	@Test
+	void compactSnapshotsUseTheRequestedEncoding() throws Exception {
+		Event event = fixtures.openEvent("Stream", BookingMode.PESSIMISTIC);
+		assertNull(seatOccupancyService.tryClaim(event, List.of("A1", "A2", "A3")));
+
+		MockHttpServletResponse stream = mockMvc.perform(get("/api/seats/event/{eventId}/stream", event.getId())
+						.param("encoding", "RANGES"))
+				.andExpect(request().asyncStarted())
+				.andReturn()
+				.getResponse();
+		awaitContains(stream, "\"snapshot\":true");
+
+		String content = stream.getContentAsString();
+		assertTrue(content.contains("\"encoding\":\"RANGES\""), content);
+		assertTrue(content.contains("\"reservedRanges\":{\"A\":[[1,3]]}"), content);
+		assertTrue(content.contains("\"reservedSeats\":[]"), content);
+	}
+
+	private void publishChanges() throws Exception {
+		QueryBudget.assertAtMost(0, "seat map publish", () -> {
+			seatMapStreamService.publishChanges();
+			return null;
+		});
+	}
+
+	private static void awaitContains(MockHttpServletResponse response, String text) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!response.getContentAsString().contains(text)) {
+			assertTrue(System.nanoTime() < deadline, "timed out waiting for " + text + " in " + response.getContentAsString());
+			Thread.sleep(5);
+		}
+	}
+}
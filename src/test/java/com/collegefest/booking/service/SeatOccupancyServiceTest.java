@@ -0,0 +1,141 @@
+package com.collegefest.booking.service;
+
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.util.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seat claims through the per-event occupancy index: overlapping claims fail without taking anything, claims
+ * are freed when their transaction rolls back, and an index loads the occupied seats from seat_reservations
+ * and frees only seats that can be stored again.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.show-sql=false",
+		"booking.catalog.refresh-ms=3600000"
+})
+@ActiveProfiles("h2")
+@Import(TestFixtures.class)
+class SeatOccupancyServiceTest {
+
+	@Autowired
+	private SeatOccupancyService seatOccupancyService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private SeatReservationRepository seatReservationRepository;
+
+	private Event event;
+
+	@BeforeEach
+	void createEvent() {
+		event = fixtures.openEvent("Occupancy", BookingMode.PESSIMISTIC);
+	}
+
+	@Test
+	void overlappingClaimFailsWithoutTakingAnySeat() {
+		assertNull(seatOccupancyService.tryClaim(event, List.of("A1", "A2")));
+
+		assertEquals("A2", seatOccupancyService.tryClaim(event, List.of("A3", "A2")));
+		assertFalse(seatOccupancyService.indexFor(event).isTaken("A3"));
+		assertTrue(seatOccupancyService.indexFor(event).isTaken("A2"));
+
+		// Seats outside the layout are tracked too
+		assertNull(seatOccupancyService.tryClaim(event, List.of("STAGE-1")));
+		assertEquals("STAGE-1", seatOccupancyService.tryClaim(event, List.of("STAGE-1")));
+	}
+
+	@Test
+	void rollbackReleasesClaimedSeats() {
+		transactionTemplate.executeWithoutResult(status -> {
+			assertNull(seatOccupancyService.claim(event, List.of("B1", "B2")));
+			assertTrue(seatOccupancyService.indexFor(event).isTaken("B1"));
+			status.setRollbackOnly();
+		});
+		assertFalse(seatOccupancyService.indexFor(event).isTaken("B1"));
+		assertFalse(seatOccupancyService.indexFor(event).isTaken("B2"));
+
+		transactionTemplate.executeWithoutResult(status ->
+				assertNull(seatOccupancyService.claim(event, List.of("B1", "B2"))));
+		assertTrue(seatOccupancyService.indexFor(event).isTaken("B1"));
+	}
+
+	@Test
+	void releaseOnCommitKeepsSeatsUntilTheCommit() {
+		assertNull(seatOccupancyService.tryClaim(event, List.of("C1")));
+		transactionTemplate.executeWithoutResult(status -> {
+			seatOccupancyService.releaseOnCommit(event, List.of("C1"));
+			assertTrue(seatOccupancyService.indexFor(event).isTaken("C1"));
+		});
+		assertFalse(seatOccupancyService.indexFor(event).isTaken("C1"));
+	}
+
+	@Test
+	void indexLoadsHeldSeatsFromReservations() {
+		User user = fixtures.save(TestFixtures.user("Occupancy"));
+		PriceTier tier = fixtures.save(TestFixtures.tier(event, 100).availableSeats(98));
+		Booking booking = bookingRepository.save(booking(user, tier));
+		seatReservationRepository.saveAll(List.of(
+				reservation(booking, tier, "D1", ReservationStatus.CONFIRMED),
+				reservation(booking, tier, "D2", ReservationStatus.RESERVED),
+				reservation(booking, tier, "D3", ReservationStatus.RELEASED)));
+		// A row left RELEASED from before freed seats were deleted, cleared as on startup
+		seatOccupancyService.deleteReleasedReservations();
+
+		seatOccupancyService.evict(event.getId());
+
+		assertTrue(seatOccupancyService.indexFor(event).isTaken("D1"));
+		assertTrue(seatOccupancyService.indexFor(event).isTaken("D2"));
+		assertFalse(seatOccupancyService.indexFor(event).isTaken("D3"));
+		assertEquals("D1", seatOccupancyService.tryClaim(event, List.of("D1")));
+
+		// The seat the index hands out again must also be free to store
+		assertNull(seatOccupancyService.tryClaim(event, List.of("D3")));
+		Booking rebooked = bookingRepository.save(booking(user, tier));
+		seatReservationRepository.save(reservation(rebooked, tier, "D3", ReservationStatus.RESERVED));
+
+		seatOccupancyService.evict(event.getId());
+		assertTrue(seatOccupancyService.indexFor(event).isTaken("D3"));
+	}
+
+	private Booking booking(User user, PriceTier tier) {
+		return Booking.builder()
+				.bookingReference("OCC" + TestFixtures.uniqueSuffix())
+				.user(user)
+				.event(event)
+				.priceTier(tier)
+				.numTickets(2)
+				.totalAmount(BigDecimal.valueOf(200))
+				.bookingStatus(BookingStatus.CONFIRMED)
+				.build();
+	}
+
+	private SeatReservation reservation(Booking booking, PriceTier tier, String seatNumber, ReservationStatus status) {
+		return SeatReservation.builder()
+				.booking(booking)
+				.event(event)
+				.priceTier(tier)
+				.seatNumber(seatNumber)
+				.reservationStatus(status)
+				.build();
+	}
+}
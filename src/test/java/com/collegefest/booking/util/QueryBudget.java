@@ -0,0 +1,39 @@
+package com.collegefest.booking.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test when a piece of code runs more SQL statements than its budget, e.g. a listing that lazily
+ * loads associations per row. Statements are counted per thread, so the app's scheduled jobs do not count;
+ * run requests through MockMvc so they execute on the test thread. Enable it with {@link #PROPERTY}.
+ */
+public final class QueryBudget implements StatementInspector {
+
+	public static final String PROPERTY =
+			"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.collegefest.booking.util.QueryBudget";
+
+	private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get().add(sql);
+		return sql;
+	}
+
+	public static <T> T assertAtMost(int budget, String what, Callable<T> action) throws Exception {
+		List<String> statements = STATEMENTS.get();
+		statements.clear();
+		T result = action.call();
+		if (statements.size() > budget) {
+			fail(what + " ran " + statements.size() + " SQL statements, budget is " + budget + ":\n"
+					+ String.join("\n", statements));
+		}
+		return result;
+	}
+}
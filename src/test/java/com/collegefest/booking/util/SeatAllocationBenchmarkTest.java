@@ -0,0 +1,108 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cost of best-available group allocation as a 20,000 seat venue sells out, with some groups cancelling
+ * to leave holes, against scanning every row for free runs. Skipped unless started with
+ * {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SeatAllocationBenchmarkTest {
+
+	private static final int SECTIONS = 4;
+	private static final int ROWS_PER_SECTION = 50;
+	private static final int SEATS_PER_ROW = 100;
+	private static final int CANCEL_PERCENT = 15;
+
+	@Test
+	void allocatesGroupsUntilTheVenueIsFull() {
+		SeatLayout layout = SeatLayout.parse(layoutJson(), 0);
+		int capacity = layout.capacity();
+		assertEquals(20_000, capacity);
+		// Warm up on a throwaway index
+		sellOut(new SeatOccupancyIndex(layout, 0, 0), new Random(1), new long[10], new long[10], new int[10]);
+
+		SeatOccupancyIndex index = new SeatOccupancyIndex(layout, 0, 0);
+		long[] allocateNanos = new long[10];
+		long[] scanNanos = new long[10];
+		int[] calls = new int[10];
+		int[] together = sellOut(index, new Random(7), allocateNanos, scanNanos, calls);
+
+		for (int decile = 0; decile < 10; decile++) {
+			System.out.printf("%3d-%3d%% sold: %5d groups, allocate %7.2f us, scan all rows %7.2f us%n",
+					decile * 10, decile * 10 + 10, calls[decile],
+					allocateNanos[decile] / 1000.0 / Math.max(1, calls[decile]),
+					scanNanos[decile] / 1000.0 / Math.max(1, calls[decile]));
+		}
+		System.out.printf("%d of %d groups seated together%n", together[0], together[1]);
+		assertNull(index.claimBest(0, capacity - 1, 1));
+	}
+
+	// Books random groups of 1-10, cancelling some, until no seat is left; returns {together, groups}
+	private int[] sellOut(SeatOccupancyIndex index, Random random, long[] allocateNanos, long[] scanNanos, int[] calls) {
+		int capacity = index.getLayout().capacity();
+		Set<String> sold = new HashSet<>();
+		List<List<String>> bookings = new ArrayList<>();
+		int together = 0;
+		int groups = 0;
+		while (sold.size() < capacity) {
+			int group = Math.min(1 + random.nextInt(10), capacity - sold.size());
+			int decile = sold.size() * 10 / capacity;
+
+			long start = System.nanoTime();
+			List<String> seats = index.claimBest(0, capacity - 1, group);
+			allocateNanos[decile] += System.nanoTime() - start;
+			start = System.nanoTime();
+			index.freeSeats(0, capacity - 1);
+			scanNanos[decile] += System.nanoTime() - start;
+			calls[decile]++;
+
+			assertEquals(group, seats.size());
+			for (String seat : seats) {
+				assertTrue(sold.add(seat), seat + " sold twice");
+			}
+			groups++;
+			if (adjacent(index.getLayout(), seats)) {
+				together++;
+			}
+			bookings.add(seats);
+			if (sold.size() < capacity * 9 / 10 && random.nextInt(100) < CANCEL_PERCENT) {
+				List<String> cancelled = bookings.remove(random.nextInt(bookings.size()));
+				index.releaseAll(cancelled);
+				cancelled.forEach(sold::remove);
+			}
+		}
+		return new int[]{together, groups};
+	}
+
+	private static boolean adjacent(SeatLayout layout, List<String> seats) {
+		int first = layout.indexOf(seats.get(0));
+		int last = layout.indexOf(seats.get(seats.size() - 1));
+		return last - first == seats.size() - 1 && layout.rowOf(first) == layout.rowOf(last);
+	}
+
+	private static String layoutJson() {
+		StringBuilder json = new StringBuilder("{\"sections\":[");
+		for (int section = 0; section < SECTIONS; section++) {
+			json.append(section > 0 ? "," : "").append("{\"name\":\"S").append(section).append("\",\"rows\":[");
+			for (int row = 0; row < ROWS_PER_SECTION; row++) {
+				json.append(row > 0 ? "," : "").append("{\"row\":\"S").append(section).append('R').append(row)
+						.append("-\",\"seats\":").append(SEATS_PER_ROW).append('}');
+			}
+			json.append("]}");
+		}
+		return json.append("]}").toString();
+	}
+}
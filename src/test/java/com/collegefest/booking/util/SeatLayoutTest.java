@@ -0,0 +1,62 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatLayoutTest {
+
+	private static final String LAYOUT = "{\"sections\":["
+			+ "{\"name\":\"Stalls\",\"rows\":[{\"row\":\"A\",\"seats\":10},{\"row\":\"B\",\"seats\":12}]},"
+			+ "{\"name\":\"Balcony\",\"rows\":[{\"row\":\"BA\",\"seats\":8}]}]}";
+
+	@Test
+	void compilesSectionsAndRowsToDenseSeatIndices() {
+		SeatLayout layout = SeatLayout.parse(LAYOUT, 0);
+
+		assertEquals(30, layout.capacity());
+		assertEquals(2, layout.sectionCount());
+		assertEquals("Stalls", layout.sectionName(0));
+		assertEquals("Balcony", layout.sectionName(1));
+		assertEquals(0, layout.sectionFirstRow(0));
+		assertEquals(2, layout.sectionFirstRow(1));
+		assertEquals(3, layout.sectionFirstRow(2));
+
+		assertEquals(0, layout.indexOf("A1"));
+		assertEquals(21, layout.indexOf("B12"));
+		assertEquals(22, layout.indexOf("BA1"));
+		assertEquals(-1, layout.indexOf("B13"));
+		assertEquals("BA8", layout.seatNumberAt(29));
+	}
+
+	@Test
+	void hashesTheLayoutSource() {
+		assertEquals(SeatLayout.parse(LAYOUT, 0).hash(), SeatLayout.parse(LAYOUT, 500).hash());
+		assertNotEquals(SeatLayout.parse(LAYOUT, 0).hash(), SeatLayout.parse(LAYOUT.replace("10", "11"), 0).hash());
+		assertNotEquals(SeatLayout.defaultLayout(100).hash(), SeatLayout.defaultLayout(120).hash());
+		assertEquals(16, SeatLayout.defaultLayout(100).hash().length());
+	}
+
+	@Test
+	void rejectsDuplicateRows() {
+		String duplicate = "{\"rows\":[{\"row\":\"A\",\"seats\":10},{\"row\":\"A\",\"seats\":5}]}";
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SeatLayout.parse(duplicate, 0));
+		assertTrue(e.getMessage().contains("Duplicate row label: A"));
+	}
+
+	@Test
+	void mapsASeatRangeAcrossRows() {
+		SeatLayout layout = SeatLayout.parse(LAYOUT, 0);
+
+		SeatLayout.SeatRange range = layout.range("A5", "B12");
+		assertEquals(new SeatLayout.SeatRange(4, 21), range);
+		assertEquals(18, range.size());
+		assertTrue(range.contains(layout.indexOf("B1")));
+		assertFalse(range.contains(layout.indexOf("A4")));
+		assertFalse(range.contains(layout.indexOf("BA1")));
+		assertFalse(range.contains(layout.indexOf("Z1")));
+
+		assertThrows(IllegalArgumentException.class, () -> layout.range("B1", "A10"));
+		assertThrows(IllegalArgumentException.class, () -> layout.range("A1", "C1"));
+	}
+}
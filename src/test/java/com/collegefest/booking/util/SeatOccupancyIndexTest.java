@@ -0,0 +1,162 @@
+package com.collegefest.booking.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatOccupancyIndexTest {
+
+	private static final long START = 1_000;
+
+	@Test
+	void returnsTheNetChangesSinceAVersion() {
+		SeatOccupancyIndex index = new SeatOccupancyIndex(SeatLayout.defaultLayout(100), START, 16);
+		index.occupyAll(List.of("A1"));
+		assertEquals(START, index.version());
+
+		assertNull(index.claimAll(List.of("A2", "A3")));
+		long afterFirstClaim = index.version();
+		assertNull(index.claimAll(List.of("B1")));
+		index.releaseAll(List.of("A2", "A1"));
+		// Releasing a free seat changes nothing and keeps the version
+		long version = index.version();
+		index.releaseAll(List.of("C5"));
+		assertEquals(version, index.version());
+
+		SeatOccupancyIndex.Changes all = index.changesSince(START);
+		assertEquals(List.of("A3", "B1"), all.claimed());
+		assertEquals(List.of("A2", "A1"), all.released());
+		assertEquals(version, all.version());
+
+		SeatOccupancyIndex.Changes later = index.changesSince(afterFirstClaim);
+		assertEquals(List.of("B1"), later.claimed());
+		assertEquals(List.of("A2", "A1"), later.released());
+
+		SeatOccupancyIndex.Changes none = index.changesSince(version);
+		assertTrue(none.claimed().isEmpty() && none.released().isEmpty());
+
+		SeatOccupancyIndex.Snapshot snapshot = index.snapshot();
+		assertEquals(version, snapshot.version());
+		assertEquals(List.of("A3", "B1"), snapshot.occupiedSeats());
+	}
+
+	@Test
+	void needsASnapshotOnceTheChangesAreOverwritten() {
+		SeatOccupancyIndex index = new SeatOccupancyIndex(SeatLayout.defaultLayout(100), START, 4);
+		index.claimAll(List.of("A1", "A2"));
+		long afterFirstClaim = index.version();
+		index.claimAll(List.of("A3", "A4"));
+		assertNotNull(index.changesSince(START));
+
+		index.claimAll(List.of("A5"));
+		// A1 was overwritten, so only clients that already saw the first claim can get a delta
+		assertNull(index.changesSince(START));
+		assertEquals(List.of("A3", "A4", "A5"), index.changesSince(afterFirstClaim).claimed());
+
+		// Versions from before a reload or from the future are unknown too
+		assertNull(index.changesSince(START - 1));
+		assertNull(index.changesSince(index.version() + 1));
+	}
+
+	@Test
+	void encodesReservedSeatsAsBitmapAndRowRanges() {
+		SeatOccupancyIndex index = new SeatOccupancyIndex(SeatLayout.defaultLayout(100), START, 16);
+		index.occupyAll(List.of("A1", "A2", "A3", "A20", "B1", "E17", "Z9"));
+
+		SeatOccupancyIndex.Snapshot bitmap = index.snapshot(SeatMapEncoding.BITMAP);
+		// A1-A3 are seats 0-2, A20 is seat 19, B1 is seat 20 and E17 is seat 96
+		assertEquals(13, bitmap.bitmap().length);
+		assertEquals(0b111, bitmap.bitmap()[0]);
+		assertEquals(0b11000, bitmap.bitmap()[2]);
+		assertEquals(1, bitmap.bitmap()[12]);
+		assertEquals(List.of("Z9"), bitmap.occupiedSeats());
+
+		SeatOccupancyIndex.Snapshot ranges = index.snapshot(SeatMapEncoding.RANGES);
+		assertEquals(List.of("A", "B", "E"), List.copyOf(ranges.ranges().keySet()));
+		assertArrayEquals(new int[][]{{1, 3}, {20, 20}}, ranges.ranges().get("A").toArray(new int[0][]));
+		assertArrayEquals(new int[][]{{1, 1}}, ranges.ranges().get("B").toArray(new int[0][]));
+		assertArrayEquals(new int[][]{{17, 17}}, ranges.ranges().get("E").toArray(new int[0][]));
+		assertEquals(List.of("Z9"), ranges.occupiedSeats());
+	}
+
+	@Test
+	void listsTheFreeSeatsOfARangeAsRowRuns() {
+		SeatLayout layout = SeatLayout.defaultLayout(100);
+		SeatOccupancyIndex index = new SeatOccupancyIndex(layout, START, 16);
+		index.occupyAll(List.of("A1", "A2", "A18", "B5", "B6", "C1", "Z9"));
+
+		// A15 .. C3 spans the end of row A, all of row B and the start of row C
+		SeatLayout.SeatRange range = layout.range("A15", "C3");
+		SeatOccupancyIndex.Availability free = index.freeSeats(range.first(), range.last());
+		assertEquals(List.of("A", "B", "C"), List.copyOf(free.ranges().keySet()));
+		assertArrayEquals(new int[][]{{15, 17}, {19, 20}}, free.ranges().get("A").toArray(new int[0][]));
+		assertArrayEquals(new int[][]{{1, 4}, {7, 20}}, free.ranges().get("B").toArray(new int[0][]));
+		assertArrayEquals(new int[][]{{2, 3}}, free.ranges().get("C").toArray(new int[0][]));
+		assertEquals(range.size() - 4, free.freeCount());
+		assertEquals(START, free.version());
+
+		index.claimAll(List.of("C2", "C3"));
+		assertFalse(index.freeSeats(range.first(), range.last()).ranges().containsKey("C"));
+	}
+
+	@Test
+	void seatsAGroupTogetherInTheFrontMostRowThatFits() {
+		SeatLayout layout = SeatLayout.defaultLayout(60);
+		SeatOccupancyIndex index = new SeatOccupancyIndex(layout, START, 64);
+		index.occupyAll(List.of("A8", "A9", "A10", "A11", "A12"));
+
+		// Row A still fits four, in the run of A13-A20 nearest its middle
+		assertEquals(List.of("A13", "A14", "A15", "A16"), index.claimBest(0, 59, 4));
+		// Ten only fit from row B on, centred in it
+		assertEquals(List.of("B6", "B7", "B8", "B9", "B10", "B11", "B12", "B13", "B14", "B15"),
+				index.claimBest(0, 59, 10));
+		// A range cut mid-row only uses its part of the row
+		SeatLayout.SeatRange range = layout.range("B17", "C2");
+		assertEquals(List.of("B17", "B18", "B19", "B20"), index.claimBest(range.first(), range.last(), 4));
+		assertEquals(List.of("C1", "C2"), index.claimBest(range.first(), range.last(), 2));
+		assertTrue(index.changesSince(START).claimed().containsAll(List.of("A13", "B6", "C2")));
+	}
+
+	@Test
+	void scattersAGroupOnlyWhenNoRowFitsIt() {
+		SeatLayout layout = SeatLayout.defaultLayout(40);
+		SeatOccupancyIndex index = new SeatOccupancyIndex(layout, START, 16);
+		List<String> everyOtherSeat = new ArrayList<>();
+		for (int seat = 0; seat < 40; seat += 2) {
+			everyOtherSeat.add(layout.seatNumberAt(seat));
+		}
+		index.occupyAll(everyOtherSeat);
+
+		assertEquals(List.of("A2", "A4", "A6"), index.claimBest(0, 39, 3));
+		assertNull(index.claimBest(0, 39, 18));
+		assertEquals(List.of("A8", "A10"), index.claimBest(0, 39, 2));
+	}
+
+	@Test
+	void compactEncodingsShrinkAMostlySoldVenue() throws Exception {
+		int capacity = 10_000;
+		SeatLayout layout = SeatLayout.defaultLayout(capacity);
+		SeatOccupancyIndex index = new SeatOccupancyIndex(layout, START, 16);
+		Random random = new Random(7);
+		List<String> sold = new ArrayList<>();
+		for (int seat = 0; seat < capacity; seat++) {
+			// About 5% of seats left as scattered singles, the worst case for ranges
+			if (random.nextInt(100) >= 5) {
+				sold.add(layout.seatNumberAt(seat));
+			}
+		}
+		index.occupyAll(sold);
+
+		ObjectMapper mapper = new ObjectMapper();
+		int list = mapper.writeValueAsString(index.snapshot(SeatMapEncoding.LIST).occupiedSeats()).length();
+		int bitmap = mapper.writeValueAsString(index.snapshot(SeatMapEncoding.BITMAP).bitmap()).length();
+		int ranges = mapper.writeValueAsString(index.snapshot(SeatMapEncoding.RANGES).ranges()).length();
+		assertTrue(bitmap * 10 < list, "bitmap " + bitmap + " vs list " + list);
+		assertTrue(ranges * 5 < list, "ranges " + ranges + " vs list " + list);
+	}
+}
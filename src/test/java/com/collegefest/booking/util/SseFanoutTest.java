@@ -0,0 +1,108 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseFanoutTest {
+
+	private static final int BUFFER = 8;
+
+	private final ExecutorService writer = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void shutdown() {
+		writer.shutdownNow();
+	}
+
+	@Test
+	void evictsSlowConsumerWithoutHoldingUpTheOthers() throws InterruptedException {
+		SseFanout fanout = new SseFanout(BUFFER, writer);
+		RecordingEmitter fast = new RecordingEmitter(null);
+		CountDownLatch unblock = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(unblock);
+		fanout.subscribe(fast, List.of());
+		fanout.subscribe(slow, List.of());
+
+		for (int i = 1; i <= 100; i++) {
+			fanout.broadcast(new SseFanout.Message(String.valueOf(i), "update", "{\"n\":" + i + "}"));
+			int expected = i;
+			awaitTrue(() -> fast.received.size() == expected);
+		}
+
+		assertEquals(1, fanout.subscriberCount());
+		assertEquals(1, fanout.evictedCount());
+		assertEquals(IntStream.rangeClosed(1, 100).mapToObj(i -> "{\"n\":" + i + "}").collect(Collectors.toList()),
+				fast.received);
+
+		// The slow client is completed by the writer once its blocked send returns, and gets nothing more
+		unblock.countDown();
+		awaitTrue(() -> slow.completed);
+		assertEquals(List.of("{\"n\":1}"), slow.received);
+		assertFalse(fast.completed);
+	}
+
+	@Test
+	void sendsInitialMessagesBeforeBroadcasts() throws InterruptedException {
+		SseFanout fanout = new SseFanout(BUFFER, writer);
+		RecordingEmitter emitter = new RecordingEmitter(null);
+		fanout.subscribe(emitter, List.of(new SseFanout.Message("0", "snapshot", "all")));
+		fanout.broadcast(new SseFanout.Message("1", "update", "delta"));
+
+		awaitTrue(() -> emitter.received.size() == 2);
+		assertEquals(List.of("all", "delta"), emitter.received);
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out");
+			Thread.sleep(1);
+		}
+	}
+
+	// Records the data of every event; optionally blocks on the first send like a client that stopped reading
+	private static final class RecordingEmitter extends SseEmitter {
+		private final CountDownLatch unblock;
+		private final List<String> received = new CopyOnWriteArrayList<>();
+		private volatile boolean completed;
+
+		private RecordingEmitter(CountDownLatch unblock) {
+			this.unblock = unblock;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			builder.build().stream()
+					.filter(part -> MediaType.APPLICATION_JSON.equals(part.getMediaType()))
+					.map(part -> part.getData().toString())
+					.forEach(received::add);
+			if (unblock != null) {
+				try {
+					unblock.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+	}
+}
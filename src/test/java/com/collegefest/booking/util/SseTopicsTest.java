@@ -0,0 +1,57 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseTopicsTest {
+
+	private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void shutdown() {
+		writer.shutdownNow();
+	}
+
+	@Test
+	void viewersOfATopicShareOneSequence() {
+		SseTopics<Long> topics = new SseTopics<>(8, 10, writer);
+		List<Long> initialSequences = new ArrayList<>();
+
+		assertTrue(topics.subscribe(1L, new SseEmitter(), sequence -> message(initialSequences, sequence)));
+		topics.publish(1L, sequence -> new SseFanout.Message(String.valueOf(sequence), "seats", "{}"));
+		topics.publish(1L, sequence -> new SseFanout.Message(String.valueOf(sequence), "seats", "{}"));
+		assertTrue(topics.subscribe(1L, new SseEmitter(), sequence -> message(initialSequences, sequence)));
+
+		// A late viewer's snapshot is taken at the topic's current sequence, so the next delta follows it
+		assertEquals(List.of(0L, 2L), initialSequences);
+		assertEquals(1, topics.topicCount());
+		assertEquals(2, topics.subscriberCount());
+	}
+
+	@Test
+	void rejectsViewersOverTheLimitAndIgnoresUnwatchedTopics() {
+		SseTopics<Long> topics = new SseTopics<>(8, 1, writer);
+		List<Long> built = new ArrayList<>();
+
+		assertTrue(topics.subscribe(1L, new SseEmitter(), sequence -> message(built, sequence)));
+		assertFalse(topics.subscribe(1L, new SseEmitter(), sequence -> message(built, sequence)));
+		topics.publish(2L, sequence -> message(built, sequence));
+
+		assertEquals(List.of(0L), built);
+		assertFalse(topics.isWatched(2L));
+		assertEquals(1, topics.subscriberCount());
+	}
+
+	private static SseFanout.Message message(List<Long> built, long sequence) {
+		built.add(sequence);
+		return new SseFanout.Message(String.valueOf(sequence), "seats", "{}");
+	}
+}
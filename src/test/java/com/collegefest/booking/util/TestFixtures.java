@@ -0,0 +1,113 @@
+package com.collegefest.booking.util;
+
+import com.collegefest.booking.dto.request.BookingRequestDTO;
+import com.collegefest.booking.entity.*;
+import com.collegefest.booking.repository.*;
+import com.collegefest.booking.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Venues, events, tiers and users for tests, named with a random suffix because every test context shares one
+ * database. The static builders give an open event with a 100.00 "General" tier so a test only sets what it
+ * is about; the save methods persist them. Import it with {@code @Import(TestFixtures.class)}.
+ */
+@TestComponent
+public class TestFixtures {
+
+	@Autowired
+	private VenueRepository venueRepository;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Autowired
+	private PriceTierRepository priceTierRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	public static String uniqueSuffix() {
+		return UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	public static Venue.VenueBuilder venue(String name, int capacity) {
+		return Venue.builder()
+				.venueName(name + " Hall " + uniqueSuffix())
+				.totalCapacity(capacity);
+	}
+
+	public static Event.EventBuilder event(Venue venue, String name) {
+		return Event.builder()
+				.eventName(name + " " + uniqueSuffix())
+				.eventType(EventType.MUSIC)
+				.venue(venue)
+				.eventDate(LocalDateTime.now().plusDays(10))
+				.bookingOpensAt(LocalDateTime.now().minusDays(1))
+				.bookingClosesAt(LocalDateTime.now().plusDays(9))
+				.maxCapacity(venue.getTotalCapacity())
+				.status(EventStatus.BOOKING_OPEN);
+	}
+
+	public static PriceTier.PriceTierBuilder tier(Event event, int seats) {
+		return PriceTier.builder()
+				.event(event)
+				.tierName("General")
+				.price(new BigDecimal("100.00"))
+				.totalSeats(seats)
+				.availableSeats(seats);
+	}
+
+	public static User.UserBuilder user(String name) {
+		return User.builder()
+				.email(name.toLowerCase().replace(' ', '-') + "-" + uniqueSuffix() + "@college.edu")
+				.password("not-used")
+				.fullName(name + " User");
+	}
+
+	public Venue save(Venue.VenueBuilder venue) {
+		return venueRepository.save(venue.build());
+	}
+
+	public Event save(Event.EventBuilder event) {
+		return eventRepository.save(event.build());
+	}
+
+	public PriceTier save(PriceTier.PriceTierBuilder tier) {
+		return priceTierRepository.save(tier.build());
+	}
+
+	public User save(User.UserBuilder user) {
+		return userRepository.save(user.build());
+	}
+
+	/** An open event in a 100-seat numbered venue of its own. */
+	public Event openEvent(String name, BookingMode mode) {
+		return save(event(save(venue(name, 100)), name).bookingMode(mode));
+	}
+
+	/** The "General" tier of a new {@link #openEvent}. */
+	public PriceTier openTier(String name, BookingMode mode, int seats) {
+		return save(tier(openEvent(name, mode), seats));
+	}
+
+	public static BookingRequestDTO bookingRequest(PriceTier tier, int tickets) {
+		BookingRequestDTO request = new BookingRequestDTO();
+		request.setEventId(tier.getEvent().getId());
+		request.setPriceTierId(tier.getId());
+		request.setNumTickets(tickets);
+		request.setPaymentMethod(PaymentMethod.UPI);
+		return request;
+	}
+
+	public static Authentication authenticationOf(User user) {
+		UserPrincipal principal = UserPrincipal.create(user);
+		return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+	}
+}
@@ -0,0 +1,68 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+	private static final long TICK = 250;
+
+	@Test
+	void firesEveryTimerWithinOneTickOfItsDeadline() {
+		long start = 1_000_000;
+		// 8 slots and 3 levels cover only 128 seconds, so the longer timers go through the overflow slot
+		TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 8, 3, start);
+		Random random = new Random(42);
+		Map<Integer, Long> deadlines = new HashMap<>();
+		for (int key = 0; key < 5000; key++) {
+			long deadline = start + random.nextInt(15 * 60 * 1000);
+			deadlines.put(key, deadline);
+			wheel.schedule(key, deadline);
+		}
+
+		Map<Integer, Long> firedAt = new HashMap<>();
+		for (long now = start; now <= start + 16 * 60 * 1000; now += TICK) {
+			for (Integer key : wheel.advanceTo(now)) {
+				assertNull(firedAt.put(key, now), "fired twice: " + key);
+			}
+		}
+
+		assertEquals(deadlines.keySet(), firedAt.keySet());
+		deadlines.forEach((key, deadline) -> {
+			long late = firedAt.get(key) - deadline;
+			assertTrue(late >= 0 && late < TICK, "timer " + key + " fired " + late + " ms after its deadline");
+		});
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelledAndRescheduledTimersFollowTheLatestSchedule() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 64, 4, 0);
+		wheel.schedule("paid", 10_000);
+		wheel.schedule("extended", 10_000);
+		wheel.schedule("due", 10_000);
+		assertTrue(wheel.cancel("paid"));
+		wheel.schedule("extended", 40_000);
+
+		assertEquals(List.of(), wheel.advanceTo(9_999));
+		assertEquals(List.of("due"), wheel.advanceTo(10_000));
+		assertEquals(List.of(), wheel.advanceTo(39_000));
+		assertEquals(List.of("extended"), wheel.advanceTo(40_100));
+		assertFalse(wheel.cancel("paid"));
+	}
+
+	@Test
+	void pastDeadlinesExpireOnTheNextAdvance() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, 64, 4, 60_000);
+		wheel.schedule("rebuilt-overdue", 1_000);
+
+		assertEquals(List.of("rebuilt-overdue"), wheel.advanceTo(60_000));
+		assertEquals(List.of(), wheel.advanceTo(61_000));
+	}
+}
@@ -0,0 +1,73 @@
+package com.collegefest.booking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitingRoomTest {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void admitsSimulatedCrowdAtConfiguredRateInArrivalOrder() throws Exception {
+		WaitingRoom room = new WaitingRoom(100, clock::get);
+
+		// 5,000 students hit the sale in the same instant
+		int crowd = 5000;
+		List<Long> tickets = joinConcurrently(room, crowd);
+		assertEquals(crowd, tickets.stream().distinct().count());
+
+		// The initial burst holds one second of tokens
+		assertEquals(100, room.admittedThrough());
+		assertTrue(room.isAdmitted(100));
+		assertFalse(room.isAdmitted(101));
+
+		for (int second = 1; second <= 10; second++) {
+			clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+			assertEquals(100L * (second + 1), room.admittedThrough());
+		}
+		assertEquals(crowd - 1100, room.waitingCount());
+
+		long last = crowd;
+		assertEquals(last - 1100, room.position(last));
+		assertEquals((long) Math.ceil((last - 1100) / 100.0), room.etaSeconds(last));
+	}
+
+	@Test
+	void idleRoomDoesNotBankMoreThanOneSecondOfTokens() {
+		WaitingRoom room = new WaitingRoom(50, clock::get);
+		clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+		for (int i = 0; i < 500; i++) {
+			room.join();
+		}
+		assertEquals(50, room.admittedThrough());
+		assertEquals(450, room.position(500));
+	}
+
+	private List<Long> joinConcurrently(WaitingRoom room, int clients) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		List<Long> tickets = new ArrayList<>();
+		CountDownLatch done = new CountDownLatch(clients);
+		for (int i = 0; i < clients; i++) {
+			pool.execute(() -> {
+				long ticket = room.join();
+				synchronized (tickets) {
+					tickets.add(ticket);
+				}
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		pool.shutdown();
+		return tickets;
+	}
+}